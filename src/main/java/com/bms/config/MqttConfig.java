@@ -1,11 +1,15 @@
 package com.bms.config;
 
+import com.bms.service.MqttTopicRouter;
+import jakarta.annotation.PreDestroy;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.ExecutorChannel;
+import org.springframework.integration.channel.PartitionedChannel;
 import org.springframework.integration.core.MessageProducer;
 import org.springframework.integration.mqtt.core.DefaultMqttPahoClientFactory;
 import org.springframework.integration.mqtt.core.MqttPahoClientFactory;
@@ -14,6 +18,12 @@ import org.springframework.integration.mqtt.outbound.MqttPahoMessageHandler;
 import org.springframework.integration.mqtt.support.DefaultPahoMessageConverter;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 public class MqttConfig {
@@ -48,6 +58,21 @@ public class MqttConfig {
     @Value("${mqtt.topics.electronic-load-control}")
     private String electronicLoadControlTopic;
 
+    @Value("${mqtt.dispatch.command.threads:1}")
+    private int commandThreads;
+
+    @Value("${mqtt.dispatch.command.ordering:device}")
+    private String commandOrdering;
+
+    @Value("${mqtt.dispatch.fet-status.threads:1}")
+    private int fetStatusThreads;
+
+    @Value("${mqtt.dispatch.fet-status.ordering:device}")
+    private String fetStatusOrdering;
+
+    // ordering=none 채널의 스레드 풀 (PartitionedChannel 은 빈 소멸 시 자기 파티션 스레드를 스스로 정리한다)
+    private final List<ExecutorService> dispatchExecutors = new CopyOnWriteArrayList<>();
+
     @Bean
     public MqttPahoClientFactory mqttClientFactory() {
         DefaultMqttPahoClientFactory factory = new DefaultMqttPahoClientFactory();
@@ -75,6 +100,51 @@ public class MqttConfig {
         return new DirectChannel();
     }
 
+    // 토픽 클래스별 채널: 느린 status 저장이 control/FET 에코를 막지 않도록 각자 스레드를 가진다
+    // status는 TelemetryAdmissionQueue가 bounded 큐와 기기별 워커로 직접 처리한다
+    @Bean
+    public MessageChannel mqttStatusChannel() {
+        return new DirectChannel();
+    }
+
+    @Bean
+    public MessageChannel statusIngestChannel() {
+        return new DirectChannel();
+    }
+
+    @Bean
+    public MessageChannel mqttCommandChannel(MqttTopicRouter mqttTopicRouter) {
+        return dispatchChannel("mqtt-command-", commandThreads, commandOrdering, mqttTopicRouter);
+    }
+
+    @Bean
+    public MessageChannel mqttFetStatusChannel(MqttTopicRouter mqttTopicRouter) {
+        return dispatchChannel("mqtt-fet-status-", fetStatusThreads, fetStatusOrdering, mqttTopicRouter);
+    }
+
+    /**
+     * ordering=device: 토픽의 기기 ID({@link MqttTopicRouter#deviceIdOf})가 같은 메시지는 항상 같은 파티션(단일 스레드)에서
+     * 순서대로 처리. plain 토픽의 메시지는 모두 한 파티션을 공유한다.
+     * ordering=none: 공유 스레드 풀에서 순서 보장 없이 처리
+     */
+    private MessageChannel dispatchChannel(String threadPrefix, int threads, String ordering, MqttTopicRouter router) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadPrefix);
+        threadFactory.setDaemon(true);
+        if ("none".equalsIgnoreCase(ordering)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads, threadFactory);
+            dispatchExecutors.add(executor);
+            return new ExecutorChannel(executor);
+        }
+        PartitionedChannel channel = new PartitionedChannel(threads, router::deviceIdOf);
+        channel.setThreadFactory(threadFactory);
+        return channel;
+    }
+
+    @PreDestroy
+    void shutdownDispatchExecutors() {
+        dispatchExecutors.forEach(ExecutorService::shutdown);
+    }
+
     @Bean
     public MessageChannel mqttOutboundChannel() {
         return new DirectChannel();
@@ -86,10 +156,14 @@ public class MqttConfig {
                 new MqttPahoMessageDrivenChannelAdapter(
                         "bms-server-" + System.currentTimeMillis(),
                         mqttClientFactory(),
-                        bmsStatusTopic, bmsControlTopic, bmsSettingsTopic, bmsDelaySettingsTopic, bmsFetStatusTopic, electronicLoadControlTopic);
+                        bmsStatusTopic, bmsStatusTopic + "/+", bmsControlTopic, bmsSettingsTopic, bmsDelaySettingsTopic,
+                        bmsFetStatusTopic, bmsFetStatusTopic + "/+", electronicLoadControlTopic);
 
         adapter.setCompletionTimeout(10000);
-        adapter.setConverter(new DefaultPahoMessageConverter());
+        // payload를 byte[] 그대로 전달해 수신 측에서 String 변환 없이 바로 디코딩
+        DefaultPahoMessageConverter converter = new DefaultPahoMessageConverter();
+        converter.setPayloadAsBytes(true);
+        adapter.setConverter(converter);
         adapter.setQos(1);
         adapter.setOutputChannel(mqttInputChannel());
         return adapter;
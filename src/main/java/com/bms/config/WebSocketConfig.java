@@ -1,27 +1,125 @@
 package com.bms.config;
 
+import com.bms.service.BinaryFrameNegotiator;
+import com.bms.service.ConflatedStatusService;
+import com.bms.service.StatusBroadcaster;
+import com.bms.service.WebSocketSessionBacklog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${bms.websocket.inbound.threads:4}")
+    private int inboundThreads;
+
+    @Value("${bms.websocket.outbound.core-threads:4}")
+    private int outboundCoreThreads;
+
+    @Value("${bms.websocket.outbound.max-threads:16}")
+    private int outboundMaxThreads;
+
+    @Value("${bms.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${bms.websocket.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${bms.websocket.send-buffer-size-limit-kb:256}")
+    private int sendBufferSizeLimitKb;
+
+    @Value("${bms.websocket.message-size-limit-kb:64}")
+    private int messageSizeLimitKb;
+
+    @Value("${bms.websocket.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    private final WebSocketSessionBacklog sessionBacklog;
+    private final BinaryFrameNegotiator binaryFrameNegotiator;
+
+    private TaskScheduler heartbeatScheduler;
+    private ConflatedStatusService conflatedStatusService;
+    private StatusBroadcaster statusBroadcaster;
+
+    public WebSocketConfig(WebSocketSessionBacklog sessionBacklog, BinaryFrameNegotiator binaryFrameNegotiator) {
+        this.sessionBacklog = sessionBacklog;
+        this.binaryFrameNegotiator = binaryFrameNegotiator;
+    }
+
+    // 브로커 설정이 만드는 스케줄러를 heartbeat 에도 쓴다 (설정 클래스와의 순환 참조를 피하려고 지연 주입)
+    @Autowired
+    public void setHeartbeatScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler heartbeatScheduler) {
+        this.heartbeatScheduler = heartbeatScheduler;
+    }
+
+    // 메시징 템플릿을 거쳐 브로커 채널에 의존하므로 지연 주입
+    @Autowired
+    public void setConflatedStatusService(@Lazy ConflatedStatusService conflatedStatusService) {
+        this.conflatedStatusService = conflatedStatusService;
+    }
+
+    @Autowired
+    public void setStatusBroadcaster(@Lazy StatusBroadcaster statusBroadcaster) {
+        this.statusBroadcaster = statusBroadcaster;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        // /queue 는 세션별 주기 제한 스트림(/user/queue/bms-status)용
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[] { heartbeatMs, heartbeatMs })
+                .setTaskScheduler(heartbeatScheduler);
         config.setApplicationDestinationPrefixes("/app");
+        // 브로커가 SUBSCRIBE 를 처리한 뒤 세션별 주기 전송을 시작한다 (채널에 executor 를 두면 이 순서가 깨짐)
+        config.configureBrokerChannel().interceptors(conflatedStatusService);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(inboundThreads)
+                .maxPoolSize(inboundThreads);
+        // SUBSCRIBE 의 format:binary 헤더를 보고 binary 토픽으로 바꾸고, delta 구독이 등록되면 keyframe 을 요청한다
+        registration.interceptors(binaryFrameNegotiator, statusBroadcaster);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // 느린 세션은 전송 스레드 하나만 붙잡고(나머지 프레임은 세션 버퍼에 쌓임) 다른 세션은 남은 스레드로 보낸다
+        registration.taskExecutor()
+                .corePoolSize(outboundCoreThreads)
+                .maxPoolSize(outboundMaxThreads)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(sessionBacklog);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // 전송이 이 시간보다 오래 걸리거나 세션 버퍼가 한도를 넘으면 해당 세션만 종료한다
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimitKb * 1024)
+                .setMessageSizeLimit(messageSizeLimitKb * 1024);
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
+        // SockJS 세션은 텍스트 프레임만 보낼 수 있으므로 binary 협상에서 제외한다
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
+                .addInterceptors(BinaryFrameNegotiator.sockJsMarker())
                 .withSockJS();
-        
+
         // 일반 WebSocket 엔드포인트도 추가
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*");
@@ -1,16 +1,30 @@
 package com.bms.controller;
 
+import com.bms.dto.AggregateBucketDto;
 import com.bms.dto.BmsControlDto;
+import com.bms.dto.BmsHistoryPageDto;
+import com.bms.dto.BmsRollupDto;
+import com.bms.dto.CellImbalanceDto;
+import com.bms.dto.EnergyThroughputDto;
+import com.bms.dto.MetricSeriesDto;
 import com.bms.dto.BmsStatusDto;
+import com.bms.model.BmsAlarm;
+import com.bms.model.BmsAnomaly;
 import com.bms.model.BmsData;
 import com.bms.service.BmsService;
+import com.bms.service.LatestStatusCache;
+import com.bms.service.TelemetryAggregationService;
+import com.bms.telemetry.AlarmRule;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 @RestController
 @RequestMapping("/api/bms")
@@ -20,12 +34,16 @@ import java.util.List;
 public class BmsController {
 
     private final BmsService bmsService;
+    private final TelemetryAggregationService telemetryAggregationService;
 
     @GetMapping("/status")
-    public ResponseEntity<BmsStatusDto> getLatestStatus() {
-        BmsStatusDto status = bmsService.getLatestBmsStatus();
-        if (status != null) {
-            return ResponseEntity.ok(status);
+    public ResponseEntity<byte[]> getLatestStatus(@RequestParam(required = false) String deviceId) {
+        // 수집 시 미리 직렬화한 JSON을 그대로 반환 (DB 조회/직렬화 없음)
+        LatestStatusCache.Snapshot snapshot = bmsService.getLatestSnapshot(deviceId);
+        if (snapshot != null) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(snapshot.getJson());
         }
         return ResponseEntity.notFound().build();
     }
@@ -47,6 +65,200 @@ public class BmsController {
         }
     }
 
+    @GetMapping("/history/page")
+    public ResponseEntity<BmsHistoryPageDto> getHistoryPage(
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int pageSize) {
+        try {
+            LocalDateTime startTime = LocalDateTime.parse(start.replace("Z", ""));
+            LocalDateTime endTime = LocalDateTime.parse(end.replace("Z", ""));
+
+            // 응답의 next_cursor를 다음 요청의 cursor로 넘기면 이어지는 페이지를 받는다
+            return ResponseEntity.ok(bmsService.getBmsHistoryPage(startTime, endTime, cursor, pageSize));
+        } catch (Exception e) {
+            log.error("Error parsing history page parameters", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/history/series")
+    public ResponseEntity<MetricSeriesDto> getHistorySeries(
+            @RequestParam String metric,
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(defaultValue = "0") int cell,
+            @RequestParam(defaultValue = "0") int limit) {
+        try {
+            LocalDateTime startTime = LocalDateTime.parse(start.replace("Z", ""));
+            LocalDateTime endTime = LocalDateTime.parse(end.replace("Z", ""));
+
+            // 차트용: 엔티티 대신 (timestamp, value) 배열만 반환
+            return ResponseEntity.ok(bmsService.getMetricSeries(metric, cell, startTime, endTime, limit));
+        } catch (Exception e) {
+            log.error("Error parsing series parameters", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/aggregate")
+    public ResponseEntity<List<AggregateBucketDto>> getAggregate(
+            @RequestParam String field,
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(defaultValue = "3600") long bucketSeconds,
+            @RequestParam(defaultValue = "count,min,max,mean,p50,p95,p99") List<String> functions,
+            @RequestParam(defaultValue = "0") int cell) {
+        try {
+            LocalDateTime startTime = LocalDateTime.parse(start.replace("Z", ""));
+            LocalDateTime endTime = LocalDateTime.parse(end.replace("Z", ""));
+
+            // 시간 파티션별 병렬 집계 (예: field=voltage&functions=min,max,mean,p99)
+            List<String> normalized = functions.stream().map(f -> f.trim().toLowerCase()).toList();
+            return ResponseEntity.ok(telemetryAggregationService.aggregate(
+                    field, cell, startTime, endTime, bucketSeconds, normalized));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.internalServerError().build();
+        } catch (ExecutionException e) {
+            log.error("Error computing aggregate", e);
+            return ResponseEntity.internalServerError().build();
+        } catch (Exception e) {
+            log.error("Error parsing aggregate parameters", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/history/stream")
+    public ResponseEntity<StreamingResponseBody> streamHistory(
+            @RequestParam String start,
+            @RequestParam String end) {
+        try {
+            LocalDateTime startTime = LocalDateTime.parse(start.replace("Z", ""));
+            LocalDateTime endTime = LocalDateTime.parse(end.replace("Z", ""));
+
+            // 큰 구간 내보내기용: 목록을 만들지 않고 커서로 읽으면서 NDJSON으로 바로 전송
+            StreamingResponseBody body = out -> bmsService.writeBmsHistoryNdjson(startTime, endTime, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(body);
+        } catch (Exception e) {
+            log.error("Error parsing date parameters", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/history/rollup")
+    public ResponseEntity<List<BmsRollupDto>> getHistoryRollup(
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(defaultValue = "60") long resolutionSeconds,
+            @RequestParam(required = false) String deviceId) {
+        try {
+            LocalDateTime startTime = LocalDateTime.parse(start.replace("Z", ""));
+            LocalDateTime endTime = LocalDateTime.parse(end.replace("Z", ""));
+
+            // 해상도에 맞는 롤업 단계에서 min/max/avg/last 버킷을 반환 (원본 행을 읽지 않음)
+            return ResponseEntity.ok(bmsService.getBmsHistoryRollup(startTime, endTime, resolutionSeconds, deviceId));
+        } catch (Exception e) {
+            log.error("Error parsing date parameters", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/cells/imbalance")
+    public ResponseEntity<List<CellImbalanceDto>> getCellImbalance(
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(defaultValue = "60") long resolutionSeconds,
+            @RequestParam(required = false) String deviceId) {
+        try {
+            LocalDateTime startTime = LocalDateTime.parse(start.replace("Z", ""));
+            LocalDateTime endTime = LocalDateTime.parse(end.replace("Z", ""));
+
+            // 버킷별 셀 편차와 가장 약한 셀 (수집 시 계산해 둔 롤업에서 읽음)
+            return ResponseEntity.ok(bmsService.getCellImbalance(startTime, endTime, resolutionSeconds, deviceId));
+        } catch (Exception e) {
+            log.error("Error parsing date parameters", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/anomalies")
+    public ResponseEntity<List<BmsAnomaly>> getAnomalies(
+            @RequestParam String start,
+            @RequestParam String end) {
+        try {
+            LocalDateTime startTime = LocalDateTime.parse(start.replace("Z", ""));
+            LocalDateTime endTime = LocalDateTime.parse(end.replace("Z", ""));
+
+            // 실시간 알림은 /topic/bms-anomalies 로 전송되고, 여기서는 저장된 이력을 조회
+            return ResponseEntity.ok(bmsService.getAnomalies(startTime, endTime));
+        } catch (Exception e) {
+            log.error("Error parsing date parameters", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/alarms")
+    public ResponseEntity<List<BmsAlarm>> getAlarms(
+            @RequestParam String start,
+            @RequestParam String end) {
+        try {
+            LocalDateTime startTime = LocalDateTime.parse(start.replace("Z", ""));
+            LocalDateTime endTime = LocalDateTime.parse(end.replace("Z", ""));
+
+            // 발생/해제 이벤트는 /topic/bms-alarms 로 실시간 전송되고, 여기서는 저장된 이력을 조회
+            return ResponseEntity.ok(bmsService.getAlarmHistory(startTime, endTime));
+        } catch (Exception e) {
+            log.error("Error parsing date parameters", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/alarms/active")
+    public ResponseEntity<List<BmsAlarm>> getActiveAlarms() {
+        return ResponseEntity.ok(bmsService.getActiveAlarms());
+    }
+
+    @GetMapping("/alarms/rules")
+    public ResponseEntity<List<AlarmRule>> getAlarmRules() {
+        return ResponseEntity.ok(bmsService.getAlarmRules());
+    }
+
+    /**
+     * Replaces the custom alarm rules. OV/UV/ChgOC/DsgOC 규칙은 /settings 값에서 만들어지므로 여기서 바꾸지 않는다.
+     */
+    @PutMapping("/alarms/rules")
+    public ResponseEntity<List<AlarmRule>> setCustomAlarmRules(@RequestBody List<AlarmRule> rules) {
+        try {
+            bmsService.setCustomAlarmRules(rules);
+            return ResponseEntity.ok(bmsService.getAlarmRules());
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid alarm rules", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/energy")
+    public ResponseEntity<EnergyThroughputDto> getEnergyThroughput(
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(required = false) String deviceId) {
+        try {
+            LocalDateTime startTime = LocalDateTime.parse(start.replace("Z", ""));
+            LocalDateTime endTime = LocalDateTime.parse(end.replace("Z", ""));
+
+            // 구간 충전/방전 Ah, Wh (현재 상태 또는 체크포인트 사이 선형 보간, 전체 이력을 스캔하지 않음).
+            // 지난 시각의 끝점은 체크포인트 주기 단위로만 정확하다 (EnergyThroughputDto 참고)
+            return ResponseEntity.ok(bmsService.getEnergyThroughput(deviceId, startTime, endTime));
+        } catch (Exception e) {
+            log.error("Error parsing date parameters", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/control")
     public ResponseEntity<String> sendControlCommand(@RequestBody BmsControlDto controlDto) {
         try {
@@ -99,6 +311,31 @@ public class BmsController {
         }
     }
 
+    @GetMapping("/temperature/history/series")
+    public ResponseEntity<MetricSeriesDto> getTemperatureHistorySeries(@RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(bmsService.getMetricSeries("temperature", 0, null, null, Math.max(1, limit)));
+        } catch (Exception e) {
+            log.error("Error getting temperature history series", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/temperature/history/page")
+    public ResponseEntity<BmsHistoryPageDto> getTemperatureHistoryPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int pageSize) {
+        try {
+            return ResponseEntity.ok(bmsService.getBmsHistoryPage(null, null, cursor, pageSize));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid temperature history cursor", e);
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error getting temperature history page", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @PostMapping("/control/electronic-load")
     public ResponseEntity<String> controlElectronicLoad(@RequestBody BmsControlDto controlDto) {
         try {
@@ -171,6 +408,11 @@ public class BmsController {
         return ResponseEntity.ok(health);
     }
 
+    @GetMapping("/ingest/stats")
+    public ResponseEntity<java.util.Map<String, Object>> getIngestStats() {
+        return ResponseEntity.ok(bmsService.getIngestStats());
+    }
+
     // BMS 임계값 설정 API
     @PostMapping("/settings/overcharge-voltage")
     public ResponseEntity<String> setOverchargeVoltage(@RequestParam double voltage) {
@@ -0,0 +1,19 @@
+package com.bms.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AggregateBucketDto {
+    @JsonProperty("bucket_start")
+    private String bucketStart; // 버킷 시작 시각 (ISO local)
+
+    private long count; // 버킷의 샘플 수
+
+    private Map<String, Double> values; // 요청한 집계 함수별 값 (값이 없으면 null)
+}
@@ -0,0 +1,18 @@
+package com.bms.dto;
+
+import com.bms.model.BmsData;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BmsHistoryPageDto {
+    private List<BmsData> items; // 최신순
+
+    @JsonProperty("next_cursor")
+    private String nextCursor; // 다음 페이지 요청에 넘길 커서, 마지막 페이지면 null
+}
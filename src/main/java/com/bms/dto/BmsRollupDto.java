@@ -0,0 +1,51 @@
+package com.bms.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BmsRollupDto {
+    @JsonProperty("bucket_start")
+    private String bucketStart; // 버킷 시작 시각 (ISO local)
+
+    @JsonProperty("resolution_seconds")
+    private long resolutionSeconds; // 버킷 길이 (초)
+
+    private String tier; // 집계에 사용한 롤업 단계 (1s, 1m, 1h)
+
+    private long samples; // 버킷에 포함된 원본 샘플 수
+
+    @JsonProperty("total_voltage")
+    private Stats totalVoltage;
+
+    private Stats current;
+
+    private Stats temperature;
+
+    @JsonProperty("remaining_capacity_percent")
+    private Stats remainingCapacity;
+
+    @JsonProperty("cell_spread")
+    private Stats cellSpread; // 샘플별 셀 전압 max - min
+
+    @JsonProperty("cell_stddev")
+    private Stats cellStddev; // 샘플별 셀 전압 표준편차
+
+    @JsonProperty("cell_voltages")
+    private List<Stats> cellVoltages; // 셀 인덱스별 통계
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stats {
+        private Double min;
+        private Double max;
+        private Double avg;
+        private Double last;
+    }
+}
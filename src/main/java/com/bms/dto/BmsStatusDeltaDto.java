@@ -0,0 +1,52 @@
+package com.bms.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyframe or delta of one device's status on /topic/bms-status-delta.
+ *
+ * keyframe 이면 모든 값이 채워지고, delta 이면 마지막으로 보낸 값에서 epsilon 이상 바뀐 항목만 채워진다 (나머지는 생략).
+ * seq 는 기기별로 1씩 증가하므로 클라이언트는 번호가 건너뛰면 다음 keyframe 까지 delta 를 무시하면 된다.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BmsStatusDeltaDto {
+    @JsonProperty("device_id")
+    private String deviceId; // 기기(팩) ID
+
+    private long seq; // 기기별 메시지 순번 (keyframe 과 delta 공통)
+
+    private boolean keyframe; // true: 전체 상태, false: 변경분
+
+    private String timestamp;
+
+    @JsonProperty("total_voltage")
+    private Double totalVoltage; // 총 전압 (V)
+
+    private Double current; // 전류 (A)
+
+    private Double temperature; // 배터리 온도 (°C)
+
+    @JsonProperty("remaining_capacity_percent")
+    private Double remainingCapacity; // 잔여용량 (%)
+
+    @JsonProperty("charge_fet_status")
+    private Boolean chargeFetStatus; // 충전 FET 상태
+
+    @JsonProperty("discharge_fet_status")
+    private Boolean dischargeFetStatus; // 방전 FET 상태
+
+    @JsonProperty("cell_voltages")
+    private List<Double> cellVoltages; // keyframe 에서만: 각 셀의 전압 (V)
+
+    private Map<Integer, Double> cells; // delta 에서만: 바뀐 셀 인덱스 → 전압 (V)
+}
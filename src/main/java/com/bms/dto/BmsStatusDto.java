@@ -10,6 +10,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class BmsStatusDto {
+    @JsonProperty("device_id")
+    private String deviceId; // 기기(팩) ID, 없으면 MQTT 토픽에서 결정
+    
     @JsonProperty("total_voltage")
     private Double totalVoltage; // 총 전압 (V)
     
@@ -30,4 +33,7 @@ public class BmsStatusDto {
     private List<Double> cellVoltages; // 각 셀의 전압 (V)
     
     private String timestamp;
+    
+    @JsonProperty("seq")
+    private Long sequence; // 라즈베리파이 샘플 순번 (중복 수신 판별용, 선택)
 }
@@ -0,0 +1,37 @@
+package com.bms.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CellImbalanceDto {
+    @JsonProperty("bucket_start")
+    private String bucketStart; // 버킷 시작 시각 (ISO local)
+
+    @JsonProperty("resolution_seconds")
+    private long resolutionSeconds; // 버킷 길이 (초)
+
+    private String tier; // 집계에 사용한 롤업 단계 (1s, 1m, 1h)
+
+    private long samples; // 버킷에 포함된 원본 샘플 수
+
+    private BmsRollupDto.Stats spread; // 샘플별 셀 전압 max - min 의 버킷 통계
+
+    private BmsRollupDto.Stats stddev; // 샘플별 셀 전압 표준편차의 버킷 통계
+
+    @JsonProperty("weakest_cell")
+    private Integer weakestCell; // 버킷 평균 전압이 가장 낮은 셀 인덱스
+
+    @JsonProperty("strongest_cell")
+    private Integer strongestCell; // 버킷 평균 전압이 가장 높은 셀 인덱스
+
+    @JsonProperty("mean_spread")
+    private Double meanSpread; // 셀별 버킷 평균 전압의 max - min
+
+    @JsonProperty("max_deviation")
+    private Double maxDeviation; // 셀별 버킷 평균 전압의 평균 대비 최대 편차
+}
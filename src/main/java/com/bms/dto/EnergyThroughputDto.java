@@ -0,0 +1,38 @@
+package com.bms.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ah / Wh throughput of one device between start and end.
+ *
+ * 끝점이 최신 샘플 이후면 수집 경로의 현재 카운터를 그대로 쓰고, 지난 시각이면 앞뒤 체크포인트 사이를 시간 비례로
+ * 보간한다. 따라서 과거 끝점의 값은 bms.energy.checkpoint-interval-seconds 단위로만 정확하다 (주기 안에서 전류가
+ * 크게 바뀌었다면 끝점마다 최대 한 주기 동안의 충방전량만큼 차이가 날 수 있음).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnergyThroughputDto {
+    @JsonProperty("device_id")
+    private String deviceId;
+
+    private String start;
+    private String end;
+
+    @JsonProperty("charge_ah")
+    private double chargeAh; // 구간 충전량 (Ah)
+
+    @JsonProperty("discharge_ah")
+    private double dischargeAh; // 구간 방전량 (Ah)
+
+    @JsonProperty("charge_wh")
+    private double chargeWh; // 구간 충전 에너지 (Wh)
+
+    @JsonProperty("discharge_wh")
+    private double dischargeWh; // 구간 방전 에너지 (Wh)
+
+    private long gaps; // 구간 안에서 적분하지 않은 수집 공백 수
+}
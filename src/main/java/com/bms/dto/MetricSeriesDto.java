@@ -0,0 +1,18 @@
+package com.bms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricSeriesDto {
+    private String metric; // temperature, current, voltage, capacity, cell
+
+    private Integer cell; // metric이 cell일 때 셀 인덱스 (0부터)
+
+    private long[] timestamps; // epoch millis, 최신순
+
+    private double[] values; // timestamps와 같은 순서의 값 (null 값인 샘플은 제외)
+}
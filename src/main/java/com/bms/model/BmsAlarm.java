@@ -0,0 +1,41 @@
+package com.bms.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "bms_alarm", indexes = @Index(name = "idx_bms_alarm_timestamp", columnList = "timestamp"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BmsAlarm {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bms_alarm_seq")
+    @SequenceGenerator(name = "bms_alarm_seq", sequenceName = "bms_alarm_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "device_id")
+    private String deviceId; // 기기(팩) ID
+
+    @Column(name = "rule_name")
+    private String rule; // 규칙 이름 (OV, UV, ChgOC, DsgOC 또는 사용자 규칙)
+
+    @Column(name = "cell_index")
+    private Integer cell; // 셀 규칙이면 셀 인덱스, 팩 단위 규칙이면 null
+
+    @Column(name = "event")
+    private String event; // raised | cleared (활성 알람 조회 시 active)
+
+    @Column(name = "metric_value")
+    private Double value; // 상태가 바뀐 시점의 측정값
+
+    @Column(name = "threshold")
+    private Double threshold; // 발생이면 raise, 해제면 clear 임계값
+
+    @Column(name = "timestamp")
+    private LocalDateTime timestamp; // 이벤트 시각 (활성 알람 조회 시 발생 시각)
+}
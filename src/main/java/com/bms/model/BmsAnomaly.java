@@ -0,0 +1,41 @@
+package com.bms.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "bms_anomaly", indexes = @Index(name = "idx_bms_anomaly_timestamp", columnList = "timestamp"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BmsAnomaly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bms_anomaly_seq")
+    @SequenceGenerator(name = "bms_anomaly_seq", sequenceName = "bms_anomaly_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "device_id")
+    private String deviceId; // 기기(팩) ID
+
+    @Column(name = "metric")
+    private String metric; // total_voltage, current, temperature, remaining_capacity, cell_N
+
+    @Column(name = "kind")
+    private String kind; // z_score | rate_of_change
+
+    @Column(name = "metric_value")
+    private Double value; // 이상으로 판정된 측정값
+
+    @Column(name = "expected")
+    private Double expected; // 판정 직전 EWMA 평균
+
+    @Column(name = "score")
+    private Double score; // z-score 또는 초당 변화량
+
+    @Column(name = "timestamp")
+    private LocalDateTime timestamp; // 샘플 수신 시각
+}
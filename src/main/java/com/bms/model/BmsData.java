@@ -5,19 +5,24 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Entity
-@Table(name = "bms_data")
+// 시간 범위 조회와 (timestamp, id) keyset 페이지네이션용 인덱스
+@Table(name = "bms_data", indexes = @Index(name = "idx_bms_data_timestamp_id", columnList = "timestamp, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class BmsData {
     
+    // IDENTITY 전략은 Hibernate JDBC 배치 insert를 막으므로 pooled 시퀀스를 사용
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bms_data_seq")
+    @SequenceGenerator(name = "bms_data_seq", sequenceName = "bms_data_seq", allocationSize = 50)
     private Long id;
     
+    @Column(name = "device_id")
+    private String deviceId; // 기기(팩) ID
+    
     @Column(name = "total_voltage")
     private Double totalVoltage; // 총 전압 (V)
     
@@ -36,16 +41,19 @@ public class BmsData {
     @Column(name = "discharge_fet_status")
     private Boolean dischargeFetStatus; // 방전 FET 상태 (true: ON, false: OFF)
     
-    @ElementCollection
-    @CollectionTable(name = "cell_voltages", joinColumns = @JoinColumn(name = "bms_data_id"))
-    @Column(name = "voltage")
-    private List<Double> cellVoltages; // 각 셀의 전압 (V)
+    // 셀 전압을 샘플당 하나의 binary 컬럼으로 저장 (셀당 8 bytes, 최대 256셀)
+    @Convert(converter = CellVoltagesConverter.class)
+    @Column(name = "cell_voltages", length = 2048)
+    private double[] cellVoltages; // 각 셀의 전압 (V)
     
     @Column(name = "timestamp")
     private LocalDateTime timestamp;
     
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        // 비동기 저장 시 수신 시각을 유지하기 위해 값이 없을 때만 설정
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
     }
 }
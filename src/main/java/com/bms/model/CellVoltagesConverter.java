@@ -0,0 +1,35 @@
+package com.bms.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Packs cell voltages into a single binary column (little-endian float64 per cell).
+ * 셀마다 별도 row를 만들던 cell_voltages 테이블 대신 샘플당 한 컬럼에 저장한다.
+ */
+@Converter
+public class CellVoltagesConverter implements AttributeConverter<double[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(double[] cellVoltages) {
+        if (cellVoltages == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(cellVoltages.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asDoubleBuffer().put(cellVoltages);
+        return buffer.array();
+    }
+
+    @Override
+    public double[] convertToEntityAttribute(byte[] packed) {
+        if (packed == null) {
+            return null;
+        }
+        double[] cellVoltages = new double[packed.length / Double.BYTES];
+        ByteBuffer.wrap(packed).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(cellVoltages);
+        return cellVoltages;
+    }
+}
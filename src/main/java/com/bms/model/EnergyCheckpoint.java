@@ -0,0 +1,49 @@
+package com.bms.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+// 기기별 "T 이전 마지막 체크포인트" 조회용 인덱스
+@Table(name = "energy_checkpoint",
+        indexes = @Index(name = "idx_energy_checkpoint_device_timestamp", columnList = "device_id, timestamp"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnergyCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "energy_checkpoint_seq")
+    @SequenceGenerator(name = "energy_checkpoint_seq", sequenceName = "energy_checkpoint_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "device_id")
+    private String deviceId; // 기기(팩) ID
+
+    @Column(name = "timestamp")
+    private LocalDateTime timestamp; // 마지막으로 적분한 샘플 시각
+
+    @Column(name = "last_current")
+    private Double lastCurrent; // 마지막 샘플 전류 (A), 다음 구간 적분의 시작 값
+
+    @Column(name = "last_voltage")
+    private Double lastVoltage; // 마지막 샘플 총 전압 (V)
+
+    @Column(name = "charge_ah")
+    private Double chargeAh; // 누적 충전량 (Ah)
+
+    @Column(name = "discharge_ah")
+    private Double dischargeAh; // 누적 방전량 (Ah)
+
+    @Column(name = "charge_wh")
+    private Double chargeWh; // 누적 충전 에너지 (Wh)
+
+    @Column(name = "discharge_wh")
+    private Double dischargeWh; // 누적 방전 에너지 (Wh)
+
+    @Column(name = "gaps")
+    private Long gaps; // 적분하지 않은 긴 수집 공백 수
+}
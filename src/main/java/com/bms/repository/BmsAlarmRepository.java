@@ -0,0 +1,14 @@
+package com.bms.repository;
+
+import com.bms.model.BmsAlarm;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BmsAlarmRepository extends JpaRepository<BmsAlarm, Long> {
+
+    // 특정 시간 범위의 알람 발생/해제 이력 (최신순)
+    List<BmsAlarm> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end);
+}
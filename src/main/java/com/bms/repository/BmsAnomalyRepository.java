@@ -0,0 +1,14 @@
+package com.bms.repository;
+
+import com.bms.model.BmsAnomaly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BmsAnomalyRepository extends JpaRepository<BmsAnomaly, Long> {
+
+    // 특정 시간 범위의 이상 감지 이력 (최신순)
+    List<BmsAnomaly> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end);
+}
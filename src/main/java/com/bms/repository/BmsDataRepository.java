@@ -1,11 +1,17 @@
 package com.bms.repository;
 
 import com.bms.model.BmsData;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface BmsDataRepository extends JpaRepository<BmsData, Long> {
@@ -17,6 +23,10 @@ public interface BmsDataRepository extends JpaRepository<BmsData, Long> {
     // 특정 시간 범위의 데이터 조회
     List<BmsData> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end);
     
+    // 특정 시간 범위의 데이터를 커서로 순차 조회 (트랜잭션 안에서 사용 후 닫아야 함)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<BmsData> streamByTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end);
+    
     // 최신 데이터 하나만 조회
     @Query("SELECT b FROM BmsData b ORDER BY b.timestamp DESC LIMIT 1")
     BmsData findTopByOrderByTimestampDesc();
@@ -24,4 +34,21 @@ public interface BmsDataRepository extends JpaRepository<BmsData, Long> {
     // 온도 히스토리 조회 (최근 N개)
     @Query("SELECT b FROM BmsData b ORDER BY b.timestamp DESC LIMIT :limit")
     List<BmsData> findLatestTemperatureHistory(int limit);
+    
+    // keyset 페이지네이션: (timestamp, id) 내림차순, 커서 이전 행만 조회 (OFFSET 없이 인덱스로 바로 탐색)
+    @Query("SELECT b FROM BmsData b ORDER BY b.timestamp DESC, b.id DESC LIMIT :limit")
+    List<BmsData> findFirstPage(int limit);
+    
+    @Query("SELECT b FROM BmsData b WHERE b.timestamp < :timestamp OR (b.timestamp = :timestamp AND b.id < :id) "
+            + "ORDER BY b.timestamp DESC, b.id DESC LIMIT :limit")
+    List<BmsData> findPageBefore(LocalDateTime timestamp, long id, int limit);
+    
+    @Query("SELECT b FROM BmsData b WHERE b.timestamp BETWEEN :start AND :end "
+            + "ORDER BY b.timestamp DESC, b.id DESC LIMIT :limit")
+    List<BmsData> findFirstPageBetween(LocalDateTime start, LocalDateTime end, int limit);
+    
+    @Query("SELECT b FROM BmsData b WHERE b.timestamp BETWEEN :start AND :end "
+            + "AND (b.timestamp < :timestamp OR (b.timestamp = :timestamp AND b.id < :id)) "
+            + "ORDER BY b.timestamp DESC, b.id DESC LIMIT :limit")
+    List<BmsData> findPageBetweenBefore(LocalDateTime start, LocalDateTime end, LocalDateTime timestamp, long id, int limit);
 }
@@ -0,0 +1,16 @@
+package com.bms.repository;
+
+import com.bms.model.EnergyCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+@Repository
+public interface EnergyCheckpointRepository extends JpaRepository<EnergyCheckpoint, Long> {
+
+    // 기기별로 주어진 시각 이전(포함)의 마지막 체크포인트
+    EnergyCheckpoint findFirstByDeviceIdAndTimestampLessThanEqualOrderByTimestampDesc(String deviceId, LocalDateTime timestamp);
+
+    // 기기별로 주어진 시각 이후의 첫 체크포인트
+    EnergyCheckpoint findFirstByDeviceIdAndTimestampGreaterThanOrderByTimestampAsc(String deviceId, LocalDateTime timestamp);
+}
@@ -0,0 +1,121 @@
+package com.bms.repository;
+
+import com.bms.model.BmsData;
+import com.bms.telemetry.MetricSeries;
+import com.bms.telemetry.SampleRecordCodec;
+import com.bms.telemetry.TelemetryMetric;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+/**
+ * Telemetry stored in the relational database through {@link BmsDataRepository}.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "bms.telemetry.store.type", havingValue = "jpa", matchIfMissing = true)
+public class JpaTelemetryStore implements TelemetryStore {
+
+    private final BmsDataRepository bmsDataRepository;
+    private final EntityManager entityManager;
+
+    @Override
+    public void saveAll(List<BmsData> samples) {
+        bmsDataRepository.saveAll(samples);
+    }
+
+    @Override
+    public List<BmsData> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end) {
+        return bmsDataRepository.findByTimestampBetweenOrderByTimestampDesc(start, end);
+    }
+
+    /**
+     * Reads through a forward-only JDBC cursor. 방문한 엔티티는 바로 detach 해서 영속성 컨텍스트가 커지지 않는다.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachBetweenNewestFirst(LocalDateTime start, LocalDateTime end, Consumer<BmsData> visitor) {
+        try (Stream<BmsData> rows = bmsDataRepository.streamByTimestampBetweenOrderByTimestampDesc(start, end)) {
+            rows.forEach(row -> {
+                visitor.accept(row);
+                entityManager.detach(row);
+            });
+        }
+    }
+
+    @Override
+    public BmsData findTopByOrderByTimestampDesc() {
+        return bmsDataRepository.findTopByOrderByTimestampDesc();
+    }
+
+    @Override
+    public List<BmsData> findLatestTemperatureHistory(int limit) {
+        return bmsDataRepository.findLatestTemperatureHistory(limit);
+    }
+
+    @Override
+    public List<BmsData> findPageNewestFirst(LocalDateTime start, LocalDateTime end,
+                                             LocalDateTime beforeTimestamp, Long beforeId, int limit) {
+        boolean ranged = start != null && end != null;
+        if (beforeTimestamp == null) {
+            return ranged
+                    ? bmsDataRepository.findFirstPageBetween(start, end, limit)
+                    : bmsDataRepository.findFirstPage(limit);
+        }
+        return ranged
+                ? bmsDataRepository.findPageBetweenBefore(start, end, beforeTimestamp, beforeId, limit)
+                : bmsDataRepository.findPageBefore(beforeTimestamp, beforeId, limit);
+    }
+
+    /**
+     * Scalar projection: only the timestamp and the metric column are read, no entities are created, and the
+     * packed cell_voltages column is only selected for CELL.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MetricSeries findMetricSeries(TelemetryMetric metric, int cell, LocalDateTime start, LocalDateTime end, int limit) {
+        boolean ranged = start != null && end != null;
+        // 속성 이름은 enum 상수에서만 오므로 JPQL 문자열로 조합해도 안전하다
+        String attribute = "b." + metric.getAttribute();
+        String jpql = "SELECT b.timestamp, " + attribute + " FROM BmsData b WHERE " + attribute + " IS NOT NULL"
+                + (ranged ? " AND b.timestamp BETWEEN :start AND :end" : "")
+                + " ORDER BY b.timestamp DESC, b.id DESC";
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class)
+                .setHint(HINT_FETCH_SIZE, 500);
+        if (ranged) {
+            query.setParameter("start", start).setParameter("end", end);
+        }
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+
+        MetricSeries series = new MetricSeries(limit > 0 ? limit : 256);
+        try (Stream<Object[]> rows = query.getResultStream()) {
+            rows.forEach(row -> {
+                double value = metric == TelemetryMetric.CELL
+                        ? TelemetryMetric.cellOf((double[]) row[1], cell)
+                        : ((Number) row[1]).doubleValue();
+                if (!Double.isNaN(value)) {
+                    series.add(SampleRecordCodec.toEpochMillis((LocalDateTime) row[0]), value);
+                }
+            });
+        }
+        return series;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        return Map.of("type", "jpa");
+    }
+}
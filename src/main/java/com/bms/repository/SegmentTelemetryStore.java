@@ -0,0 +1,116 @@
+package com.bms.repository;
+
+import com.bms.model.BmsData;
+import com.bms.telemetry.MetricSeries;
+import com.bms.telemetry.SampleRecordCodec;
+import com.bms.telemetry.TelemetryMetric;
+import com.bms.telemetry.TelemetrySegmentLog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Telemetry stored in append-only memory-mapped segment files instead of the relational database.
+ * 재시작해도 데이터가 유지되고 힙을 사용하지 않는다.
+ */
+@Repository
+@Slf4j
+@ConditionalOnProperty(name = "bms.telemetry.store.type", havingValue = "segment")
+public class SegmentTelemetryStore implements TelemetryStore {
+
+    private final TelemetrySegmentLog segmentLog;
+
+    public SegmentTelemetryStore(@Value("${bms.telemetry.store.directory:./data/telemetry}") String directory,
+                                 @Value("${bms.telemetry.store.segment-size-mb:64}") int segmentSizeMb,
+                                 @Value("${bms.telemetry.store.index-block-records:128}") int indexBlockRecords,
+                                 @Value("${bms.telemetry.store.retain-segments:64}") int retainSegments,
+                                 @Value("${bms.telemetry.store.compress-sealed:true}") boolean compressSealed) throws IOException {
+        this.segmentLog = new TelemetrySegmentLog(Path.of(directory), segmentSizeMb * 1024 * 1024,
+                indexBlockRecords, retainSegments, compressSealed);
+    }
+
+    @PreDestroy
+    void close() {
+        segmentLog.close();
+    }
+
+    @Override
+    public void saveAll(List<BmsData> samples) {
+        try {
+            segmentLog.append(samples);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append telemetry samples", e);
+        }
+    }
+
+    @Override
+    public List<BmsData> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end) {
+        return segmentLog.findBetweenNewestFirst(SampleRecordCodec.toEpochMillis(start), SampleRecordCodec.toEpochMillis(end));
+    }
+
+    @Override
+    public void forEachBetweenNewestFirst(LocalDateTime start, LocalDateTime end, Consumer<BmsData> visitor) {
+        segmentLog.forEachBetweenNewestFirst(SampleRecordCodec.toEpochMillis(start), SampleRecordCodec.toEpochMillis(end), visitor);
+    }
+
+    @Override
+    public BmsData findTopByOrderByTimestampDesc() {
+        return segmentLog.findLatest();
+    }
+
+    @Override
+    public List<BmsData> findLatestTemperatureHistory(int limit) {
+        return segmentLog.findNewest(limit);
+    }
+
+    @Override
+    public List<BmsData> findPageNewestFirst(LocalDateTime start, LocalDateTime end,
+                                             LocalDateTime beforeTimestamp, Long beforeId, int limit) {
+        return segmentLog.findPageNewestFirst(
+                start != null ? SampleRecordCodec.toEpochMillis(start) : Long.MIN_VALUE,
+                end != null ? SampleRecordCodec.toEpochMillis(end) : Long.MAX_VALUE,
+                beforeTimestamp != null ? SampleRecordCodec.toEpochMillis(beforeTimestamp) : Long.MAX_VALUE,
+                beforeId != null ? beforeId : Long.MAX_VALUE,
+                limit);
+    }
+
+    @Override
+    public MetricSeries findMetricSeries(TelemetryMetric metric, int cell, LocalDateTime start, LocalDateTime end, int limit) {
+        MetricSeries series = new MetricSeries(limit > 0 ? limit : 256);
+        Consumer<BmsData> extract = data -> {
+            double value = metric.extract(data, cell);
+            if (!Double.isNaN(value)) {
+                series.add(SampleRecordCodec.toEpochMillis(data.getTimestamp()), value);
+            }
+        };
+        if (limit > 0) {
+            // 값이 없는 샘플이 섞여 있으면 limit 보다 적게 반환될 수 있다
+            findPageNewestFirst(start, end, null, null, limit).forEach(extract);
+        } else {
+            segmentLog.forEachBetweenNewestFirst(
+                    start != null ? SampleRecordCodec.toEpochMillis(start) : Long.MIN_VALUE,
+                    end != null ? SampleRecordCodec.toEpochMillis(end) : Long.MAX_VALUE,
+                    extract);
+        }
+        return series;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("type", "segment");
+        stats.putAll(segmentLog.getStats());
+        return stats;
+    }
+}
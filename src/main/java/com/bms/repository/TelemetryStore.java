@@ -0,0 +1,46 @@
+package com.bms.repository;
+
+import com.bms.model.BmsData;
+import com.bms.telemetry.MetricSeries;
+import com.bms.telemetry.TelemetryMetric;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Storage for BMS telemetry samples. 읽기 메서드는 BmsDataRepository와 같은 의미를 가진다.
+ * bms.telemetry.store.type 으로 구현을 선택한다 (jpa | segment).
+ */
+public interface TelemetryStore {
+
+    void saveAll(List<BmsData> samples);
+
+    // 특정 시간 범위의 데이터 조회 (최신순)
+    List<BmsData> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end);
+
+    // 특정 시간 범위의 데이터를 최신순으로 하나씩 전달 (전체 목록을 메모리에 올리지 않음)
+    void forEachBetweenNewestFirst(LocalDateTime start, LocalDateTime end, Consumer<BmsData> visitor);
+
+    // 최신 데이터 하나만 조회
+    BmsData findTopByOrderByTimestampDesc();
+
+    // 최근 N개 조회 (최신순)
+    List<BmsData> findLatestTemperatureHistory(int limit);
+
+    /**
+     * Keyset page ordered by (timestamp, id) descending. start/end 가 null 이면 범위 제한 없음,
+     * beforeTimestamp 가 null 이면 첫 페이지.
+     */
+    List<BmsData> findPageNewestFirst(LocalDateTime start, LocalDateTime end,
+                                      LocalDateTime beforeTimestamp, Long beforeId, int limit);
+
+    /**
+     * (timestamp, value) pairs of one metric, newest first, skipping samples where it is missing.
+     * start/end 가 null 이면 범위 제한 없음, limit <= 0 이면 개수 제한 없음. cell 은 CELL 일 때만 사용한다.
+     */
+    MetricSeries findMetricSeries(TelemetryMetric metric, int cell, LocalDateTime start, LocalDateTime end, int limit);
+
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,339 @@
+package com.bms.service;
+
+import com.bms.model.BmsAlarm;
+import com.bms.model.BmsData;
+import com.bms.repository.BmsAlarmRepository;
+import com.bms.telemetry.AlarmEvaluator;
+import com.bms.telemetry.AlarmPlan;
+import com.bms.telemetry.AlarmRule;
+import com.bms.telemetry.SampleRecordCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-side alarm rules evaluated against every ingested sample.
+ *
+ * OV/UV/ChgOC/DsgOC 임계값과 딜레이 설정(하드웨어로 보내는 값)에서 규칙을 만들고, 사용자 규칙을 더해 {@link AlarmPlan}
+ * 으로 컴파일한다. 기기별 상태 머신이 수집 워커에서 plan 을 평가하고, 발생/해제 이벤트만 bounded 큐를 거쳐
+ * 전용 스레드가 저장하고 /topic/bms-alarms 로 보낸다.
+ * 임계값 setter 는 BmsService 의 하드웨어 설정 메서드가 호출하며, 하드웨어 반영 성공 여부와 무관하게 요청한 값으로 감시한다.
+ * 규칙이 바뀌어도 이름과 source 가 같은 규칙은 기기별 상태를 이어받으므로 발생 중인 알람이 다시 발생하지 않는다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AlarmRuleService {
+
+    public static final String TOPIC = "/topic/bms-alarms";
+
+    private static final int BATCH_SIZE = 100;
+
+    private final BmsAlarmRepository alarmRepository;
+    private final BroadcastPublisher broadcastPublisher;
+
+    @Value("${bms.alarm.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bms.alarm.overcharge-voltage:4.20}")
+    private double defaultOverchargeVoltage;
+
+    @Value("${bms.alarm.undercharge-voltage:2.80}")
+    private double defaultUnderchargeVoltage;
+
+    @Value("${bms.alarm.overcharge-current:2.00}")
+    private double defaultOverchargeCurrent;
+
+    @Value("${bms.alarm.discharge-current:4.00}")
+    private double defaultDischargeCurrent;
+
+    @Value("${bms.alarm.voltage-delay-seconds:2}")
+    private int defaultVoltageDelay;
+
+    @Value("${bms.alarm.charge-current-delay-seconds:5}")
+    private int defaultChargeCurrentDelay;
+
+    @Value("${bms.alarm.charge-current-release-seconds:10}")
+    private int defaultChargeCurrentRelease;
+
+    @Value("${bms.alarm.discharge-current-delay-seconds:5}")
+    private int defaultDischargeCurrentDelay;
+
+    @Value("${bms.alarm.discharge-current-release-seconds:10}")
+    private int defaultDischargeCurrentRelease;
+
+    @Value("${bms.alarm.voltage-hysteresis:0.05}")
+    private double voltageHysteresis;
+
+    @Value("${bms.alarm.current-hysteresis:0.2}")
+    private double currentHysteresis;
+
+    @Value("${bms.alarm.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private final Map<String, DeviceAlarms> devices = new ConcurrentHashMap<>();
+    private final LongAdder evaluated = new LongAdder();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    // 임계값 설정 (하드웨어 단위: V, A, 초)
+    private double overchargeVoltage;
+    private double underchargeVoltage;
+    private double overchargeCurrent;
+    private double dischargeCurrent;
+    private int voltageDelay;
+    private int chargeCurrentDelay;
+    private int chargeCurrentRelease;
+    private int dischargeCurrentDelay;
+    private int dischargeCurrentRelease;
+    private List<AlarmRule> customRules = List.of();
+
+    private volatile List<AlarmRule> rules = List.of();
+    private volatile AlarmPlan plan = AlarmPlan.EMPTY;
+
+    private BlockingQueue<BmsAlarm> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        resetThresholds();
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::runLoop, "bms-alarm-publisher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<BmsAlarm> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        publish(remaining);
+    }
+
+    /**
+     * Evaluates the compiled plan against one sample.
+     */
+    public void inspect(BmsData data) {
+        if (!enabled) {
+            return;
+        }
+        String deviceId = data.getDeviceId() != null ? data.getDeviceId() : MqttTopicRouter.DEFAULT_DEVICE_ID;
+        DeviceAlarms device = devices.computeIfAbsent(deviceId, id -> new DeviceAlarms());
+        long timestamp = SampleRecordCodec.toEpochMillis(data.getTimestamp());
+        evaluated.increment();
+        synchronized (device) {
+            AlarmPlan current = plan;
+            if (device.compiledFrom != current) {
+                // 규칙이 바뀌면 이 기기에 해당하는 규칙만 골라 다시 배치한다 (빠진 규칙의 발생 중인 알람은 해제로 기록)
+                device.evaluator.replan(current.forDevice(deviceId), (rule, cell, raisedAt) -> enqueue(new BmsAlarm(
+                        null, deviceId, rule.name(), cell >= 0 ? cell : null, "cleared", null, rule.clear(),
+                        data.getTimestamp())));
+                device.compiledFrom = current;
+            }
+            AlarmEvaluator evaluator = device.evaluator;
+            int found = evaluator.evaluate(timestamp, data);
+            for (int i = 0; i < found; i++) {
+                AlarmRule rule = evaluator.plan().rule(evaluator.foundRule(i));
+                boolean raised = evaluator.foundRaised(i);
+                BmsAlarm alarm = new BmsAlarm(null, deviceId, rule.name(),
+                        evaluator.foundCell(i) >= 0 ? evaluator.foundCell(i) : null,
+                        raised ? "raised" : "cleared", evaluator.foundValue(i),
+                        raised ? rule.raise() : rule.clear(), data.getTimestamp());
+                enqueue(alarm);
+            }
+        }
+    }
+
+    /**
+     * Alarms currently raised, per device.
+     */
+    public List<BmsAlarm> getActiveAlarms() {
+        List<BmsAlarm> active = new ArrayList<>();
+        devices.forEach((deviceId, device) -> {
+            synchronized (device) {
+                device.evaluator.forEachActive((rule, cell, raisedAt) -> active.add(new BmsAlarm(null, deviceId,
+                        rule.name(), cell >= 0 ? cell : null, "active", null, rule.raise(),
+                        SampleRecordCodec.fromEpochMillis(raisedAt))));
+            }
+        });
+        return active;
+    }
+
+    public List<BmsAlarm> findBetween(LocalDateTime start, LocalDateTime end) {
+        return alarmRepository.findByTimestampBetweenOrderByTimestampDesc(start, end);
+    }
+
+    public List<AlarmRule> getRules() {
+        return rules;
+    }
+
+    public synchronized void setCustomRules(List<AlarmRule> rules) {
+        customRules = List.copyOf(rules);
+        recompile();
+    }
+
+    public synchronized void setOverchargeVoltage(double voltage) {
+        overchargeVoltage = voltage;
+        recompile();
+    }
+
+    public synchronized void setUnderchargeVoltage(double voltage) {
+        underchargeVoltage = voltage;
+        recompile();
+    }
+
+    public synchronized void setOverchargeCurrent(double current) {
+        overchargeCurrent = current;
+        recompile();
+    }
+
+    public synchronized void setDischargeCurrent(double current) {
+        dischargeCurrent = current;
+        recompile();
+    }
+
+    public synchronized void setVoltageDelay(int delay) {
+        voltageDelay = delay;
+        recompile();
+    }
+
+    public synchronized void setChargeCurrentDelay(int delay, int release) {
+        chargeCurrentDelay = delay;
+        chargeCurrentRelease = release;
+        recompile();
+    }
+
+    public synchronized void setDischargeCurrentDelay(int delay, int release) {
+        dischargeCurrentDelay = delay;
+        dischargeCurrentRelease = release;
+        recompile();
+    }
+
+    /**
+     * Back to the configured thresholds (mirrors the hardware Reset_settings command). 사용자 규칙은 유지한다.
+     */
+    public synchronized void resetThresholds() {
+        overchargeVoltage = defaultOverchargeVoltage;
+        underchargeVoltage = defaultUnderchargeVoltage;
+        overchargeCurrent = defaultOverchargeCurrent;
+        dischargeCurrent = defaultDischargeCurrent;
+        voltageDelay = defaultVoltageDelay;
+        chargeCurrentDelay = defaultChargeCurrentDelay;
+        chargeCurrentRelease = defaultChargeCurrentRelease;
+        dischargeCurrentDelay = defaultDischargeCurrentDelay;
+        dischargeCurrentRelease = defaultDischargeCurrentRelease;
+        recompile();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("rules", plan.size());
+        stats.put("devices", devices.size());
+        stats.put("evaluated", evaluated.sum());
+        stats.put("events", events.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("persisted", persisted.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    private void recompile() {
+        long voltageDelayMillis = TimeUnit.SECONDS.toMillis(voltageDelay);
+        List<AlarmRule> compiled = new ArrayList<>(4 + customRules.size());
+        // 전류는 양수 = 충전, 음수 = 방전
+        compiled.add(new AlarmRule("OV", AlarmRule.Source.CELL, AlarmRule.Direction.ABOVE,
+                overchargeVoltage, overchargeVoltage - voltageHysteresis, voltageDelayMillis, 0, null));
+        compiled.add(new AlarmRule("UV", AlarmRule.Source.CELL, AlarmRule.Direction.BELOW,
+                underchargeVoltage, underchargeVoltage + voltageHysteresis, voltageDelayMillis, 0, null));
+        compiled.add(new AlarmRule("ChgOC", AlarmRule.Source.CURRENT, AlarmRule.Direction.ABOVE,
+                overchargeCurrent, overchargeCurrent - currentHysteresis,
+                TimeUnit.SECONDS.toMillis(chargeCurrentDelay), TimeUnit.SECONDS.toMillis(chargeCurrentRelease), null));
+        compiled.add(new AlarmRule("DsgOC", AlarmRule.Source.CURRENT, AlarmRule.Direction.BELOW,
+                -dischargeCurrent, -dischargeCurrent + currentHysteresis,
+                TimeUnit.SECONDS.toMillis(dischargeCurrentDelay), TimeUnit.SECONDS.toMillis(dischargeCurrentRelease), null));
+        compiled.addAll(customRules);
+        rules = List.copyOf(compiled);
+        plan = AlarmPlan.compile(compiled);
+        log.info("Compiled {} alarm rules (OV={}V, UV={}V, ChgOC={}A, DsgOC={}A, custom={})", compiled.size(),
+                overchargeVoltage, underchargeVoltage, overchargeCurrent, dischargeCurrent, customRules.size());
+    }
+
+    private void enqueue(BmsAlarm alarm) {
+        events.increment();
+        if (!queue.offer(alarm)) {
+            dropped.increment();
+        }
+    }
+
+    private void runLoop() {
+        List<BmsAlarm> batch = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            try {
+                BmsAlarm first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                publish(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publish(List<BmsAlarm> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            alarmRepository.saveAll(batch);
+            persisted.add(batch.size());
+        } catch (Exception e) {
+            // 저장에 실패해도 실시간 알림은 보낸다
+            failed.add(batch.size());
+            log.error("Failed to persist {} alarm events", batch.size(), e);
+        }
+        for (BmsAlarm alarm : batch) {
+            log.info("Alarm {}: device={}, rule={}, cell={}, value={}, threshold={}", alarm.getEvent(),
+                    alarm.getDeviceId(), alarm.getRule(), alarm.getCell(), alarm.getValue(), alarm.getThreshold());
+            broadcastPublisher.publish(TOPIC, alarm);
+        }
+    }
+
+    /**
+     * Per-device evaluator plus the fleet plan it was derived from, guarded by its own monitor.
+     */
+    private static final class DeviceAlarms {
+        private final AlarmEvaluator evaluator = new AlarmEvaluator();
+        private AlarmPlan compiledFrom;
+    }
+}
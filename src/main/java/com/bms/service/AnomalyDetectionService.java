@@ -0,0 +1,195 @@
+package com.bms.service;
+
+import com.bms.model.BmsAnomaly;
+import com.bms.model.BmsData;
+import com.bms.repository.BmsAnomalyRepository;
+import com.bms.telemetry.AnomalyDetector;
+import com.bms.telemetry.SampleRecordCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Inline anomaly detection on ingested samples, with persistence and WebSocket publishing on a side thread.
+ *
+ * 수집 워커는 브로드캐스트 후 기기별 검출기 상태만 갱신하고(할당 없음), 이상치가 나온 경우에만 엔티티를 만들어
+ * bounded 큐에 넣는다. 저장과 /topic/bms-anomalies 전송은 전용 스레드가 배치로 처리하므로 수집 경로를 막지 않는다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnomalyDetectionService {
+
+    public static final String TOPIC = "/topic/bms-anomalies";
+
+    private static final int BATCH_SIZE = 100;
+
+    private final BmsAnomalyRepository anomalyRepository;
+    private final BroadcastPublisher broadcastPublisher;
+
+    @Value("${bms.anomaly.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bms.anomaly.alpha:0.05}")
+    private double alpha;
+
+    @Value("${bms.anomaly.z-threshold:4.0}")
+    private double zThreshold;
+
+    @Value("${bms.anomaly.warmup-samples:30}")
+    private long warmupSamples;
+
+    @Value("${bms.anomaly.cooldown-seconds:10}")
+    private long cooldownSeconds;
+
+    @Value("${bms.anomaly.max-rate:5,100,2,5,0.5}")
+    private double[] maxRate;
+
+    @Value("${bms.anomaly.min-stddev:0.05,0.5,0.2,0.5,0.005}")
+    private double[] minStddev;
+
+    @Value("${bms.anomaly.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private final Map<String, AnomalyDetector> detectors = new ConcurrentHashMap<>();
+    private final LongAdder inspected = new LongAdder();
+    private final LongAdder detected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private AnomalyDetector.Settings settings;
+    private BlockingQueue<BmsAnomaly> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        if (maxRate.length != AnomalyDetector.FIELDS + 1 || minStddev.length != AnomalyDetector.FIELDS + 1) {
+            throw new IllegalStateException("bms.anomaly.max-rate and min-stddev need "
+                    + (AnomalyDetector.FIELDS + 1) + " values (total voltage, current, temperature, capacity, cell)");
+        }
+        settings = new AnomalyDetector.Settings(alpha, zThreshold, warmupSamples,
+                TimeUnit.SECONDS.toMillis(cooldownSeconds), maxRate, minStddev);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::runLoop, "bms-anomaly-publisher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<BmsAnomaly> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        publish(remaining);
+    }
+
+    /**
+     * Runs the detectors for one sample. 같은 기기는 항상 같은 수집 워커에서 오므로 락은 경합하지 않는다.
+     */
+    public void inspect(BmsData data) {
+        if (!enabled) {
+            return;
+        }
+        String deviceId = data.getDeviceId() != null ? data.getDeviceId() : MqttTopicRouter.DEFAULT_DEVICE_ID;
+        AnomalyDetector detector = detectors.get(deviceId);
+        if (detector == null) {
+            // 처음 보는 기기에서만 람다를 만든다 (settings 를 캡처하므로 호출마다 할당됨)
+            detector = detectors.computeIfAbsent(deviceId, id -> new AnomalyDetector(settings));
+        }
+        long timestamp = SampleRecordCodec.toEpochMillis(data.getTimestamp());
+        inspected.increment();
+        synchronized (detector) {
+            int found = detector.update(timestamp, data);
+            for (int i = 0; i < found; i++) {
+                BmsAnomaly anomaly = new BmsAnomaly(null, deviceId,
+                        AnomalyDetector.metricName(detector.foundColumn(i)),
+                        AnomalyDetector.kindName(detector.foundKind(i)),
+                        detector.foundValue(i), detector.foundExpected(i), detector.foundScore(i),
+                        data.getTimestamp());
+                detected.increment();
+                if (!queue.offer(anomaly)) {
+                    dropped.increment();
+                }
+            }
+        }
+    }
+
+    public List<BmsAnomaly> findBetween(LocalDateTime start, LocalDateTime end) {
+        return anomalyRepository.findByTimestampBetweenOrderByTimestampDesc(start, end);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("devices", detectors.size());
+        stats.put("inspected", inspected.sum());
+        stats.put("detected", detected.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("persisted", persisted.sum());
+        stats.put("failed", failed.sum());
+        stats.put("queueDepth", queue.size());
+        return stats;
+    }
+
+    private void runLoop() {
+        List<BmsAnomaly> batch = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            try {
+                BmsAnomaly first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                publish(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publish(List<BmsAnomaly> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            anomalyRepository.saveAll(batch);
+            persisted.add(batch.size());
+        } catch (Exception e) {
+            // 저장에 실패해도 실시간 알림은 보낸다
+            failed.add(batch.size());
+            log.error("Failed to persist {} anomalies", batch.size(), e);
+        }
+        for (BmsAnomaly anomaly : batch) {
+            log.info("Anomaly detected: device={}, metric={}, kind={}, value={}, expected={}, score={}",
+                    anomaly.getDeviceId(), anomaly.getMetric(), anomaly.getKind(),
+                    anomaly.getValue(), anomaly.getExpected(), anomaly.getScore());
+            broadcastPublisher.publish(TOPIC, anomaly);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.bms.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-subscription choice between JSON text frames (default) and binary frames.
+ *
+ * SUBSCRIBE 에 format:binary 헤더가 있으면 구독 대상을 binary 쌍둥이 토픽(예: /topic/bms-status.bin)으로 바꾼다.
+ * simple broker 는 한 메시지를 같은 토픽의 모든 구독자에게 그대로 보내므로, 형식별로 토픽을 나누고
+ * binary 구독자가 있는 토픽에만 binary 프레임을 만들어 보낸다. 같은 구독 ID 로 받으므로 클라이언트 코드는 그대로다.
+ * SockJS 세션은 모든 프레임을 텍스트로 보내므로 (binary payload 가 UTF-8 로 깨짐) format:binary 를 무시하고 JSON 을 받는다.
+ */
+@Component
+public class BinaryFrameNegotiator implements ChannelInterceptor {
+
+    public static final String FORMAT_HEADER = "format";
+    public static final String BINARY_FORMAT = "binary";
+    public static final String BINARY_SUFFIX = ".bin";
+
+    /**
+     * Session attribute set on SockJS handshakes; those sessions can only carry text frames.
+     */
+    public static final String SOCKJS_ATTRIBUTE = "bms.sockjs";
+
+    // binary 로 받을 수 있는 JSON 토픽
+    private static final Set<String> NEGOTIABLE = Set.of(StatusBroadcaster.STATUS_TOPIC);
+
+    // 세션 ID + 구독 ID → binary 토픽, binary 토픽 → 구독 수
+    private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Whether a SUBSCRIBE frame asked for binary frames on a session that can receive them.
+     */
+    public static boolean wantsBinary(StompHeaderAccessor accessor) {
+        if (!BINARY_FORMAT.equalsIgnoreCase(accessor.getFirstNativeHeader(FORMAT_HEADER))) {
+            return false;
+        }
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        return attributes == null || !attributes.containsKey(SOCKJS_ATTRIBUTE);
+    }
+
+    /**
+     * Handshake interceptor for the SockJS endpoint: marks its sessions as text-only.
+     */
+    public static HandshakeInterceptor sockJsMarker() {
+        return new HandshakeInterceptor() {
+            @Override
+            public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                           WebSocketHandler wsHandler, Map<String, Object> attributes) {
+                attributes.put(SOCKJS_ATTRIBUTE, Boolean.TRUE);
+                return true;
+            }
+
+            @Override
+            public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Exception exception) {
+            }
+        };
+    }
+
+    public static String binaryDestination(String destination) {
+        return destination + BINARY_SUFFIX;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (type != SimpMessageType.SUBSCRIBE && type != SimpMessageType.UNSUBSCRIBE) {
+            return message;
+        }
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        StompCommand command = accessor.getCommand();
+        if (command == StompCommand.SUBSCRIBE) {
+            String destination = accessor.getDestination();
+            if (destination != null && NEGOTIABLE.contains(destination) && wantsBinary(accessor)) {
+                destination = binaryDestination(destination);
+                accessor.setDestination(destination);
+                message = MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+            }
+            if (destination != null && destination.endsWith(BINARY_SUFFIX)) {
+                // 쌍둥이 토픽을 직접 구독한 경우도 센다
+                String previous = subscriptions.put(key(accessor.getSessionId(), accessor.getSubscriptionId()), destination);
+                if (previous != null) {
+                    decrement(previous);
+                }
+                counts.computeIfAbsent(destination, d -> new AtomicInteger()).incrementAndGet();
+            }
+        } else if (command == StompCommand.UNSUBSCRIBE) {
+            String destination = subscriptions.remove(key(accessor.getSessionId(), accessor.getSubscriptionId()));
+            if (destination != null) {
+                decrement(destination);
+            }
+        }
+        return message;
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        String prefix = event.getSessionId() + "/";
+        for (String key : subscriptions.keySet()) {
+            if (key.startsWith(prefix)) {
+                String destination = subscriptions.remove(key);
+                if (destination != null) {
+                    decrement(destination);
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether anyone receives binary frames for the given JSON topic (so the binary encoding can be skipped otherwise).
+     */
+    public boolean hasBinarySubscribers(String destination) {
+        AtomicInteger count = counts.get(binaryDestination(destination));
+        return count != null && count.get() > 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        counts.forEach((destination, count) -> stats.put(destination, count.get()));
+        return stats;
+    }
+
+    private void decrement(String destination) {
+        AtomicInteger count = counts.get(destination);
+        if (count != null) {
+            count.decrementAndGet();
+        }
+    }
+
+    private static String key(String sessionId, String subscriptionId) {
+        return sessionId + "/" + subscriptionId;
+    }
+}
@@ -0,0 +1,165 @@
+package com.bms.service;
+
+import com.bms.model.BmsData;
+import com.bms.repository.TelemetryStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind stage for BMS samples.
+ * MQTT 수신 스레드는 큐에 넣기만 하고, 전용 스레드가 배치 크기 또는 주기 기준으로 묶어서 저장한다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BmsDataWriter {
+
+    private final TelemetryStore telemetryStore;
+    private final RecentTelemetryCache recentTelemetryCache;
+
+    @Value("${bms.ingest.persistence.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${bms.ingest.persistence.batch-size:200}")
+    private int batchSize;
+
+    @Value("${bms.ingest.persistence.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private BlockingQueue<BmsData> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::runLoop, "bms-data-writer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("BMS data writer started (capacity={}, batchSize={}, flushIntervalMs={})",
+                queueCapacity, batchSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        // poll 타임아웃마다 running 플래그를 확인하므로 인터럽트 없이 종료를 기다린다
+        running = false;
+        try {
+            worker.join(flushIntervalMs + TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 종료 시 남아있는 샘플 마저 저장
+        List<BmsData> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        while (!remaining.isEmpty()) {
+            int end = Math.min(batchSize, remaining.size());
+            flush(new ArrayList<>(remaining.subList(0, end)));
+            remaining.subList(0, end).clear();
+        }
+        log.info("BMS data writer stopped (written={}, dropped={}, failed={})",
+                written.get(), dropped.get(), failed.get());
+    }
+
+    /**
+     * Queue a sample for persistence. Never blocks; returns false when the queue is full.
+     */
+    public boolean enqueue(BmsData bmsData) {
+        if (queue.offer(bmsData)) {
+            enqueued.incrementAndGet();
+            return true;
+        }
+        long total = dropped.incrementAndGet();
+        if (total == 1 || total % 1000 == 0) {
+            log.warn("BMS data write queue full (capacity={}), dropped {} samples so far", queueCapacity, total);
+        }
+        return false;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("enqueued", enqueued.get());
+        stats.put("written", written.get());
+        stats.put("dropped", dropped.get());
+        stats.put("failed", failed.get());
+        stats.put("batches", batches.get());
+        return stats;
+    }
+
+    private void runLoop() {
+        List<BmsData> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                BmsData first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // 배치가 가득 차거나 첫 샘플 이후 flush 주기가 지나면 저장
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remainingNanos <= 0) {
+                        break;
+                    }
+                    BmsData next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                // 수집 중이던 배치는 stop()이 이어서 처리하도록 큐로 되돌린다
+                batch.forEach(queue::offer);
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<BmsData> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            // JPA: 단일 트랜잭션 + hibernate.jdbc.batch_size 설정에 따른 JDBC 배치, segment: 세그먼트 파일에 순차 append
+            telemetryStore.saveAll(batch);
+            // 저장된 샘플만(ID 포함) 최근 구간 링에 반영
+            recentTelemetryCache.record(batch);
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+            log.debug("Flushed {} BMS samples", batch.size());
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            log.error("Failed to persist batch of {} BMS samples", batch.size(), e);
+        }
+    }
+}
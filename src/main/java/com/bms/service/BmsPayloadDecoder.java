@@ -0,0 +1,60 @@
+package com.bms.service;
+
+import com.bms.dto.BmsControlDto;
+import com.bms.dto.BmsStatusDto;
+import com.bms.telemetry.BinaryStatusCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes MQTT payloads straight from the raw bytes using pre-built, thread-safe ObjectReaders.
+ * 메시지마다 String 변환이나 ObjectMapper 생성을 하지 않는다.
+ */
+@Component
+public class BmsPayloadDecoder {
+
+    private final ObjectReader statusReader;
+    private final ObjectReader controlReader;
+
+    public BmsPayloadDecoder(ObjectMapper objectMapper) {
+        this.statusReader = objectMapper.readerFor(BmsStatusDto.class);
+        this.controlReader = objectMapper.readerFor(BmsControlDto.class);
+    }
+
+    /**
+     * Decodes a bms/status payload, either JSON or the compact binary layout (detected by its magic byte).
+     */
+    public BmsStatusDto decodeStatus(Object payload) throws IOException {
+        if (payload instanceof byte[] bytes) {
+            if (BinaryStatusCodec.isBinary(bytes)) {
+                return BinaryStatusCodec.decode(bytes);
+            }
+            return statusReader.readValue(bytes);
+        }
+        return statusReader.readValue(payload.toString());
+    }
+
+    public BmsControlDto decodeControl(Object payload) throws IOException {
+        if (payload instanceof byte[] bytes) {
+            return controlReader.readValue(bytes);
+        }
+        return controlReader.readValue(payload.toString());
+    }
+
+    /**
+     * Payload as text, for debug logging only.
+     */
+    public static String toText(Object payload) {
+        if (payload instanceof byte[] bytes) {
+            if (BinaryStatusCodec.isBinary(bytes)) {
+                return "<binary " + bytes.length + " bytes>";
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return String.valueOf(payload);
+    }
+}
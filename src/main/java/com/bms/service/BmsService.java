@@ -1,17 +1,34 @@
 package com.bms.service;
 
 import com.bms.dto.BmsControlDto;
+import com.bms.dto.BmsHistoryPageDto;
+import com.bms.dto.BmsRollupDto;
+import com.bms.dto.CellImbalanceDto;
+import com.bms.dto.EnergyThroughputDto;
+import com.bms.dto.MetricSeriesDto;
 import com.bms.dto.BmsStatusDto;
+import com.bms.model.BmsAlarm;
+import com.bms.model.BmsAnomaly;
 import com.bms.model.BmsData;
-import com.bms.repository.BmsDataRepository;
+import com.bms.repository.TelemetryStore;
+import com.bms.telemetry.AlarmRule;
+import com.bms.telemetry.CellVoltages;
+import com.bms.telemetry.MetricSeries;
+import com.bms.telemetry.TelemetryMetric;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -21,78 +38,143 @@ import java.util.List;
 @Slf4j
 public class BmsService {
 
-    private final BmsDataRepository bmsDataRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final TelemetryStore telemetryStore;
     private final ObjectMapper objectMapper;
     private final org.springframework.messaging.MessageChannel mqttOutboundChannel;
     private final PythonHardwareClient pythonHardwareClient;
+    private final BmsDataWriter bmsDataWriter;
+    private final MqttTopicRouter mqttTopicRouter;
+    private final BmsPayloadDecoder bmsPayloadDecoder;
+    private final TelemetryAdmissionQueue telemetryAdmissionQueue;
+    private final TelemetryDeduplicator telemetryDeduplicator;
+    private final TelemetryRollupService telemetryRollupService;
+    private final LatestStatusCache latestStatusCache;
+    private final RecentTelemetryCache recentTelemetryCache;
+    private final EnergyThroughputService energyThroughputService;
+    private final AnomalyDetectionService anomalyDetectionService;
+    private final AlarmRuleService alarmRuleService;
+    private final StatusBroadcaster statusBroadcaster;
+    private final ConflatedStatusService conflatedStatusService;
+    private final BroadcastPublisher broadcastPublisher;
+    private final WebSocketSessionBacklog webSocketSessionBacklog;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Value("${mqtt.topics.bms-control}")
+    private String bmsControlTopic;
+
+    @Value("${mqtt.topics.bms-settings}")
+    private String bmsSettingsTopic;
+
+    @Value("${mqtt.topics.bms-delay-settings}")
+    private String bmsDelaySettingsTopic;
+
+    @Value("${mqtt.topics.electronic-load-control}")
+    private String electronicLoadControlTopic;
+
+    @ServiceActivator(inputChannel = TelemetryAdmissionQueue.OUTPUT_CHANNEL)
+    public void handleStatusChannelMessage(Message<?> message) {
+        try {
+            logReceived(message);
+            handleBmsStatusMessage(mqttTopicRouter.deviceIdOf(message), message.getPayload());
+        } catch (Exception e) {
+            log.error("Error processing MQTT status message", e);
+        }
+    }
 
-    @ServiceActivator(inputChannel = "mqttInputChannel")
-    public void handleMqttMessage(Message<?> message) {
+    @ServiceActivator(inputChannel = MqttTopicRouter.FET_STATUS_CHANNEL)
+    public void handleFetStatusChannelMessage(Message<?> message) {
         try {
-            String payload;
-            Object messagePayload = message.getPayload();
-            
-            // payload가 byte 배열인지 String인지 확인
-            if (messagePayload instanceof byte[]) {
-                payload = new String((byte[]) messagePayload);
-            } else {
-                payload = messagePayload.toString();
-            }
-            
-            String topic = message.getHeaders().get("mqtt_receivedTopic").toString();
-            
-            log.info("Received MQTT message from topic: {}, payload: {}", topic, payload);
+            logReceived(message);
+            handleBmsFetStatusMessage(message.getPayload());
+        } catch (Exception e) {
+            log.error("Error processing MQTT FET status message", e);
+        }
+    }
+
+    @ServiceActivator(inputChannel = MqttTopicRouter.COMMAND_CHANNEL)
+    public void handleCommandChannelMessage(Message<?> message) {
+        try {
+            logReceived(message);
+            Object payload = message.getPayload();
+            String topic = mqttTopicRouter.resolveBaseTopic(MqttTopicRouter.receivedTopic(message));
             
-            if (topic.contains("bms/status")) {
-                handleBmsStatusMessage(payload);
-            } else if (topic.contains("bms/control")) {
+            // 라우터가 이미 명령 토픽만 보내므로 정확히 일치하는 토픽으로 분기
+            if (topic.equals(bmsControlTopic)) {
                 handleBmsControlMessage(payload);
-            } else if (topic.contains("bms/settings")) {
+            } else if (topic.equals(bmsSettingsTopic)) {
                 handleBmsSettingsMessage(payload);
-            } else if (topic.contains("bms/delay/settings")) {
+            } else if (topic.equals(bmsDelaySettingsTopic)) {
                 handleBmsDelaySettingsMessage(payload);
-            } else if (topic.contains("bms/fet/status")) {
-                handleBmsFetStatusMessage(payload);
-            } else if (topic.contains("electronic_load/control")) {
+            } else if (topic.equals(electronicLoadControlTopic)) {
                 handleElectronicLoadControlMessage(payload);
             }
         } catch (Exception e) {
-            log.error("Error processing MQTT message", e);
+            log.error("Error processing MQTT command message", e);
+        }
+    }
+
+    private void logReceived(Message<?> message) {
+        // payload 문자열 변환은 debug 로그가 켜진 경우에만 수행
+        if (log.isDebugEnabled()) {
+            log.debug("Received MQTT message from topic: {}, payload: {}",
+                    MqttTopicRouter.receivedTopic(message), BmsPayloadDecoder.toText(message.getPayload()));
         }
     }
 
-    private void handleBmsStatusMessage(String payload) {
+    private void handleBmsStatusMessage(String deviceId, Object payload) {
         try {
-            BmsStatusDto statusDto = objectMapper.readValue(payload, BmsStatusDto.class);
+            BmsStatusDto statusDto = bmsPayloadDecoder.decodeStatus(payload);
+            // payload에 device_id가 없으면 토픽에서 얻은 기기 ID 사용
+            if (statusDto.getDeviceId() == null) {
+                statusDto.setDeviceId(deviceId);
+            }
+            
+            // QoS 1 재전송으로 인한 중복 샘플은 저장/브로드캐스트 전에 버린다
+            if (telemetryDeduplicator.isDuplicate(statusDto.getDeviceId(), statusDto)) {
+                log.debug("Duplicate BMS status sample dropped: device={}, seq={}, timestamp={}",
+                        statusDto.getDeviceId(), statusDto.getSequence(), statusDto.getTimestamp());
+                return;
+            }
             
             // BMS 데이터를 엔티티로 변환하여 저장
             BmsData bmsData = new BmsData();
+            bmsData.setDeviceId(statusDto.getDeviceId());
             bmsData.setTotalVoltage(statusDto.getTotalVoltage());
             bmsData.setCurrent(statusDto.getCurrent());
             bmsData.setTemperature(statusDto.getTemperature());
             bmsData.setRemainingCapacity(statusDto.getRemainingCapacity());
             bmsData.setChargeFetStatus(statusDto.getChargeFetStatus());
             bmsData.setDischargeFetStatus(statusDto.getDischargeFetStatus());
-            bmsData.setCellVoltages(statusDto.getCellVoltages());
+            bmsData.setCellVoltages(CellVoltages.toArray(statusDto.getCellVoltages()));
             bmsData.setTimestamp(LocalDateTime.now());
             
-            bmsDataRepository.save(bmsData);
+            // DB 저장은 write-behind 큐로 넘기고 MQTT 콜백 스레드에서는 기다리지 않는다
+            bmsDataWriter.enqueue(bmsData);
+            telemetryRollupService.record(bmsData);
+            energyThroughputService.record(bmsData);
             
-            // WebSocket을 통해 프론트엔드로 실시간 데이터 전송
-            messagingTemplate.convertAndSend("/topic/bms-status", statusDto);
-            log.info("WebSocket message sent to /topic/bms-status");
+            // /status 조회용 최신 스냅샷을 게시 (여기서 만든 JSON 을 REST 와 모든 WebSocket 전송이 공유)
+            LatestStatusCache.Snapshot snapshot = latestStatusCache.publish(statusDto);
             
-            log.info("BMS status data saved and broadcasted: {}", statusDto);
+            // WebSocket을 통해 프론트엔드로 실시간 데이터 전송 (전체 DTO 토픽 + keyframe/delta 토픽)
+            statusBroadcaster.broadcast(snapshot);
+            
+            // 이상 감지는 브로드캐스트 이후에 수행 (샘플당 할당 없음, 저장/알림은 별도 스레드)
+            anomalyDetectionService.inspect(bmsData);
+            alarmRuleService.inspect(bmsData);
+            
+            // 샘플마다 DTO toString이 생기지 않도록 hot path 로그는 debug 레벨, 이미 만든 JSON 크기만 남긴다
+            log.debug("BMS status data queued and broadcasted: device={}, bytes={}",
+                    statusDto.getDeviceId(), snapshot.getJson().length);
         } catch (Exception e) {
             log.error("Error handling BMS status message", e);
         }
     }
 
-    private void handleBmsControlMessage(String payload) {
+    private void handleBmsControlMessage(Object payload) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            BmsControlDto controlDto = mapper.readValue(payload, BmsControlDto.class);
+            BmsControlDto controlDto = bmsPayloadDecoder.decodeControl(payload);
             
             log.info("Received BMS control command: {}", controlDto);
             
@@ -105,20 +187,20 @@ public class BmsService {
             }
             
             // WebSocket으로 제어 명령 전송
-            messagingTemplate.convertAndSend("/topic/bms-control", controlDto);
-            log.info("Control command sent via WebSocket: {}", controlDto);
+            broadcastPublisher.publish("/topic/bms-control", controlDto);
+            log.info("Control command sent via WebSocket: /topic/bms-control");
             
         } catch (Exception e) {
             log.error("Error processing BMS control message: {}", e.getMessage(), e);
         }
     }
 
-    private void handleBmsFetStatusMessage(String payload) {
+    private void handleBmsFetStatusMessage(Object payload) {
         try {
-            BmsControlDto fetStatusDto = objectMapper.readValue(payload, BmsControlDto.class);
+            BmsControlDto fetStatusDto = bmsPayloadDecoder.decodeControl(payload);
             
             // WebSocket을 통해 프론트엔드로 FET 상태 전송
-            messagingTemplate.convertAndSend("/topic/bms-fet-status", fetStatusDto);
+            broadcastPublisher.publish("/topic/bms-fet-status", fetStatusDto);
             
             log.info("BMS FET status message received and broadcasted: {}", fetStatusDto);
         } catch (Exception e) {
@@ -126,45 +208,45 @@ public class BmsService {
         }
     }
 
-    private void handleBmsSettingsMessage(String payload) {
+    private void handleBmsSettingsMessage(Object payload) {
         try {
-            BmsControlDto settingsDto = objectMapper.readValue(payload, BmsControlDto.class);
+            BmsControlDto settingsDto = bmsPayloadDecoder.decodeControl(payload);
             
             log.info("Received BMS settings command: {}", settingsDto);
             
             // WebSocket으로 설정 완료 알림 전송
-            messagingTemplate.convertAndSend("/topic/bms-settings", settingsDto);
-            log.info("BMS settings command sent via WebSocket: {}", settingsDto);
+            broadcastPublisher.publish("/topic/bms-settings", settingsDto);
+            log.info("BMS settings command sent via WebSocket: /topic/bms-settings");
             
         } catch (Exception e) {
             log.error("Error processing BMS settings message: {}", e.getMessage(), e);
         }
     }
 
-    private void handleBmsDelaySettingsMessage(String payload) {
+    private void handleBmsDelaySettingsMessage(Object payload) {
         try {
-            BmsControlDto delaySettingsDto = objectMapper.readValue(payload, BmsControlDto.class);
+            BmsControlDto delaySettingsDto = bmsPayloadDecoder.decodeControl(payload);
             
             log.info("Received BMS delay settings command: {}", delaySettingsDto);
             
             // WebSocket으로 딜레이 설정 완료 알림 전송
-            messagingTemplate.convertAndSend("/topic/bms-delay-settings", delaySettingsDto);
-            log.info("BMS delay settings command sent via WebSocket: {}", delaySettingsDto);
+            broadcastPublisher.publish("/topic/bms-delay-settings", delaySettingsDto);
+            log.info("BMS delay settings command sent via WebSocket: /topic/bms-delay-settings");
             
         } catch (Exception e) {
             log.error("Error processing BMS delay settings message: {}", e.getMessage(), e);
         }
     }
 
-    private void handleElectronicLoadControlMessage(String payload) {
+    private void handleElectronicLoadControlMessage(Object payload) {
         try {
-            BmsControlDto controlDto = objectMapper.readValue(payload, BmsControlDto.class);
+            BmsControlDto controlDto = bmsPayloadDecoder.decodeControl(payload);
             
             log.info("Received Electronic Load control command: {}", controlDto);
             
             // WebSocket으로 제어 명령 전송 (필요시)
-            messagingTemplate.convertAndSend("/topic/electronic-load-control", controlDto);
-            log.info("Electronic Load control command sent via WebSocket: {}", controlDto);
+            broadcastPublisher.publish("/topic/electronic-load-control", controlDto);
+            log.info("Electronic Load control command sent via WebSocket: /topic/electronic-load-control");
             
         } catch (Exception e) {
             log.error("Error processing Electronic Load control message: {}", e.getMessage(), e);
@@ -172,19 +254,178 @@ public class BmsService {
     }
 
     public BmsStatusDto getLatestBmsStatus() {
-        BmsData latestData = bmsDataRepository.findTopByOrderByTimestampDesc();
-        if (latestData != null) {
-            return convertToDto(latestData);
+        LatestStatusCache.Snapshot snapshot = getLatestSnapshot(null);
+        return snapshot != null ? snapshot.getStatus() : null;
+    }
+
+    /**
+     * Latest status snapshot (optionally of one device), served from memory. 수집된 데이터가 아직 없을 때만
+     * (예: 재시작 직후) 저장소에서 한 번 읽어 캐시를 채운다.
+     */
+    public LatestStatusCache.Snapshot getLatestSnapshot(String deviceId) {
+        LatestStatusCache.Snapshot snapshot = deviceId != null
+                ? latestStatusCache.getLatest(deviceId)
+                : latestStatusCache.getLatest();
+        if (snapshot != null || deviceId != null) {
+            return snapshot;
+        }
+        BmsData latestData = telemetryStore.findTopByOrderByTimestampDesc();
+        if (latestData == null) {
+            return null;
+        }
+        try {
+            return latestStatusCache.seedIfEmpty(convertToDto(latestData));
+        } catch (Exception e) {
+            log.error("Error serializing stored BMS status", e);
+            return null;
         }
-        return null;
     }
 
     public List<BmsData> getBmsHistory(LocalDateTime start, LocalDateTime end) {
-        return bmsDataRepository.findByTimestampBetweenOrderByTimestampDesc(start, end);
+        // 최근 구간은 off-heap 링에서 바로 응답하고, 링 밖의 구간만 저장소를 조회
+        List<BmsData> recent = recentTelemetryCache.findBetweenNewestFirst(start, end);
+        if (recent != null) {
+            return recent;
+        }
+        return telemetryStore.findByTimestampBetweenOrderByTimestampDesc(start, end);
     }
 
     public List<BmsData> getTemperatureHistory(int limit) {
-        return bmsDataRepository.findLatestTemperatureHistory(limit);
+        List<BmsData> recent = recentTelemetryCache.findNewest(limit);
+        if (recent != null) {
+            return recent;
+        }
+        return telemetryStore.findLatestTemperatureHistory(limit);
+    }
+
+    /**
+     * One metric as (timestamp, value) arrays, newest first, without loading full samples.
+     *
+     * @throws IllegalArgumentException for an unknown metric name
+     */
+    public MetricSeriesDto getMetricSeries(String metricName, int cell, LocalDateTime start, LocalDateTime end, int limit) {
+        TelemetryMetric metric = TelemetryMetric.fromName(metricName);
+        MetricSeries series = telemetryStore.findMetricSeries(metric, cell, start, end, limit);
+        return new MetricSeriesDto(metric.name().toLowerCase(), metric == TelemetryMetric.CELL ? cell : null,
+                series.timestamps(), series.values());
+    }
+
+    /**
+     * Keyset page of history in [start, end] (or of all history when start/end are null), newest first.
+     * 한 행을 더 읽어서 다음 페이지 존재 여부를 판단한다.
+     *
+     * @throws IllegalArgumentException when the cursor token is malformed
+     */
+    public BmsHistoryPageDto getBmsHistoryPage(LocalDateTime start, LocalDateTime end, String cursor, int pageSize) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        HistoryCursor after = cursor != null && !cursor.isEmpty() ? HistoryCursor.decode(cursor) : null;
+        List<BmsData> rows = telemetryStore.findPageNewestFirst(start, end,
+                after != null ? after.getTimestamp() : null, after != null ? after.getId() : null, limit + 1);
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            BmsData last = rows.get(limit - 1);
+            nextCursor = new HistoryCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new BmsHistoryPageDto(rows, nextCursor);
+    }
+
+    /**
+     * Writes the history range as NDJSON (one BmsData object per line) while reading it, newest first.
+     * 행 단위로 바로 직렬화하므로 구간 길이와 관계없이 메모리 사용량이 일정하다.
+     */
+    public void writeBmsHistoryNdjson(LocalDateTime start, LocalDateTime end, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(BmsData.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // 루트 값 사이 기본 구분자(공백) 대신 각 행 끝에 줄바꿈을 직접 쓴다
+            generator.setRootValueSeparator(null);
+            telemetryStore.forEachBetweenNewestFirst(start, end, data -> {
+                try {
+                    writer.writeValue(generator, data);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    // 클라이언트가 연결을 끊은 경우 커서를 닫고 중단
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Downsampled history from the rollup tiers instead of raw rows.
+     */
+    public List<BmsRollupDto> getBmsHistoryRollup(LocalDateTime start, LocalDateTime end, long resolutionSeconds, String deviceId) {
+        return telemetryRollupService.query(start, end, resolutionSeconds, deviceId);
+    }
+
+    /**
+     * Cell imbalance (spread, stddev, weakest cell) per bucket from the rollup tiers.
+     */
+    public List<CellImbalanceDto> getCellImbalance(LocalDateTime start, LocalDateTime end, long resolutionSeconds, String deviceId) {
+        return telemetryRollupService.queryCellImbalance(start, end, resolutionSeconds, deviceId);
+    }
+
+    /**
+     * Detected anomalies between start and end, newest first.
+     */
+    public List<BmsAnomaly> getAnomalies(LocalDateTime start, LocalDateTime end) {
+        return anomalyDetectionService.findBetween(start, end);
+    }
+
+    /**
+     * Alarm raise/clear events between start and end, newest first.
+     */
+    public List<BmsAlarm> getAlarmHistory(LocalDateTime start, LocalDateTime end) {
+        return alarmRuleService.findBetween(start, end);
+    }
+
+    public List<BmsAlarm> getActiveAlarms() {
+        return alarmRuleService.getActiveAlarms();
+    }
+
+    public List<AlarmRule> getAlarmRules() {
+        return alarmRuleService.getRules();
+    }
+
+    /**
+     * Replaces the user-defined alarm rules (threshold-derived OV/UV/ChgOC/DsgOC rules are kept).
+     */
+    public void setCustomAlarmRules(List<AlarmRule> rules) {
+        alarmRuleService.setCustomRules(rules);
+    }
+
+    /**
+     * Ah / Wh charged and discharged between start and end, from the live counters or interpolated between energy
+     * checkpoints (accurate to the checkpoint interval at each end).
+     */
+    public EnergyThroughputDto getEnergyThroughput(String deviceId, LocalDateTime start, LocalDateTime end) {
+        return energyThroughputService.query(deviceId, start, end);
+    }
+
+    /**
+     * Ingest pipeline counters (write-behind queue etc.)
+     */
+    public java.util.Map<String, Object> getIngestStats() {
+        java.util.Map<String, Object> stats = new java.util.LinkedHashMap<>();
+        stats.put("admission", telemetryAdmissionQueue.getStats());
+        stats.put("dedup", telemetryDeduplicator.getStats());
+        stats.put("persistence", bmsDataWriter.getStats());
+        stats.put("store", telemetryStore.getStats());
+        stats.put("rollups", telemetryRollupService.getStats());
+        stats.put("recent", recentTelemetryCache.getStats());
+        stats.put("energy", energyThroughputService.getStats());
+        stats.put("anomalies", anomalyDetectionService.getStats());
+        stats.put("alarms", alarmRuleService.getStats());
+        stats.put("broadcast", statusBroadcaster.getStats());
+        stats.put("conflation", conflatedStatusService.getStats());
+        stats.put("fanout", broadcastPublisher.getStats());
+        stats.put("websocket", webSocketSessionBacklog.getStats());
+        return stats;
     }
 
     public void sendControlCommand(BmsControlDto controlDto) {
@@ -250,13 +491,14 @@ public class BmsService {
 
     private BmsStatusDto convertToDto(BmsData bmsData) {
         BmsStatusDto dto = new BmsStatusDto();
+        dto.setDeviceId(bmsData.getDeviceId());
         dto.setTotalVoltage(bmsData.getTotalVoltage());
         dto.setCurrent(bmsData.getCurrent());
         dto.setTemperature(bmsData.getTemperature());
         dto.setRemainingCapacity(bmsData.getRemainingCapacity());
         dto.setChargeFetStatus(bmsData.getChargeFetStatus());
         dto.setDischargeFetStatus(bmsData.getDischargeFetStatus());
-        dto.setCellVoltages(bmsData.getCellVoltages());
+        dto.setCellVoltages(CellVoltages.toList(bmsData.getCellVoltages()));
         dto.setTimestamp(bmsData.getTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
         return dto;
     }
@@ -268,6 +510,7 @@ public class BmsService {
      */
     public boolean setOverchargeVoltageHardware(double voltage) {
         log.info("Setting overcharge voltage to {}V using Python hardware API", voltage);
+        alarmRuleService.setOverchargeVoltage(voltage);
         
         // Try Python API first for direct hardware control
         if (pythonHardwareClient.isHardwareControllerAvailable()) {
@@ -291,6 +534,7 @@ public class BmsService {
      */
     public boolean setUnderchargeVoltageHardware(double voltage) {
         log.info("Setting undercharge voltage to {}V using Python hardware API", voltage);
+        alarmRuleService.setUnderchargeVoltage(voltage);
         
         if (pythonHardwareClient.isHardwareControllerAvailable()) {
             boolean success = pythonHardwareClient.setUnderchargeVoltage(voltage);
@@ -312,6 +556,7 @@ public class BmsService {
      */
     public boolean setOverchargeCurrentHardware(double current) {
         log.info("Setting overcharge current to {}A using Python hardware API", current);
+        alarmRuleService.setOverchargeCurrent(current);
         
         if (pythonHardwareClient.isHardwareControllerAvailable()) {
             boolean success = pythonHardwareClient.setOverchargeCurrent(current);
@@ -333,6 +578,7 @@ public class BmsService {
      */
     public boolean setDischargeCurrentHardware(double current) {
         log.info("Setting discharge current to {}A using Python hardware API", current);
+        alarmRuleService.setDischargeCurrent(current);
         
         if (pythonHardwareClient.isHardwareControllerAvailable()) {
             boolean success = pythonHardwareClient.setDischargeCurrent(current);
@@ -354,6 +600,7 @@ public class BmsService {
      */
     public boolean setVoltageDelayHardware(int delay) {
         log.info("Setting voltage delay to {}s using Python hardware API", delay);
+        alarmRuleService.setVoltageDelay(delay);
         
         if (pythonHardwareClient.isHardwareControllerAvailable()) {
             boolean success = pythonHardwareClient.setVoltageDelay(delay);
@@ -375,6 +622,7 @@ public class BmsService {
      */
     public boolean setChargeCurrentDelayHardware(int delay, int release) {
         log.info("Setting charge current delay to {}s/{}s using Python hardware API", delay, release);
+        alarmRuleService.setChargeCurrentDelay(delay, release);
         
         if (pythonHardwareClient.isHardwareControllerAvailable()) {
             boolean success = pythonHardwareClient.setChargeCurrentDelay(delay, release);
@@ -396,6 +644,7 @@ public class BmsService {
      */
     public boolean setDischargeCurrentDelayHardware(int delay, int release) {
         log.info("Setting discharge current delay to {}s/{}s using Python hardware API", delay, release);
+        alarmRuleService.setDischargeCurrentDelay(delay, release);
         
         if (pythonHardwareClient.isHardwareControllerAvailable()) {
             boolean success = pythonHardwareClient.setDischargeCurrentDelay(delay, release);
@@ -417,6 +666,7 @@ public class BmsService {
      */
     public boolean resetSettingsHardware() {
         log.info("Resetting BMS settings using Python hardware API");
+        alarmRuleService.resetThresholds();
         
         if (pythonHardwareClient.isHardwareControllerAvailable()) {
             boolean success = pythonHardwareClient.resetSettings();
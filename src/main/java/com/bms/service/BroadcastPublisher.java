@@ -0,0 +1,137 @@
+package com.bms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket sends of pre-serialized JSON (or binary) payloads, so each outbound event is serialized exactly once.
+ *
+ * convertAndSend 는 보낼 때마다 Jackson 변환을 하지만, 여기서는 이미 만든 byte[] 를 application/json 메시지로 그대로
+ * 넘긴다. simple broker 는 같은 payload 참조를 모든 구독 세션에 공유하므로 byte[] 는 넘긴 뒤 수정하면 안 된다.
+ * 전송 1건(브로커의 구독자 매칭과 세션별 outbound 큐 적재 포함)에 걸린 시간을 fan-out 시간으로 집계한다.
+ * application/octet-stream 메시지는 STOMP 핸들러가 WebSocket binary 프레임으로 보낸다. SockJS 세션은 이를 UTF-8 텍스트로
+ * 바꿔 깨뜨리므로 {@link BinaryFrameNegotiator} 가 그 세션에는 binary 구독을 허용하지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class BroadcastPublisher {
+
+    /**
+     * STOMP header carrying the device ID of binary frames (the binary status layout has no device field).
+     */
+    public static final String DEVICE_HEADER = "device-id";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final LongAdder serialized = new LongAdder();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder fanoutNanos = new LongAdder();
+    private final LongAccumulator maxFanoutNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Serializes the payload once and sends it to the destination.
+     */
+    public void publish(String destination, Object payload) {
+        publishJson(destination, serialize(payload));
+    }
+
+    /**
+     * Serializes once for several destinations; the same bytes are shared by all of them.
+     */
+    public void publish(Object payload, String... destinations) {
+        byte[] json = serialize(payload);
+        for (String destination : destinations) {
+            publishJson(destination, json);
+        }
+    }
+
+    /**
+     * Sends already serialized JSON (e.g. a {@link LatestStatusCache} snapshot). The array must not be modified afterwards.
+     */
+    public void publishJson(String destination, byte[] json) {
+        send(destination, json, null, MimeTypeUtils.APPLICATION_JSON, null);
+    }
+
+    /**
+     * Sends an already encoded binary frame. The array must not be modified afterwards.
+     */
+    public void publishBinary(String destination, byte[] payload, String deviceId) {
+        send(destination, payload, null, MimeTypeUtils.APPLICATION_OCTET_STREAM, deviceId);
+    }
+
+    /**
+     * Sends already serialized JSON to one STOMP session's user destination (no authenticated user needed).
+     */
+    public void publishJsonToSession(String sessionId, String destination, byte[] json) {
+        send(userDestination(sessionId, destination), json, sessionId, MimeTypeUtils.APPLICATION_JSON, null);
+    }
+
+    public void publishBinaryToSession(String sessionId, String destination, byte[] payload, String deviceId) {
+        send(userDestination(sessionId, destination), payload, sessionId, MimeTypeUtils.APPLICATION_OCTET_STREAM,
+                deviceId);
+    }
+
+    public Map<String, Object> getStats() {
+        long count = events.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("serialized", serialized.sum());
+        stats.put("events", count);
+        stats.put("bytes", bytes.sum());
+        stats.put("fanoutMeanMicros", count > 0 ? TimeUnit.NANOSECONDS.toMicros(fanoutNanos.sum() / count) : 0);
+        stats.put("fanoutMaxMicros", TimeUnit.NANOSECONDS.toMicros(maxFanoutNanos.get()));
+        return stats;
+    }
+
+    private byte[] serialize(Object payload) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(payload);
+            serialized.increment();
+            return json;
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String userDestination(String sessionId, String destination) {
+        return messagingTemplate.getUserDestinationPrefix() + sessionId + destination;
+    }
+
+    private void send(String destination, byte[] payload, String sessionId, MimeType contentType, String deviceId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(contentType);
+        if (sessionId != null) {
+            accessor.setSessionId(sessionId);
+        }
+        if (deviceId != null) {
+            accessor.setNativeHeader(DEVICE_HEADER, deviceId);
+        }
+        accessor.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+
+        long start = System.nanoTime();
+        messagingTemplate.send(destination, message);
+        long elapsed = System.nanoTime() - start;
+        events.increment();
+        bytes.add(payload.length);
+        fanoutNanos.add(elapsed);
+        maxFanoutNanos.accumulate(elapsed);
+    }
+}
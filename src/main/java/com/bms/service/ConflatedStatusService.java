@@ -0,0 +1,211 @@
+package com.bms.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate-limited status stream per STOMP session on /user/queue/bms-status.
+ *
+ * 구독 시 max-rate 헤더(초당 메시지 수)로 주기를 정하면, 세션마다 그 주기로 {@link LatestStatusCache} 의 기기별 최신
+ * 스냅샷 중 마지막 전송 이후 바뀐 것만 보낸다. 샘플 수신 경로에서는 아무 일도 하지 않으므로 세션당 대기 프레임은
+ * 최대 기기 수로 제한되고, 느린 구독자가 빠른 구독자나 수집 경로를 늦추지 않는다.
+ * format:binary 헤더로 구독하면 JSON 대신 {@link com.bms.telemetry.BinaryStatusCodec} binary 프레임을 받는다 (SockJS 세션 제외).
+ * 주기 작업은 브로커 채널 인터셉터(WebSocketConfig)로 등록되어, simple broker 가 SUBSCRIBE 를 처리한 뒤에 시작한다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConflatedStatusService implements ChannelInterceptor {
+
+    public static final String DESTINATION = "/queue/bms-status";
+    public static final String SUBSCRIBE_DESTINATION = "/user" + DESTINATION;
+    public static final String RATE_HEADER = "max-rate";
+
+    private final BroadcastPublisher broadcastPublisher;
+    private final LatestStatusCache latestStatusCache;
+
+    @Value("${bms.broadcast.conflation.default-rate:1}")
+    private double defaultRate;
+
+    @Value("${bms.broadcast.conflation.max-rate:20}")
+    private double maxRate;
+
+    @Value("${bms.broadcast.conflation.threads:2}")
+    private int threads;
+
+    // 세션 ID → 구독 (세션당 하나, 다시 구독하면 새 주기로 교체)
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+    // 연결 중인 세션. inbound executor 에 남아 있던 SUBSCRIBE 가 종료 이후에 도착해도 작업을 만들지 않도록 한다
+    private final Set<String> liveSessions = ConcurrentHashMap.newKeySet();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger index = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bms-conflation-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Starts a session's stream once the broker has registered its subscription.
+     *
+     * SessionSubscribeEvent 는 브로커가 구독을 등록하기 전에 발행되어 첫 전송이 유실될 수 있다. 사용자 목적지 SUBSCRIBE 는
+     * 세션별 큐로 바뀌어 브로커 채널로 오는데, 이 채널은 executor 없이 호출 스레드에서 처리하므로 전송 완료 시점에는
+     * simple broker 가 이미 구독을 등록했다.
+     */
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (!sent || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.SUBSCRIBE
+                || !SUBSCRIBE_DESTINATION.equals(message.getHeaders().get(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION))) {
+            return;
+        }
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        if (!liveSessions.contains(accessor.getSessionId())) {
+            log.debug("Ignoring conflated status subscription of closed session {}", accessor.getSessionId());
+            return;
+        }
+        double rate = parseRate(accessor.getFirstNativeHeader(RATE_HEADER));
+        long periodMicros = Math.max(1, (long) (1_000_000 / rate));
+        Subscriber subscriber = new Subscriber(accessor.getSessionId(), accessor.getSubscriptionId(),
+                BinaryFrameNegotiator.wantsBinary(accessor));
+        // 구독이 등록된 뒤이므로 현재 상태를 바로 보낸다
+        subscriber.task = scheduler.scheduleAtFixedRate(() -> flush(subscriber), 0, periodMicros, TimeUnit.MICROSECONDS);
+        Subscriber previous = subscribers.put(subscriber.sessionId, subscriber);
+        if (previous != null) {
+            previous.task.cancel(false);
+        }
+        if (!liveSessions.contains(subscriber.sessionId) && subscribers.remove(subscriber.sessionId, subscriber)) {
+            // 확인과 등록 사이에 세션이 끝난 경우 (onDisconnect 가 이 구독을 보기 전에 지나감)
+            subscriber.task.cancel(false);
+            return;
+        }
+        log.debug("Conflated status subscription: session={}, rate={}/s, binary={}", subscriber.sessionId, rate,
+                subscriber.binary);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Subscriber subscriber = subscribers.get(accessor.getSessionId());
+        if (subscriber != null && subscriber.subscriptionId.equals(accessor.getSubscriptionId())
+                && subscribers.remove(subscriber.sessionId, subscriber)) {
+            subscriber.task.cancel(false);
+        }
+    }
+
+    @EventListener
+    public void onConnect(SessionConnectEvent event) {
+        // CONNECT 는 같은 세션의 SUBSCRIBE 보다 먼저 처리되므로 구독 시점에는 항상 등록되어 있다
+        liveSessions.add(SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders()));
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        // 먼저 빼야 afterSendCompletion 의 재확인이 이 사이에 등록된 구독을 정리한다
+        liveSessions.remove(event.getSessionId());
+        Subscriber subscriber = subscribers.remove(event.getSessionId());
+        if (subscriber != null) {
+            subscriber.task.cancel(false);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessions", liveSessions.size());
+        stats.put("subscribers", subscribers.size());
+        stats.put("flushes", flushes.sum());
+        stats.put("sent", sent.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    private double parseRate(String header) {
+        double rate = defaultRate;
+        if (header != null) {
+            try {
+                rate = Double.parseDouble(header.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid {} header '{}', using {}/s", RATE_HEADER, header, defaultRate);
+            }
+        }
+        // 0 이하나 NaN 은 기본값, 상한은 설정값으로 제한
+        return rate > 0 ? Math.min(rate, maxRate) : defaultRate;
+    }
+
+    private void flush(Subscriber subscriber) {
+        flushes.increment();
+        try {
+            latestStatusCache.forEachDevice((deviceId, snapshot) -> {
+                // 스냅샷은 샘플마다 새로 만들어지므로 참조가 같으면 마지막 전송 이후 새 샘플이 없다
+                if (subscriber.lastSent.put(deviceId, snapshot) != snapshot) {
+                    // 모든 세션이 스냅샷의 JSON/binary 를 공유한다 (세션마다 다시 직렬화하지 않음)
+                    byte[] binary = subscriber.binary ? snapshot.getBinary() : null;
+                    if (binary != null) {
+                        broadcastPublisher.publishBinaryToSession(subscriber.sessionId, DESTINATION, binary, deviceId);
+                    } else {
+                        // binary 로 담을 수 없는 스냅샷(셀 255개 초과)은 binary 세션에도 JSON 으로 보낸다
+                        broadcastPublisher.publishJsonToSession(subscriber.sessionId, DESTINATION, snapshot.getJson());
+                    }
+                    sent.increment();
+                }
+            });
+        } catch (Exception e) {
+            // 예외가 나가면 scheduleAtFixedRate 가 이후 실행을 멈추므로 여기서 삼킨다
+            failed.increment();
+            log.warn("Conflated status flush failed for session {}", subscriber.sessionId, e);
+        }
+    }
+
+    private static final class Subscriber {
+        private final String sessionId;
+        private final String subscriptionId;
+        private final boolean binary;
+        // 같은 작업은 동시에 실행되지 않으므로 일반 HashMap 으로 충분하다
+        private final Map<String, LatestStatusCache.Snapshot> lastSent = new HashMap<>();
+        private ScheduledFuture<?> task;
+
+        private Subscriber(String sessionId, String subscriptionId, boolean binary) {
+            this.sessionId = sessionId;
+            this.subscriptionId = subscriptionId;
+            this.binary = binary;
+        }
+    }
+}
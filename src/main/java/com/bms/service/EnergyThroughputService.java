@@ -0,0 +1,280 @@
+package com.bms.service;
+
+import com.bms.dto.EnergyThroughputDto;
+import com.bms.model.BmsData;
+import com.bms.model.EnergyCheckpoint;
+import com.bms.repository.EnergyCheckpointRepository;
+import com.bms.repository.TelemetryStore;
+import com.bms.telemetry.EnergyIntegrator;
+import com.bms.telemetry.SampleRecordCodec;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streaming Ah / Wh throughput per device (coulomb counting on the ingest path).
+ *
+ * 카운터는 단조 증가하는 누적값이므로 구간 [T1, T2] 의 처리량은 C(T2) - C(T1) 이다. C(T) 는 수집 경로가 남긴
+ * 상태(체크포인트와 현재 상태)에서만 구하고 저장소 샘플을 다시 적분하지 않는다. 수집 경로가 늦게 와서 버렸거나
+ * 저장에서 빠진 샘플이 조회 결과에 섞이지 않으므로 처리량이 음수가 되지 않는다.
+ * 순서가 뒤바뀐 샘플은 reorder-window 동안 모았다가 시간순으로 적분하고, 그보다 늦게 온 샘플은 버린다.
+ */
+@Service
+@Slf4j
+public class EnergyThroughputService {
+
+    private final TelemetryStore telemetryStore;
+    private final EnergyCheckpointRepository checkpointRepository;
+    private final long maxGapMillis;
+    private final long reorderWindowMillis;
+    private final long checkpointIntervalMillis;
+
+    private final Map<String, DeviceEnergy> devices = new ConcurrentHashMap<>();
+    private final LongAdder integrated = new LongAdder();
+    private final LongAdder late = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder checkpoints = new LongAdder();
+    private final LongAdder checkpointFailures = new LongAdder();
+
+    public EnergyThroughputService(TelemetryStore telemetryStore,
+                                   EnergyCheckpointRepository checkpointRepository,
+                                   @Value("${bms.energy.max-gap-seconds:30}") long maxGapSeconds,
+                                   @Value("${bms.energy.reorder-window-ms:2000}") long reorderWindowMillis,
+                                   @Value("${bms.energy.checkpoint-interval-seconds:60}") long checkpointIntervalSeconds) {
+        this.telemetryStore = telemetryStore;
+        this.checkpointRepository = checkpointRepository;
+        this.maxGapMillis = maxGapSeconds * 1000L;
+        this.reorderWindowMillis = Math.max(0, reorderWindowMillis);
+        this.checkpointIntervalMillis = Math.max(1, checkpointIntervalSeconds) * 1000L;
+    }
+
+    public void record(BmsData data) {
+        if (data.getCurrent() == null || data.getTotalVoltage() == null) {
+            skipped.increment();
+            return;
+        }
+        String deviceId = data.getDeviceId() != null ? data.getDeviceId() : MqttTopicRouter.DEFAULT_DEVICE_ID;
+        long timestamp = SampleRecordCodec.toEpochMillis(data.getTimestamp());
+        DeviceEnergy device = devices.get(deviceId);
+        if (device == null) {
+            // 재시작 후 처음 보는 기기는 체크포인트와 꼬리 구간에서 이어서 센다 (조회는 map 락 밖에서)
+            DeviceEnergy resumed = new DeviceEnergy(deviceId, resume(deviceId, timestamp));
+            device = devices.putIfAbsent(deviceId, resumed);
+            if (device == null) {
+                device = resumed;
+            }
+        }
+
+        List<EnergyCheckpoint> due;
+        synchronized (device) {
+            due = device.add(new Sample(timestamp, data.getCurrent(), data.getTotalVoltage()));
+        }
+        // DB 저장은 기기 락 밖에서 한다 (체크포인트 주기당 한 번)
+        due.forEach(this::saveCheckpoint);
+    }
+
+    /**
+     * Charge / discharge throughput of one device between start and end.
+     */
+    public EnergyThroughputDto query(String deviceId, LocalDateTime start, LocalDateTime end) {
+        String device = deviceId != null ? deviceId : MqttTopicRouter.DEFAULT_DEVICE_ID;
+        long from = SampleRecordCodec.toEpochMillis(start);
+        long to = SampleRecordCodec.toEpochMillis(end);
+        EnergyIntegrator atStart = countersAt(device, from);
+        EnergyIntegrator atEnd = countersAt(device, to);
+        return new EnergyThroughputDto(device,
+                start.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                end.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                atEnd.chargeAh() - atStart.chargeAh(),
+                atEnd.dischargeAh() - atStart.dischargeAh(),
+                atEnd.chargeWh() - atStart.chargeWh(),
+                atEnd.dischargeWh() - atStart.dischargeWh(),
+                atEnd.gaps() - atStart.gaps());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("devices", devices.size());
+        stats.put("integrated", integrated.sum());
+        stats.put("late", late.sum());
+        stats.put("skipped", skipped.sum());
+        stats.put("checkpoints", checkpoints.sum());
+        stats.put("checkpointFailures", checkpointFailures.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    void stop() {
+        // 종료 시 reorder 버퍼를 비우고 마지막 상태를 체크포인트로 남긴다
+        for (DeviceEnergy device : devices.values()) {
+            EnergyCheckpoint checkpoint;
+            synchronized (device) {
+                device.drain(Long.MAX_VALUE);
+                checkpoint = device.integrator.isEmpty() ? null : toCheckpoint(device.deviceId, device.integrator);
+            }
+            if (checkpoint != null) {
+                saveCheckpoint(checkpoint);
+            }
+        }
+    }
+
+    /**
+     * Cumulative counters as of {@code timestamp}: live state when it is already past that point, otherwise
+     * interpolated between the checkpoints (or the live state) around it. 체크포인트 주기 안에서는 시간 비례로 나눈다.
+     */
+    private EnergyIntegrator countersAt(String deviceId, long timestamp) {
+        DeviceEnergy device = devices.get(deviceId);
+        EnergyIntegrator live = null;
+        if (device != null) {
+            synchronized (device) {
+                if (!device.integrator.isEmpty() && timestamp >= device.integrator.lastTimestamp()) {
+                    EnergyIntegrator current = device.integrator.copy();
+                    // 아직 reorder 버퍼에 있는 샘플 중 T 이전 것까지 반영
+                    device.pending.stream()
+                            .filter(sample -> sample.timestamp() <= timestamp)
+                            .sorted(Comparator.comparingLong(Sample::timestamp))
+                            .forEach(sample -> current.add(sample.timestamp(), sample.current(), sample.voltage()));
+                    return current;
+                }
+                if (!device.integrator.isEmpty()) {
+                    live = device.integrator.copy();
+                }
+            }
+        }
+        LocalDateTime at = SampleRecordCodec.fromEpochMillis(timestamp);
+        EnergyCheckpoint before = checkpointRepository.findFirstByDeviceIdAndTimestampLessThanEqualOrderByTimestampDesc(
+                deviceId, at);
+        if (before == null) {
+            // 첫 샘플에서 바로 체크포인트를 남기므로 그 이전은 0
+            return new EnergyIntegrator(maxGapMillis);
+        }
+        EnergyCheckpoint after = checkpointRepository.findFirstByDeviceIdAndTimestampGreaterThanOrderByTimestampAsc(
+                deviceId, at);
+        EnergyIntegrator next = after != null ? fromCheckpoint(after) : live;
+        return next != null ? EnergyIntegrator.interpolate(fromCheckpoint(before), next, timestamp) : fromCheckpoint(before);
+    }
+
+    /**
+     * Counters to continue from after a restart: the last checkpoint at or before {@code timestamp} plus the stored
+     * samples after it (비정상 종료로 마지막 체크포인트 이후가 남지 않은 경우). 체크포인트가 없으면 0에서 시작한다.
+     */
+    private EnergyIntegrator resume(String deviceId, long timestamp) {
+        EnergyCheckpoint checkpoint = checkpointRepository.findFirstByDeviceIdAndTimestampLessThanEqualOrderByTimestampDesc(
+                deviceId, SampleRecordCodec.fromEpochMillis(timestamp));
+        if (checkpoint == null) {
+            return new EnergyIntegrator(maxGapMillis);
+        }
+        EnergyIntegrator integrator = fromCheckpoint(checkpoint);
+        if (timestamp <= integrator.lastTimestamp()) {
+            return integrator;
+        }
+
+        // 체크포인트 이후 꼬리 구간만 읽는다 (저장소는 기기 구분이 없으므로 메모리에서 거른다)
+        List<BmsData> tail = new ArrayList<>();
+        telemetryStore.forEachBetweenNewestFirst(checkpoint.getTimestamp(),
+                SampleRecordCodec.fromEpochMillis(timestamp).plusNanos(999_999), sample -> {
+                    String sampleDevice = sample.getDeviceId() != null
+                            ? sample.getDeviceId() : MqttTopicRouter.DEFAULT_DEVICE_ID;
+                    if (sampleDevice.equals(deviceId) && sample.getCurrent() != null && sample.getTotalVoltage() != null) {
+                        tail.add(sample);
+                    }
+                });
+        tail.sort(Comparator.comparing(BmsData::getTimestamp));
+        for (BmsData sample : tail) {
+            integrator.add(SampleRecordCodec.toEpochMillis(sample.getTimestamp()),
+                    sample.getCurrent(), sample.getTotalVoltage());
+        }
+        return integrator;
+    }
+
+    private EnergyIntegrator fromCheckpoint(EnergyCheckpoint checkpoint) {
+        return EnergyIntegrator.restore(maxGapMillis, SampleRecordCodec.toEpochMillis(checkpoint.getTimestamp()),
+                checkpoint.getLastCurrent(), checkpoint.getLastVoltage(),
+                checkpoint.getChargeAh(), checkpoint.getDischargeAh(),
+                checkpoint.getChargeWh(), checkpoint.getDischargeWh(),
+                checkpoint.getGaps() != null ? checkpoint.getGaps() : 0);
+    }
+
+    private void saveCheckpoint(EnergyCheckpoint checkpoint) {
+        try {
+            checkpointRepository.save(checkpoint);
+            checkpoints.increment();
+        } catch (Exception e) {
+            // 체크포인트가 빠져도 조회 시 보간하는 구간이 길어질 뿐 구간 끝의 값은 틀리지 않는다
+            checkpointFailures.increment();
+            log.warn("Failed to save energy checkpoint for device {}: {}", checkpoint.getDeviceId(), e.getMessage());
+        }
+    }
+
+    private static EnergyCheckpoint toCheckpoint(String deviceId, EnergyIntegrator integrator) {
+        return new EnergyCheckpoint(null, deviceId,
+                SampleRecordCodec.fromEpochMillis(integrator.lastTimestamp()),
+                integrator.lastCurrent(), integrator.lastVoltage(),
+                integrator.chargeAh(), integrator.dischargeAh(),
+                integrator.chargeWh(), integrator.dischargeWh(),
+                integrator.gaps());
+    }
+
+    private record Sample(long timestamp, double current, double voltage) {
+    }
+
+    /**
+     * Per-device state, guarded by its own monitor.
+     */
+    private final class DeviceEnergy {
+        private final String deviceId;
+        private final EnergyIntegrator integrator;
+        private final PriorityQueue<Sample> pending = new PriorityQueue<>(Comparator.comparingLong(Sample::timestamp));
+        private long newestSeen = Long.MIN_VALUE;
+        private long lastCheckpoint;
+
+        DeviceEnergy(String deviceId, EnergyIntegrator integrator) {
+            this.deviceId = deviceId;
+            this.integrator = integrator;
+            // 재개한 경우 다음 체크포인트는 한 주기 뒤, 처음 보는 기기는 첫 샘플에서 바로 기록
+            this.lastCheckpoint = integrator.isEmpty() ? Long.MIN_VALUE : integrator.lastTimestamp();
+        }
+
+        List<EnergyCheckpoint> add(Sample sample) {
+            if (sample.timestamp() <= integrator.lastTimestamp()) {
+                late.increment();
+                return List.of();
+            }
+            pending.add(sample);
+            newestSeen = Math.max(newestSeen, sample.timestamp());
+            return drain(newestSeen - reorderWindowMillis);
+        }
+
+        List<EnergyCheckpoint> drain(long upTo) {
+            List<EnergyCheckpoint> due = List.of();
+            while (!pending.isEmpty() && pending.peek().timestamp() <= upTo) {
+                Sample sample = pending.poll();
+                if (!integrator.add(sample.timestamp(), sample.current(), sample.voltage())) {
+                    late.increment();
+                    continue;
+                }
+                integrated.increment();
+                if (lastCheckpoint == Long.MIN_VALUE || sample.timestamp() - lastCheckpoint >= checkpointIntervalMillis) {
+                    lastCheckpoint = sample.timestamp();
+                    if (due.isEmpty()) {
+                        due = new ArrayList<>(1);
+                    }
+                    due.add(toCheckpoint(deviceId, integrator));
+                }
+            }
+            return due;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bms.service;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination token: the (timestamp, id) of the last row of a page.
+ * 클라이언트는 내용을 해석하지 않고 다음 요청에 그대로 넘긴다.
+ */
+public final class HistoryCursor {
+
+    private static final int VERSION = 1;
+    private static final int LENGTH = 1 + 8 + 4 + 8;
+
+    private final LocalDateTime timestamp;
+    private final long id;
+
+    public HistoryCursor(LocalDateTime timestamp, long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH);
+        buffer.put((byte) VERSION);
+        // 초 + 나노초로 저장해서 DB의 마이크로초 정밀도 timestamp를 잃지 않는다 (UTC는 인코딩용일 뿐)
+        buffer.putLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(timestamp.getNano());
+        buffer.putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @throws IllegalArgumentException when the token was not produced by {@link #encode()}
+     */
+    public static HistoryCursor decode(String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid history cursor", e);
+        }
+        if (bytes.length != LENGTH || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Invalid history cursor");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, LENGTH - 1);
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        return new HistoryCursor(timestamp, buffer.getLong());
+    }
+}
@@ -0,0 +1,132 @@
+package com.bms.service;
+
+import com.bms.dto.BmsStatusDto;
+import com.bms.telemetry.BinaryStatusCodec;
+import com.bms.telemetry.SampleRecordCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * Latest broadcast status per device, published by the ingest path and read without locks or DB queries.
+ *
+ * 스냅샷은 WebSocket으로 보낸 DTO와 그 JSON 직렬화 결과를 함께 담는 불변 객체이며, 게시 후에는 수정하지 않는다.
+ */
+@Component
+public class LatestStatusCache {
+
+    private final ObjectWriter statusWriter;
+    private final Map<String, Snapshot> byDevice = new ConcurrentHashMap<>();
+    private final AtomicReference<Snapshot> latest = new AtomicReference<>();
+
+    public LatestStatusCache(ObjectMapper objectMapper) {
+        this.statusWriter = objectMapper.writerFor(BmsStatusDto.class);
+    }
+
+    /**
+     * Publishes the status that is about to be broadcast. The DTO must not be modified afterwards.
+     */
+    public Snapshot publish(BmsStatusDto status) throws JsonProcessingException {
+        Snapshot snapshot = new Snapshot(status, statusWriter.writeValueAsBytes(status));
+        byDevice.put(deviceKey(status.getDeviceId()), snapshot);
+        latest.set(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Seeds the cache from storage (e.g. after a restart) without overwriting anything ingested meanwhile.
+     */
+    public Snapshot seedIfEmpty(BmsStatusDto status) throws JsonProcessingException {
+        Snapshot snapshot = new Snapshot(status, statusWriter.writeValueAsBytes(status));
+        if (latest.compareAndSet(null, snapshot)) {
+            byDevice.putIfAbsent(deviceKey(status.getDeviceId()), snapshot);
+            return snapshot;
+        }
+        return latest.get();
+    }
+
+    /**
+     * Newest snapshot of any device, or null before the first sample.
+     */
+    public Snapshot getLatest() {
+        return latest.get();
+    }
+
+    public Snapshot getLatest(String deviceId) {
+        return byDevice.get(deviceKey(deviceId));
+    }
+
+    /**
+     * Visits the newest snapshot of every device. Snapshot identity changes only when a new sample is published.
+     */
+    public void forEachDevice(BiConsumer<String, Snapshot> visitor) {
+        byDevice.forEach(visitor);
+    }
+
+    private static String deviceKey(String deviceId) {
+        return deviceId != null ? deviceId : MqttTopicRouter.DEFAULT_DEVICE_ID;
+    }
+
+    public static final class Snapshot {
+        // binary 형식으로 인코딩할 수 없는 스냅샷 표시 (한 번만 시도한다)
+        private static final byte[] NOT_ENCODABLE = new byte[0];
+
+        private final BmsStatusDto status;
+        private final byte[] json;
+        private volatile byte[] binary;
+
+        private Snapshot(BmsStatusDto status, byte[] json) {
+            this.status = status;
+            this.json = json;
+        }
+
+        public BmsStatusDto getStatus() {
+            return status;
+        }
+
+        /**
+         * Pre-serialized JSON body; shared, do not modify.
+         */
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * {@link BinaryStatusCodec} encoding, built on first use (only when a binary subscriber exists) and shared.
+         * Returns null when the status does not fit the binary format (more than 255 cells); callers send the JSON.
+         */
+        public byte[] getBinary() {
+            byte[] encoded = binary;
+            if (encoded == null) {
+                // 동시에 여러 스레드가 만들어도 결과가 같으므로 잠그지 않는다
+                try {
+                    encoded = BinaryStatusCodec.encode(status, epochMillis(status.getTimestamp()));
+                } catch (IllegalArgumentException e) {
+                    encoded = NOT_ENCODABLE;
+                }
+                binary = encoded;
+            }
+            return encoded != NOT_ENCODABLE ? encoded : null;
+        }
+
+        private static long epochMillis(String timestamp) {
+            if (timestamp == null) {
+                return 0;
+            }
+            try {
+                return SampleRecordCodec.toEpochMillis(LocalDateTime.parse(timestamp.replace("Z", "")));
+            } catch (DateTimeParseException e) {
+                // 형식을 알 수 없는 기기 타임스탬프는 binary 형식의 "없음"(0)으로 보낸다
+                return 0;
+            }
+        }
+    }
+}
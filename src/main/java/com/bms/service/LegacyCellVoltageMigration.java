@@ -0,0 +1,106 @@
+package com.bms.service;
+
+import com.bms.model.CellVoltagesConverter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-time migration from the old cell_voltages element-collection table into the packed bms_data.cell_voltages column.
+ * 영속 DB(ddl-auto: update)에서 기존 테이블이 남아 있는 경우에만 동작하며, 이관 후 기존 테이블을 삭제한다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LegacyCellVoltageMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${bms.storage.migrate-legacy-cell-voltages:true}")
+    private boolean enabled;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || !legacyTableExists()) {
+            return;
+        }
+
+        log.info("Migrating legacy cell_voltages rows into packed bms_data.cell_voltages column");
+        CellVoltagesConverter converter = new CellVoltagesConverter();
+        Migrator migrator = new Migrator(converter);
+
+        // 기존 컬렉션 테이블에는 순서 컬럼이 없으므로 H2 insert 순서(_ROWID_)로 셀 순서를 복원
+        jdbcTemplate.query("SELECT bms_data_id, voltage FROM cell_voltages ORDER BY bms_data_id, _ROWID_", migrator);
+        migrator.finish();
+
+        jdbcTemplate.execute("DROP TABLE cell_voltages");
+        log.info("Legacy cell_voltages migration complete: {} samples migrated", migrator.migrated);
+    }
+
+    private boolean legacyTableExists() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) = 'CELL_VOLTAGES'",
+                Integer.class);
+        return count != null && count > 0;
+    }
+
+    private final class Migrator implements RowCallbackHandler {
+        private final CellVoltagesConverter converter;
+        private final List<Object[]> pending = new ArrayList<>(BATCH_SIZE);
+        private final List<Double> voltages = new ArrayList<>();
+        private long currentId = -1;
+        private long migrated;
+
+        Migrator(CellVoltagesConverter converter) {
+            this.converter = converter;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong(1);
+            if (id != currentId) {
+                emit();
+                currentId = id;
+            }
+            voltages.add(rs.getDouble(2));
+        }
+
+        void finish() {
+            emit();
+            flush();
+        }
+
+        private void emit() {
+            if (currentId < 0 || voltages.isEmpty()) {
+                return;
+            }
+            double[] values = voltages.stream().mapToDouble(Double::doubleValue).toArray();
+            pending.add(new Object[] {converter.convertToDatabaseColumn(values), currentId});
+            voltages.clear();
+            migrated++;
+            if (pending.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate("UPDATE bms_data SET cell_voltages = ? WHERE id = ? AND cell_voltages IS NULL", pending);
+            pending.clear();
+        }
+    }
+}
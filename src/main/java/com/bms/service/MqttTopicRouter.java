@@ -0,0 +1,109 @@
+package com.bms.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.integration.annotation.Router;
+import org.springframework.integration.mqtt.support.MqttHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes inbound MQTT messages to per-topic-class channels using an exact-match table.
+ * 상태(status), 명령 에코(control/settings/delay/electronic load), FET 상태를 서로 다른 채널로 분리한다.
+ * 기기별 토픽은 "{base}/{deviceId}" 형태이며 base 토픽으로 라우팅된다.
+ */
+@Component
+@Slf4j
+public class MqttTopicRouter {
+
+    public static final String STATUS_CHANNEL = "mqttStatusChannel";
+    public static final String COMMAND_CHANNEL = "mqttCommandChannel";
+    public static final String FET_STATUS_CHANNEL = "mqttFetStatusChannel";
+    public static final String DEFAULT_DEVICE_ID = "default";
+
+    @Value("${mqtt.topics.bms-status}")
+    private String bmsStatusTopic;
+
+    @Value("${mqtt.topics.bms-control}")
+    private String bmsControlTopic;
+
+    @Value("${mqtt.topics.bms-settings}")
+    private String bmsSettingsTopic;
+
+    @Value("${mqtt.topics.bms-delay-settings}")
+    private String bmsDelaySettingsTopic;
+
+    @Value("${mqtt.topics.bms-fet-status}")
+    private String bmsFetStatusTopic;
+
+    @Value("${mqtt.topics.electronic-load-control}")
+    private String electronicLoadControlTopic;
+
+    private final Map<String, String> routes = new HashMap<>();
+
+    @PostConstruct
+    void buildRoutes() {
+        routes.put(bmsStatusTopic, STATUS_CHANNEL);
+        routes.put(bmsControlTopic, COMMAND_CHANNEL);
+        routes.put(bmsSettingsTopic, COMMAND_CHANNEL);
+        routes.put(bmsDelaySettingsTopic, COMMAND_CHANNEL);
+        routes.put(electronicLoadControlTopic, COMMAND_CHANNEL);
+        routes.put(bmsFetStatusTopic, FET_STATUS_CHANNEL);
+        log.info("MQTT routing table: {}", routes);
+    }
+
+    @Router(inputChannel = "mqttInputChannel")
+    public String route(Message<?> message) {
+        String topic = receivedTopic(message);
+        String channel = routes.get(topic);
+        if (channel == null) {
+            // 기기별 하위 토픽: 마지막 세그먼트를 떼고 base 토픽으로 다시 조회
+            channel = routes.get(baseTopic(topic));
+        }
+        if (channel == null) {
+            log.warn("No route for MQTT topic: {}", topic);
+            return "nullChannel";
+        }
+        return channel;
+    }
+
+    /**
+     * Base topic used for routing, i.e. the topic without a trailing device segment.
+     */
+    public String resolveBaseTopic(String topic) {
+        return routes.containsKey(topic) ? topic : baseTopic(topic);
+    }
+
+    public static String receivedTopic(Message<?> message) {
+        Object topic = message.getHeaders().get(MqttHeaders.RECEIVED_TOPIC);
+        return topic != null ? topic.toString() : "";
+    }
+
+    /**
+     * Device id carried in the topic suffix, or {@link #DEFAULT_DEVICE_ID} for the plain topic. Used as the
+     * partition key for per-device ordering, so it never looks at the payload.
+     * plain 토픽으로 들어오는 메시지는 payload 의 device_id 와 관계없이 모두 한 파티션을 공유한다 (순서는 지켜지지만
+     * 병렬 처리되지 않음). 기기별로 나누어 처리하려면 기기가 "{base}/{deviceId}" 토픽으로 발행해야 한다.
+     */
+    public String deviceIdOf(Message<?> message) {
+        String topic = receivedTopic(message);
+        // "bms/status" → default, "bms/status/pack-01" → pack-01
+        if (routes.containsKey(topic)) {
+            return DEFAULT_DEVICE_ID;
+        }
+        int lastSlash = topic.lastIndexOf('/');
+        if (lastSlash > 0 && lastSlash < topic.length() - 1) {
+            return topic.substring(lastSlash + 1);
+        }
+        return DEFAULT_DEVICE_ID;
+    }
+
+    private static String baseTopic(String topic) {
+        int lastSlash = topic.lastIndexOf('/');
+        return lastSlash > 0 ? topic.substring(0, lastSlash) : topic;
+    }
+}
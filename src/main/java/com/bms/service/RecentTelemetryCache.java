@@ -0,0 +1,118 @@
+package com.bms.service;
+
+import com.bms.model.BmsData;
+import com.bms.telemetry.OffHeapSampleRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recent window of persisted samples per device in off-heap rings, answering short history and
+ * temperature-history queries without the database.
+ *
+ * 저장에 성공한 배치만 기록하므로 DB와 같은 내용을 본다. 요청 구간이 링이 보장하는 구간 밖이면 null을 반환하고
+ * 호출자는 저장소로 조회한다. 기동 이전 데이터는 링에 없으므로 보장 구간은 기동 시각 이후부터다.
+ */
+@Component
+public class RecentTelemetryCache {
+
+    private static final Comparator<BmsData> NEWEST_FIRST = Comparator.comparing(BmsData::getTimestamp)
+            .thenComparing(BmsData::getId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .reversed();
+
+    private final boolean enabled;
+    private final int windowSamples;
+    private final int maxCells;
+    private final long startedKey = OffHeapSampleRing.key(LocalDateTime.now());
+    private final Map<String, OffHeapSampleRing> rings = new ConcurrentHashMap<>();
+
+    public RecentTelemetryCache(@Value("${bms.telemetry.recent.enabled:true}") boolean enabled,
+                                @Value("${bms.telemetry.recent.window-samples:3600}") int windowSamples,
+                                @Value("${bms.telemetry.recent.max-cells:32}") int maxCells) {
+        this.enabled = enabled;
+        this.windowSamples = Math.max(1, windowSamples);
+        this.maxCells = maxCells;
+    }
+
+    /**
+     * Called by the write-behind thread after a batch was persisted.
+     */
+    public void record(List<BmsData> persisted) {
+        if (!enabled) {
+            return;
+        }
+        for (BmsData data : persisted) {
+            String key = data.getDeviceId() != null ? data.getDeviceId() : MqttTopicRouter.DEFAULT_DEVICE_ID;
+            rings.computeIfAbsent(key, id -> new OffHeapSampleRing(data.getDeviceId(), windowSamples, maxCells))
+                    .append(data);
+        }
+    }
+
+    /**
+     * Samples in [start, end] newest first, or null when the range reaches outside the cached window.
+     */
+    public List<BmsData> findBetweenNewestFirst(LocalDateTime start, LocalDateTime end) {
+        long from = OffHeapSampleRing.key(start);
+        if (!enabled || from < coveredFrom()) {
+            return null;
+        }
+        long to = OffHeapSampleRing.key(end);
+        List<BmsData> result = new ArrayList<>();
+        for (OffHeapSampleRing ring : rings.values()) {
+            ring.forEachBetween(from, to, result::add);
+        }
+        result.sort(NEWEST_FIRST);
+        return result;
+    }
+
+    /**
+     * Newest {@code limit} samples across devices, or null when the window cannot prove they are the newest.
+     */
+    public List<BmsData> findNewest(int limit) {
+        if (!enabled || limit <= 0) {
+            return null;
+        }
+        PriorityQueue<BmsData> top = new PriorityQueue<>(limit + 1, NEWEST_FIRST.reversed());
+        for (OffHeapSampleRing ring : rings.values()) {
+            ring.forEachNewest(limit, sample -> {
+                top.add(sample);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            });
+        }
+        // N개가 모두 보장 구간 안에 있어야 그보다 새로운 샘플이 링 밖에 없다고 할 수 있다
+        if (top.size() < limit || OffHeapSampleRing.key(top.peek().getTimestamp()) < coveredFrom()) {
+            return null;
+        }
+        List<BmsData> result = new ArrayList<>(top);
+        result.sort(NEWEST_FIRST);
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("devices", rings.size());
+        stats.put("samples", rings.values().stream().mapToInt(OffHeapSampleRing::size).sum());
+        stats.put("offHeapBytes", rings.values().stream().mapToLong(OffHeapSampleRing::offHeapBytes).sum());
+        stats.put("coveredFrom", OffHeapSampleRing.fromKey(coveredFrom()).toString());
+        return stats;
+    }
+
+    private long coveredFrom() {
+        long covered = startedKey;
+        for (OffHeapSampleRing ring : rings.values()) {
+            covered = Math.max(covered, ring.coveredFrom());
+        }
+        return covered;
+    }
+}
@@ -0,0 +1,157 @@
+package com.bms.service;
+
+import com.bms.dto.BmsStatusDeltaDto;
+import com.bms.dto.BmsStatusDto;
+import com.bms.telemetry.StatusDeltaEncoder;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket broadcasts of ingested status samples: the full DTO on /topic/bms-status and keyframes/deltas on
+ * /topic/bms-status-delta.
+ *
+ * delta 토픽은 구독 시점과 keyframe 주기마다 전체 상태를, 그 사이에는 epsilon 이상 바뀐 항목만 보낸다.
+ * 새 구독이 들어오면 keyframe 세대를 올려 각 기기의 다음 샘플을 keyframe 으로 보낸다 (구독 스레드에서 인코더를 건드리지 않음).
+ * 세대는 inbound 채널 인터셉터(WebSocketConfig)에서 브로커가 SUBSCRIBE 를 처리한 뒤에 올린다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatusBroadcaster implements ExecutorChannelInterceptor {
+
+    public static final String STATUS_TOPIC = "/topic/bms-status";
+    public static final String DELTA_TOPIC = "/topic/bms-status-delta";
+
+    private final BroadcastPublisher broadcastPublisher;
+    private final BinaryFrameNegotiator binaryFrameNegotiator;
+
+    @Value("${bms.broadcast.full-enabled:true}")
+    private boolean fullEnabled;
+
+    @Value("${bms.broadcast.delta.enabled:true}")
+    private boolean deltaEnabled;
+
+    @Value("${bms.broadcast.delta.keyframe-interval-seconds:10}")
+    private long keyframeIntervalSeconds;
+
+    @Value("${bms.broadcast.delta.field-epsilon:0.01,0.05,0.1,0.5}")
+    private double[] fieldEpsilon;
+
+    @Value("${bms.broadcast.delta.cell-epsilon:0.002}")
+    private double cellEpsilon;
+
+    private final Map<String, StatusDeltaEncoder> encoders = new ConcurrentHashMap<>();
+    private final AtomicLong keyframeEpoch = new AtomicLong();
+    private final LongAdder fullSent = new LongAdder();
+    private final LongAdder binarySent = new LongAdder();
+    private final LongAdder binaryFallbacks = new LongAdder();
+    private final LongAdder keyframesSent = new LongAdder();
+    private final LongAdder deltasSent = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+
+    private StatusDeltaEncoder.Settings settings;
+
+    @PostConstruct
+    void init() {
+        if (fieldEpsilon.length != 4) {
+            throw new IllegalStateException(
+                    "bms.broadcast.delta.field-epsilon needs 4 values (total voltage, current, temperature, capacity)");
+        }
+        settings = new StatusDeltaEncoder.Settings(fieldEpsilon, cellEpsilon,
+                TimeUnit.SECONDS.toMillis(keyframeIntervalSeconds));
+    }
+
+    /**
+     * Broadcasts one ingested sample. 같은 기기는 항상 같은 수집 워커에서 호출된다.
+     */
+    public void broadcast(LatestStatusCache.Snapshot snapshot) {
+        BmsStatusDto status = snapshot.getStatus();
+        if (fullEnabled) {
+            // 스냅샷을 만들 때 직렬화한 JSON 을 그대로 보낸다
+            broadcastPublisher.publishJson(STATUS_TOPIC, snapshot.getJson());
+            fullSent.increment();
+            if (binaryFrameNegotiator.hasBinarySubscribers(STATUS_TOPIC)) {
+                // binary 구독자가 있을 때만 인코딩 (스냅샷에 캐시되어 conflation 세션과 공유)
+                String destination = BinaryFrameNegotiator.binaryDestination(STATUS_TOPIC);
+                byte[] binary = snapshot.getBinary();
+                if (binary != null) {
+                    broadcastPublisher.publishBinary(destination, binary, status.getDeviceId());
+                    binarySent.increment();
+                } else {
+                    // binary 형식에 담을 수 없는 샘플(셀 255개 초과)은 같은 토픽에 JSON 으로 보낸다 (content-type 으로 구분)
+                    broadcastPublisher.publishJson(destination, snapshot.getJson());
+                    binaryFallbacks.increment();
+                }
+            }
+        }
+        if (!deltaEnabled) {
+            return;
+        }
+        String deviceId = status.getDeviceId() != null ? status.getDeviceId() : MqttTopicRouter.DEFAULT_DEVICE_ID;
+        StatusDeltaEncoder encoder = encoders.get(deviceId);
+        if (encoder == null) {
+            // 처음 보는 기기에서만 람다를 만든다 (settings 를 캡처하므로 호출마다 할당됨)
+            encoder = encoders.computeIfAbsent(deviceId, id -> new StatusDeltaEncoder(settings));
+        }
+        BmsStatusDeltaDto message;
+        synchronized (encoder) {
+            message = encoder.encode(status, System.currentTimeMillis(), keyframeEpoch.get());
+        }
+        if (message == null) {
+            // epsilon 이상 바뀐 값이 없으면 보내지 않는다 (seq 도 그대로)
+            unchanged.increment();
+            return;
+        }
+        broadcastPublisher.publish(DELTA_TOPIC, message);
+        (message.isKeyframe() ? keyframesSent : deltasSent).increment();
+    }
+
+    /**
+     * Requests keyframes once the broker has registered a new delta subscription.
+     *
+     * SessionSubscribeEvent 는 구독 등록 전에 발행되어, 그 사이 나간 keyframe 을 새 구독자가 놓칠 수 있다.
+     * /topic 구독은 inbound 채널에서 simple broker 가 직접 등록하므로 그 핸들러의 처리가 끝난 뒤에 세대를 올린다.
+     */
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (ex == null && handler instanceof AbstractBrokerMessageHandler
+                && SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.SUBSCRIBE
+                && DELTA_TOPIC.equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+            // 다음 샘플부터 기기마다 keyframe 한 번씩 (기존 구독자에게는 중복 keyframe 일 뿐이다)
+            keyframeEpoch.incrementAndGet();
+            log.debug("New {} subscription, keyframes requested", DELTA_TOPIC);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("fullEnabled", fullEnabled);
+        stats.put("deltaEnabled", deltaEnabled);
+        stats.put("devices", encoders.size());
+        stats.put("fullSent", fullSent.sum());
+        stats.put("binarySent", binarySent.sum());
+        stats.put("binaryFallbacks", binaryFallbacks.sum());
+        stats.put("binarySubscriptions", binaryFrameNegotiator.getStats());
+        stats.put("keyframesSent", keyframesSent.sum());
+        stats.put("deltasSent", deltasSent.sum());
+        stats.put("unchanged", unchanged.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,221 @@
+package com.bms.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control in front of bms/status processing.
+ * MQTT 콜백 스레드는 bounded 큐에 넣기만 하고, 큐가 넘치면 설정된 정책에 따라 샘플을 버린다.
+ * 기기 ID 기준으로 stripe를 나누므로 같은 기기의 샘플은 항상 같은 워커에서 순서대로 처리된다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TelemetryAdmissionQueue {
+
+    public static final String OUTPUT_CHANNEL = "statusIngestChannel";
+
+    public enum Policy {
+        /**
+         * 기기별로 가장 최신 샘플 하나만 대기 (큐가 차면 가장 오래된 샘플 제거).
+         * 교체된 샘플은 저장, 롤업, 에너지 적산에도 반영되지 않으므로 대시보드 전용 배포에서만 쓴다.
+         */
+        COALESCE,
+        /** 큐가 차면 가장 오래된 샘플 제거 */
+        DROP_OLDEST,
+        /** 큐가 차면 새로 들어온 샘플 거부 (기본값: 과부하가 아니면 모든 샘플이 저장된다) */
+        DROP_NEWEST
+    }
+
+    private final MessageChannel statusIngestChannel;
+    private final MqttTopicRouter mqttTopicRouter;
+
+    @Value("${bms.ingest.admission.policy:DROP_NEWEST}")
+    private Policy policy;
+
+    @Value("${bms.ingest.admission.capacity:4096}")
+    private int capacity;
+
+    @Value("${mqtt.dispatch.status.threads:4}")
+    private int workers;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder shedOldest = new LongAdder();
+    private final LongAdder shedNewest = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private Stripe[] stripes;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        running = true;
+        stripes = new Stripe[workers];
+        int perStripe = Math.max(1, capacity / workers);
+        for (int i = 0; i < workers; i++) {
+            stripes[i] = new Stripe(perStripe);
+            Thread thread = new Thread(stripes[i], "bms-status-worker-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        log.info("Telemetry admission started (policy={}, capacity={}, workers={})", policy, capacity, workers);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        for (Stripe stripe : stripes) {
+            stripe.wakeUp();
+        }
+    }
+
+    @ServiceActivator(inputChannel = MqttTopicRouter.STATUS_CHANNEL)
+    public void admit(Message<?> message) {
+        String deviceId = mqttTopicRouter.deviceIdOf(message);
+        stripes[Math.floorMod(deviceId.hashCode(), stripes.length)].offer(deviceId, message);
+    }
+
+    public Map<String, Object> getStats() {
+        int depth = 0;
+        for (Stripe stripe : stripes) {
+            depth += stripe.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("policy", policy.name());
+        stats.put("capacity", capacity);
+        stats.put("queueDepth", depth);
+        stats.put("admitted", admitted.sum());
+        stats.put("processed", processed.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("shedOldest", shedOldest.sum());
+        stats.put("shedNewest", shedNewest.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    private static final class Slot {
+        final String deviceId;
+        Message<?> message;
+
+        Slot(String deviceId, Message<?> message) {
+            this.deviceId = deviceId;
+            this.message = message;
+        }
+    }
+
+    private final class Stripe implements Runnable {
+
+        private final int stripeCapacity;
+        private final ArrayDeque<Slot> queue;
+        // COALESCE 정책에서 기기별 대기 중인 슬롯
+        private final Map<String, Slot> pendingByDevice = new HashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+
+        Stripe(int stripeCapacity) {
+            this.stripeCapacity = stripeCapacity;
+            this.queue = new ArrayDeque<>(stripeCapacity);
+        }
+
+        void offer(String deviceId, Message<?> message) {
+            lock.lock();
+            try {
+                if (policy == Policy.COALESCE) {
+                    Slot pending = pendingByDevice.get(deviceId);
+                    if (pending != null) {
+                        // 아직 처리되지 않은 같은 기기 샘플을 최신 값으로 교체
+                        pending.message = message;
+                        coalesced.increment();
+                        return;
+                    }
+                }
+                if (queue.size() >= stripeCapacity) {
+                    if (policy == Policy.DROP_NEWEST) {
+                        shedNewest.increment();
+                        return;
+                    }
+                    Slot oldest = queue.poll();
+                    pendingByDevice.remove(oldest.deviceId, oldest);
+                    shedOldest.increment();
+                }
+                Slot slot = new Slot(deviceId, message);
+                queue.add(slot);
+                if (policy == Policy.COALESCE) {
+                    pendingByDevice.put(deviceId, slot);
+                }
+                admitted.increment();
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void wakeUp() {
+            lock.lock();
+            try {
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                Message<?> message;
+                lock.lock();
+                try {
+                    while (queue.isEmpty() && running) {
+                        notEmpty.await(1, TimeUnit.SECONDS);
+                    }
+                    Slot slot = queue.poll();
+                    if (slot == null) {
+                        continue;
+                    }
+                    pendingByDevice.remove(slot.deviceId, slot);
+                    message = slot.message;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+
+                try {
+                    statusIngestChannel.send(message);
+                    processed.increment();
+                } catch (Exception e) {
+                    failed.increment();
+                    log.error("Error processing admitted BMS status message", e);
+                }
+            }
+        }
+    }
+}
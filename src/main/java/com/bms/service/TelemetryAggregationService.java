@@ -0,0 +1,138 @@
+package com.bms.service;
+
+import com.bms.dto.AggregateBucketDto;
+import com.bms.repository.TelemetryStore;
+import com.bms.telemetry.AggregateState;
+import com.bms.telemetry.MetricSeries;
+import com.bms.telemetry.SampleRecordCodec;
+import com.bms.telemetry.TelemetryMetric;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Windowed aggregates (count/sum/min/max/mean/stddev/percentiles) of one metric, computed in parallel.
+ *
+ * 요청 구간을 시간 파티션으로 나누어 각 파티션을 별도 스레드에서 projection 조회 후 버킷별 부분 상태로 집계하고,
+ * 부분 상태(스케치 포함)를 병합한다. 파티션 경계는 버킷 경계와 무관하므로 한 버킷이 여러 파티션에 걸쳐도 된다.
+ */
+@Service
+@Slf4j
+public class TelemetryAggregationService {
+
+    private final TelemetryStore telemetryStore;
+    private final ForkJoinPool pool;
+    private final int partitionsPerThread;
+    private final double relativeAccuracy;
+    private final long maxBuckets;
+
+    public TelemetryAggregationService(TelemetryStore telemetryStore,
+                                       @Value("${bms.aggregate.parallelism:0}") int parallelism,
+                                       @Value("${bms.aggregate.partitions-per-thread:4}") int partitionsPerThread,
+                                       @Value("${bms.aggregate.relative-accuracy:0.01}") double relativeAccuracy,
+                                       @Value("${bms.aggregate.max-buckets:10000}") long maxBuckets) {
+        this.telemetryStore = telemetryStore;
+        // 파티션마다 DB 커넥션을 하나씩 쓰므로 공용 풀 대신 전용 풀로 동시 조회 수를 제한한다
+        int threads = parallelism > 0 ? parallelism : Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        this.pool = new ForkJoinPool(threads);
+        this.partitionsPerThread = Math.max(1, partitionsPerThread);
+        this.relativeAccuracy = relativeAccuracy;
+        this.maxBuckets = maxBuckets;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * @throws IllegalArgumentException for an unknown metric or function, a non-positive bucket size, an end before
+     *         the start, or more than {@code bms.aggregate.max-buckets} buckets
+     */
+    public List<AggregateBucketDto> aggregate(String metricName, int cell, LocalDateTime start, LocalDateTime end,
+                                              long bucketSeconds, List<String> functions)
+            throws InterruptedException, ExecutionException {
+        TelemetryMetric metric = TelemetryMetric.fromName(metricName);
+        if (bucketSeconds <= 0) {
+            throw new IllegalArgumentException("bucketSeconds must be positive");
+        }
+        functions.forEach(AggregateState::checkFunction);
+
+        long from = SampleRecordCodec.toEpochMillis(start);
+        long to = SampleRecordCodec.toEpochMillis(end);
+        if (to < from) {
+            throw new IllegalArgumentException("end must not be before start");
+        }
+        long bucketMillis = bucketSeconds * 1000L;
+        // 버킷마다 스케치를 가지므로 긴 구간을 작은 버킷으로 요청하면 메모리가 버킷 수에 비례해 커진다
+        long buckets = (to - from) / bucketMillis + 1;
+        if (buckets > maxBuckets) {
+            throw new IllegalArgumentException("Request spans " + buckets + " buckets, more than the maximum of "
+                    + maxBuckets + "; use a larger bucketSeconds or a shorter range");
+        }
+        int partitions = (int) Math.max(1, Math.min((long) pool.getParallelism() * partitionsPerThread, (to - from) / 1000 + 1));
+        long span = (to - from) / partitions + 1;
+
+        long started = System.nanoTime();
+        TreeMap<Long, AggregateState> merged = pool.submit(() -> IntStream.range(0, partitions).parallel()
+                .mapToObj(p -> aggregatePartition(metric, cell, from + p * span, Math.min(to, from + (p + 1) * span - 1),
+                        to, end, from, bucketMillis))
+                .reduce(TelemetryAggregationService::mergeInto)
+                .orElseGet(TreeMap::new)).get();
+        log.debug("Aggregated {} {} buckets over {} partitions in {} ms", merged.size(), metric, partitions,
+                (System.nanoTime() - started) / 1_000_000);
+
+        List<AggregateBucketDto> result = new ArrayList<>(merged.size());
+        merged.forEach((bucketStart, state) -> {
+            Map<String, Double> values = new LinkedHashMap<>();
+            for (String function : functions) {
+                double value = state.get(function);
+                values.put(function, Double.isNaN(value) ? null : value);
+            }
+            result.add(new AggregateBucketDto(
+                    SampleRecordCodec.fromEpochMillis(bucketStart).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                    state.count(), values));
+        });
+        return result;
+    }
+
+    private TreeMap<Long, AggregateState> aggregatePartition(TelemetryMetric metric, int cell, long partitionFrom,
+                                                             long partitionTo, long to, LocalDateTime end,
+                                                             long origin, long bucketMillis) {
+        TreeMap<Long, AggregateState> buckets = new TreeMap<>();
+        if (partitionFrom > partitionTo) {
+            return buckets;
+        }
+        // 경계가 겹치지 않도록 안쪽 파티션 끝은 다음 파티션 시작 직전 ms 까지 포함하고, 마지막 파티션은 요청한 end 까지만
+        LocalDateTime partitionEnd = partitionTo >= to
+                ? end : SampleRecordCodec.fromEpochMillis(partitionTo).plusNanos(999_999);
+        MetricSeries series = telemetryStore.findMetricSeries(metric, cell,
+                SampleRecordCodec.fromEpochMillis(partitionFrom), partitionEnd, 0);
+        long[] timestamps = series.timestamps();
+        double[] values = series.values();
+        for (int i = 0; i < series.size(); i++) {
+            long bucket = origin + Math.floorDiv(timestamps[i] - origin, bucketMillis) * bucketMillis;
+            buckets.computeIfAbsent(bucket, b -> new AggregateState(relativeAccuracy)).add(values[i]);
+        }
+        return buckets;
+    }
+
+    private static TreeMap<Long, AggregateState> mergeInto(TreeMap<Long, AggregateState> left,
+                                                           TreeMap<Long, AggregateState> right) {
+        // 파티션 결과는 한 번만 병합되므로 왼쪽 맵과 상태를 그대로 재사용한다
+        right.forEach((bucket, state) -> left.merge(bucket, state, AggregateState::merge));
+        return left;
+    }
+}
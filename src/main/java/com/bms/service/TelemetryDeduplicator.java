@@ -0,0 +1,123 @@
+package com.bms.service;
+
+import com.bms.dto.BmsStatusDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Suppresses QoS 1 redeliveries of bms/status samples.
+ * 기기별로 최근 N개 샘플 키(seq 또는 timestamp)를 고정 크기 ring에 보관하고, 같은 키가 다시 오면 중복으로 판단한다.
+ * DB 조회 없이 메모리 상에서만 확인한다.
+ */
+@Service
+@Slf4j
+public class TelemetryDeduplicator {
+
+    private final int windowSize;
+    private final int maxDevices;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder unkeyed = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+    private final AtomicBoolean limitLogged = new AtomicBoolean();
+
+    public TelemetryDeduplicator(@Value("${bms.ingest.dedup.window-size:64}") int windowSize,
+                                 @Value("${bms.ingest.dedup.max-devices:10000}") int maxDevices) {
+        this.windowSize = windowSize;
+        this.maxDevices = maxDevices;
+    }
+
+    /**
+     * Returns true if this sample was already seen for the device and should be dropped.
+     * 샘플에 seq와 timestamp가 모두 없으면 판단할 수 없으므로 통과시킨다.
+     */
+    public boolean isDuplicate(String deviceId, BmsStatusDto statusDto) {
+        long key;
+        if (statusDto.getSequence() != null) {
+            key = statusDto.getSequence();
+        } else if (statusDto.getTimestamp() != null) {
+            key = hash(statusDto.getTimestamp());
+        } else {
+            unkeyed.increment();
+            return false;
+        }
+
+        Window window = windows.get(deviceId);
+        if (window == null) {
+            if (windows.size() >= maxDevices) {
+                // 한도에 걸린 뒤에는 샘플마다 경고가 찍히므로 한 번만 남기고 나머지는 세기만 한다
+                untracked.increment();
+                if (limitLogged.compareAndSet(false, true)) {
+                    log.warn("Dedup window limit reached ({} devices), not tracking device {} and further new devices "
+                            + "(see untracked in stats)", maxDevices, deviceId);
+                }
+                return false;
+            }
+            window = windows.computeIfAbsent(deviceId, id -> new Window(windowSize));
+        }
+
+        checked.increment();
+        if (window.seenOrAdd(key)) {
+            duplicates.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("windowSize", windowSize);
+        stats.put("trackedDevices", windows.size());
+        stats.put("checked", checked.sum());
+        stats.put("duplicates", duplicates.sum());
+        stats.put("unkeyed", unkeyed.sum());
+        stats.put("untracked", untracked.sum());
+        return stats;
+    }
+
+    // FNV-1a 64bit: timestamp 문자열을 할당 없이 long 키로 변환
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * Fixed-size ring of recent keys. 크기가 작아서 선형 탐색이 해시 조회보다 빠르다.
+     */
+    private static final class Window {
+        private final long[] keys;
+        private int next;
+        private int size;
+
+        Window(int capacity) {
+            this.keys = new long[capacity];
+        }
+
+        synchronized boolean seenOrAdd(long key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    return true;
+                }
+            }
+            keys[next] = key;
+            next = (next + 1) % keys.length;
+            if (size < keys.length) {
+                size++;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.bms.service;
+
+import com.bms.dto.BmsRollupDto;
+import com.bms.dto.CellImbalanceDto;
+import com.bms.model.BmsData;
+import com.bms.telemetry.CellStats;
+import com.bms.telemetry.CellStatsKernel;
+import com.bms.telemetry.RollupBucket;
+import com.bms.telemetry.RollupTier;
+import com.bms.telemetry.SampleRecordCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory 1s / 1m / 1h rollups (min/max/avg/last per field and per cell), updated on ingest.
+ * 긴 구간 차트는 원본 행 대신 요청 해상도를 만족하는 가장 거친 단계에서 읽는다.
+ * 샘플별 셀 불균형(max-min, 표준편차)도 수집 시 한 번 계산해 같은 버킷에 누적한다.
+ */
+@Service
+@Slf4j
+public class TelemetryRollupService {
+
+    private final List<RollupTier> tiers;
+    private final CellStatsKernel cellStatsKernel;
+
+    public TelemetryRollupService(@Value("${bms.rollup.second-buckets:3600}") int secondBuckets,
+                                  @Value("${bms.rollup.minute-buckets:10080}") int minuteBuckets,
+                                  @Value("${bms.rollup.hour-buckets:8760}") int hourBuckets,
+                                  @Value("${bms.cells.vector-kernel:false}") boolean vectorKernel) {
+        this.cellStatsKernel = CellStatsKernel.select(vectorKernel);
+        log.info("Cell statistics kernel: {}", cellStatsKernel.name());
+        // 해상도가 거친 순서로 둔다
+        this.tiers = List.of(
+                new RollupTier("1h", 3_600_000L, hourBuckets),
+                new RollupTier("1m", 60_000L, minuteBuckets),
+                new RollupTier("1s", 1_000L, secondBuckets));
+    }
+
+    public void record(BmsData data) {
+        long timestamp = SampleRecordCodec.toEpochMillis(data.getTimestamp());
+        CellStats cellStats = cellStatsKernel.compute(data.getCellVoltages());
+        double[] fields = {
+                orNaN(data.getTotalVoltage()),
+                orNaN(data.getCurrent()),
+                orNaN(data.getTemperature()),
+                orNaN(data.getRemainingCapacity()),
+                cellStats.spread(),
+                cellStats.stddev()
+        };
+        String deviceId = data.getDeviceId() != null ? data.getDeviceId() : MqttTopicRouter.DEFAULT_DEVICE_ID;
+        for (RollupTier tier : tiers) {
+            tier.add(deviceId, timestamp, fields, data.getCellVoltages());
+        }
+    }
+
+    /**
+     * Buckets of {@code resolutionSeconds} between start and end, oldest first. start 까지 보존하는 단계 중
+     * 요청 해상도 이하인 가장 거친 단계를 골라 요청 해상도로 다시 합친다. deviceId가 null이면 모든 기기를 합친다.
+     *
+     * @throws IllegalArgumentException if no tier at or below the requested resolution still holds {@code start}
+     */
+    public List<BmsRollupDto> query(LocalDateTime start, LocalDateTime end, long resolutionSeconds, String deviceId) {
+        long resolutionMillis = Math.max(1, resolutionSeconds) * 1000L;
+        long from = SampleRecordCodec.toEpochMillis(start);
+        long to = SampleRecordCodec.toEpochMillis(end);
+        RollupTier tier = selectTier(resolutionMillis, from);
+
+        TreeMap<Long, RollupBucket> buckets = new TreeMap<>();
+        tier.collect(deviceId, from, to, resolutionMillis, buckets);
+
+        List<BmsRollupDto> result = new ArrayList<>(buckets.size());
+        for (RollupBucket bucket : buckets.values()) {
+            result.add(toDto(bucket, resolutionMillis / 1000, tier.name()));
+        }
+        return result;
+    }
+
+    /**
+     * Cell imbalance per bucket: per-sample spread / stddev stats, plus the weakest and strongest cell by
+     * bucket-average voltage. 셀 평균 벡터에도 같은 커널을 적용한다. 단계 선택은 {@link #query} 와 같다.
+     *
+     * @throws IllegalArgumentException if no tier at or below the requested resolution still holds {@code start}
+     */
+    public List<CellImbalanceDto> queryCellImbalance(LocalDateTime start, LocalDateTime end, long resolutionSeconds,
+                                                     String deviceId) {
+        long resolutionMillis = Math.max(1, resolutionSeconds) * 1000L;
+        long from = SampleRecordCodec.toEpochMillis(start);
+        RollupTier tier = selectTier(resolutionMillis, from);
+        TreeMap<Long, RollupBucket> buckets = new TreeMap<>();
+        tier.collect(deviceId, from, SampleRecordCodec.toEpochMillis(end), resolutionMillis, buckets);
+
+        List<CellImbalanceDto> result = new ArrayList<>(buckets.size());
+        for (RollupBucket bucket : buckets.values()) {
+            double[] cellMeans = new double[bucket.cellCount()];
+            for (int c = 0; c < cellMeans.length; c++) {
+                cellMeans[c] = bucket.avg(RollupBucket.FIELDS + c);
+            }
+            CellStats window = cellStatsKernel.compute(cellMeans);
+            result.add(new CellImbalanceDto(
+                    SampleRecordCodec.fromEpochMillis(bucket.start()).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                    resolutionMillis / 1000, tier.name(), bucket.samples(),
+                    stats(bucket, RollupBucket.CELL_SPREAD),
+                    stats(bucket, RollupBucket.CELL_STDDEV),
+                    window.minIndex() >= 0 ? window.minIndex() : null,
+                    window.maxIndex() >= 0 ? window.maxIndex() : null,
+                    orNull(window.spread()),
+                    orNull(window.maxDeviation())));
+        }
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (RollupTier tier : tiers) {
+            stats.put(tier.name(), Map.of(
+                    "devices", tier.deviceCount(),
+                    "retentionHours", tier.retentionMillis() / 3_600_000.0));
+        }
+        stats.put("cellStatsKernel", cellStatsKernel.name());
+        return stats;
+    }
+
+    private RollupTier selectTier(long resolutionMillis, long from) {
+        // 링 버퍼는 보존 기간보다 오래된 버킷을 덮어쓰므로 start 가 남아 있는 단계만 쓸 수 있다
+        long now = System.currentTimeMillis();
+        RollupTier fallback = null;
+        for (RollupTier tier : tiers) {
+            if (tier.resolutionMillis() > resolutionMillis || from < now - tier.retentionMillis()) {
+                continue;
+            }
+            // 요청 해상도를 나누어떨어지게 하는 단계면 버킷 경계가 정확히 맞는다
+            if (resolutionMillis % tier.resolutionMillis() == 0) {
+                return tier;
+            }
+            if (fallback == null) {
+                fallback = tier;
+            }
+        }
+        if (fallback == null) {
+            throw new IllegalArgumentException("No rollup tier at " + resolutionMillis / 1000
+                    + "s or finer retains data from " + SampleRecordCodec.fromEpochMillis(from));
+        }
+        return fallback;
+    }
+
+    private static BmsRollupDto toDto(RollupBucket bucket, long resolutionSeconds, String tier) {
+        BmsRollupDto dto = new BmsRollupDto();
+        dto.setBucketStart(SampleRecordCodec.fromEpochMillis(bucket.start()).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        dto.setResolutionSeconds(resolutionSeconds);
+        dto.setTier(tier);
+        dto.setSamples(bucket.samples());
+        dto.setTotalVoltage(stats(bucket, 0));
+        dto.setCurrent(stats(bucket, 1));
+        dto.setTemperature(stats(bucket, 2));
+        dto.setRemainingCapacity(stats(bucket, 3));
+        dto.setCellSpread(stats(bucket, RollupBucket.CELL_SPREAD));
+        dto.setCellStddev(stats(bucket, RollupBucket.CELL_STDDEV));
+        List<BmsRollupDto.Stats> cells = new ArrayList<>(bucket.cellCount());
+        for (int c = 0; c < bucket.cellCount(); c++) {
+            cells.add(stats(bucket, RollupBucket.FIELDS + c));
+        }
+        dto.setCellVoltages(cells);
+        return dto;
+    }
+
+    private static BmsRollupDto.Stats stats(RollupBucket bucket, int column) {
+        return new BmsRollupDto.Stats(orNull(bucket.min(column)), orNull(bucket.max(column)),
+                orNull(bucket.avg(column)), orNull(bucket.last(column)));
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
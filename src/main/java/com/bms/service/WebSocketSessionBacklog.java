@@ -0,0 +1,126 @@
+package com.bms.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-session backlog of the client outbound channel: frames queued on the executor but not yet handed to the session.
+ *
+ * 세션별 대기 프레임 수가 max-pending 을 넘으면 그 세션의 새 MESSAGE 프레임은 outbound 큐에 넣지 않고 버린다.
+ * 느린 세션 하나가 공유 outbound 큐를 채워 다른 세션의 전달을 늦추지 못하게 하며, 전송 시간/버퍼 한도를 넘긴
+ * 세션은 Spring 의 세션 데코레이터가 종료시킨다 (WebSocketConfig).
+ */
+@Component
+public class WebSocketSessionBacklog implements ExecutorChannelInterceptor {
+
+    private final ObjectProvider<WebSocketMessageBrokerStats> brokerStats;
+
+    @Value("${bms.websocket.max-pending-messages:1000}")
+    private int maxPending;
+
+    private final Map<String, AtomicInteger> pending = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    public WebSocketSessionBacklog(ObjectProvider<WebSocketMessageBrokerStats> brokerStats) {
+        this.brokerStats = brokerStats;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (sessionId == null || type == SimpMessageType.DISCONNECT_ACK) {
+            // 종료 응답은 세션 정리 이후에 지나가므로 집계하지 않는다
+            return message;
+        }
+        AtomicInteger backlog;
+        if (type == SimpMessageType.CONNECT_ACK) {
+            // 항목은 연결 시에만 만든다 (종료 이후 도착한 프레임이 항목을 되살려 남기지 않도록)
+            backlog = pending.computeIfAbsent(sessionId, id -> new AtomicInteger());
+        } else {
+            backlog = pending.get(sessionId);
+            if (backlog == null) {
+                // 이미 정리된 세션 (또는 CONNECT_ACK 이전의 프레임)은 집계하지 않고 그대로 보낸다
+                return message;
+            }
+        }
+        if (backlog.get() >= maxPending && type == SimpMessageType.MESSAGE) {
+            // 데이터 프레임만 버린다 (CONNECT_ACK, heartbeat, DISCONNECT 는 그대로 보냄)
+            dropped.increment();
+            return null;
+        }
+        backlog.incrementAndGet();
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (!sent) {
+            // executor 가 거절한 경우 (큐 포화) 등 실제로 넘어가지 않은 프레임
+            release(message);
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        release(message);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        pending.remove(event.getSessionId());
+    }
+
+    /**
+     * Backlog of one session, or 0 when it has nothing queued.
+     */
+    public int getPending(String sessionId) {
+        AtomicInteger backlog = pending.get(sessionId);
+        return backlog != null ? backlog.get() : 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Integer> sessions = new TreeMap<>();
+        pending.forEach((sessionId, backlog) -> sessions.put(sessionId, backlog.get()));
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxPending", maxPending);
+        stats.put("dropped", dropped.sum());
+        stats.put("pendingBySession", sessions);
+        WebSocketMessageBrokerStats broker = brokerStats.getIfAvailable();
+        if (broker != null) {
+            // 세션 수, 전송 시간/버퍼 한도 초과로 종료된 세션 수, 채널 executor 상태
+            stats.put("sessions", broker.getWebSocketSessionStatsInfo());
+            stats.put("inboundExecutor", broker.getClientInboundExecutorStatsInfo());
+            stats.put("outboundExecutor", broker.getClientOutboundExecutorStatsInfo());
+        }
+        return stats;
+    }
+
+    private void release(Message<?> message) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.DISCONNECT_ACK) {
+            return;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        AtomicInteger backlog = sessionId != null ? pending.get(sessionId) : null;
+        if (backlog != null && backlog.get() > 0) {
+            backlog.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.bms.telemetry;
+
+import java.util.Set;
+
+/**
+ * Mergeable partial aggregate of one bucket: count, sum, min, max, mean/variance (Chan et al. parallel update)
+ * and a quantile sketch.
+ */
+public final class AggregateState {
+
+    private static final Set<String> SIMPLE_FUNCTIONS = Set.of("count", "sum", "min", "max", "mean", "stddev");
+
+    private final QuantileSketch sketch;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double mean;
+    private double m2;
+
+    public AggregateState(double relativeAccuracy) {
+        this.sketch = new QuantileSketch(relativeAccuracy);
+    }
+
+    public void add(double value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        sketch.add(value);
+    }
+
+    public AggregateState merge(AggregateState other) {
+        if (other.count == 0) {
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sketch.merge(other.sketch);
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Value of an aggregate function: count, sum, min, max, mean, stddev, or pNN (e.g. p50, p99.9).
+     *
+     * @throws IllegalArgumentException for an unknown function
+     */
+    public double get(String function) {
+        return switch (function) {
+            case "count" -> count;
+            case "sum" -> sum;
+            case "min" -> count > 0 ? min : Double.NaN;
+            case "max" -> count > 0 ? max : Double.NaN;
+            case "mean" -> count > 0 ? mean : Double.NaN;
+            case "stddev" -> count > 1 ? Math.sqrt(m2 / (count - 1)) : Double.NaN;
+            default -> sketch.quantile(percentile(function) / 100.0);
+        };
+    }
+
+    /**
+     * Validates a function name. pNN 은 0~100 사이 백분위수.
+     *
+     * @throws IllegalArgumentException for an unknown function
+     */
+    public static String checkFunction(String function) {
+        if (!SIMPLE_FUNCTIONS.contains(function)) {
+            percentile(function);
+        }
+        return function;
+    }
+
+    private static double percentile(String function) {
+        if (function.length() > 1 && function.charAt(0) == 'p') {
+            try {
+                double p = Double.parseDouble(function.substring(1));
+                if (p >= 0 && p <= 100) {
+                    return p;
+                }
+            } catch (NumberFormatException ignored) {
+                // 아래에서 예외로 보고
+            }
+        }
+        throw new IllegalArgumentException("Unknown aggregate function: " + function);
+    }
+}
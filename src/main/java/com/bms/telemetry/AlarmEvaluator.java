@@ -0,0 +1,255 @@
+package com.bms.telemetry;
+
+import com.bms.model.BmsData;
+
+/**
+ * Alarm state machine of one device over a compiled {@link AlarmPlan}.
+ *
+ * 규칙마다 슬롯(셀 규칙은 셀 수만큼)을 두고 NORMAL → PENDING_RAISE → ACTIVE → PENDING_CLEAR → NORMAL 로 전이한다.
+ * 상태는 primitive 배열이라 샘플당 할당이 없고, 발생/해제 이벤트는 결과 버퍼에 기록해 개수만 반환한다.
+ * 셀 수가 늘어나면 상태를 초기화하고, plan 이 바뀌면 {@link #replan} 으로 같은 규칙의 상태를 이어받는다.
+ * 스레드 안전하지 않으므로 호출자가 기기별로 직렬화한다.
+ */
+public final class AlarmEvaluator {
+
+    private static final byte NORMAL = 0;
+    private static final byte PENDING_RAISE = 1;
+    private static final byte ACTIVE = 2;
+    private static final byte PENDING_CLEAR = 3;
+
+    private static final int CELL = AlarmRule.Source.CELL.ordinal();
+
+    // CELL 이전 source 값 (총 전압, 전류, 온도, 잔여용량), ordinal 로 바로 읽는다
+    private final double[] fields = new double[CELL];
+
+    private AlarmPlan plan = AlarmPlan.EMPTY;
+    private int cellCount = -1;
+    private int[] offsets = new int[0];
+    private byte[] state = new byte[0];
+    private long[] since = new long[0];
+    private long[] raisedAt = new long[0];
+
+    // 마지막 evaluate() 결과
+    private int found;
+    private int[] foundRule = new int[0];
+    private int[] foundCell = new int[0];
+    private boolean[] foundRaised = new boolean[0];
+    private double[] foundValue = new double[0];
+
+    public AlarmPlan plan() {
+        return plan;
+    }
+
+    /**
+     * Switches to a new plan, dropping all alarm state.
+     */
+    public void reset(AlarmPlan plan) {
+        this.plan = plan;
+        this.cellCount = -1;
+    }
+
+    /**
+     * Switches to a new plan, keeping the state of rules whose name and source are unchanged (cell by cell for cell
+     * rules). Raised alarms of rules that are no longer in the plan are passed to {@code dropped}.
+     */
+    public void replan(AlarmPlan next, ActiveVisitor dropped) {
+        AlarmPlan previous = plan;
+        plan = next;
+        if (cellCount < 0) {
+            return;
+        }
+        int[] previousOffsets = offsets;
+        byte[] previousState = state;
+        long[] previousSince = since;
+        long[] previousRaisedAt = raisedAt;
+        boolean[] carried = new boolean[previous.rules.length];
+        layout(cellCount);
+        for (int r = 0; r < next.rules.length; r++) {
+            int old = indexOf(previous, next.rules[r], carried);
+            if (old < 0) {
+                continue;
+            }
+            carried[old] = true;
+            int slots = next.source[r] == CELL ? cellCount : 1;
+            System.arraycopy(previousState, previousOffsets[old], state, offsets[r], slots);
+            System.arraycopy(previousSince, previousOffsets[old], since, offsets[r], slots);
+            System.arraycopy(previousRaisedAt, previousOffsets[old], raisedAt, offsets[r], slots);
+        }
+        for (int old = 0; old < previous.rules.length; old++) {
+            if (carried[old]) {
+                continue;
+            }
+            int slots = previous.source[old] == CELL ? cellCount : 1;
+            for (int s = 0; s < slots; s++) {
+                int slot = previousOffsets[old] + s;
+                if (previousState[slot] == ACTIVE || previousState[slot] == PENDING_CLEAR) {
+                    dropped.visit(previous.rules[old], previous.source[old] == CELL ? s : -1, previousRaisedAt[slot]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluates every rule of the plan against one sample. Returns the number of raise/clear events.
+     */
+    public int evaluate(long timestamp, BmsData data) {
+        double[] cells = data.getCellVoltages();
+        int sampleCells = cells != null ? cells.length : 0;
+        if (sampleCells > cellCount) {
+            // 셀 슬롯은 지금까지 본 최대 셀 수만큼 둔다 (셀이 빠진 샘플은 있는 셀만 평가)
+            layout(sampleCells);
+        }
+        fields[0] = orNaN(data.getTotalVoltage());
+        fields[1] = orNaN(data.getCurrent());
+        fields[2] = orNaN(data.getTemperature());
+        fields[3] = orNaN(data.getRemainingCapacity());
+
+        found = 0;
+        AlarmPlan p = plan;
+        for (int r = 0; r < p.rules.length; r++) {
+            int slot = offsets[r];
+            if (p.source[r] == CELL) {
+                for (int c = 0; c < sampleCells; c++) {
+                    step(p, r, slot + c, c, cells[c], timestamp);
+                }
+            } else {
+                step(p, r, slot, -1, fields[p.source[r]], timestamp);
+            }
+        }
+        return found;
+    }
+
+    public int foundRule(int i) {
+        return foundRule[i];
+    }
+
+    /**
+     * Cell index of a cell rule event, -1 for pack-level rules.
+     */
+    public int foundCell(int i) {
+        return foundCell[i];
+    }
+
+    public boolean foundRaised(int i) {
+        return foundRaised[i];
+    }
+
+    public double foundValue(int i) {
+        return foundValue[i];
+    }
+
+    /**
+     * Visits alarms that are currently raised (including ones waiting out their clear delay).
+     */
+    public void forEachActive(ActiveVisitor visitor) {
+        if (cellCount < 0) {
+            return;
+        }
+        for (int r = 0; r < plan.rules.length; r++) {
+            int slots = plan.source[r] == CELL ? cellCount : 1;
+            for (int s = 0; s < slots; s++) {
+                int slot = offsets[r] + s;
+                if (state[slot] == ACTIVE || state[slot] == PENDING_CLEAR) {
+                    visitor.visit(plan.rules[r], plan.source[r] == CELL ? s : -1, raisedAt[slot]);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface ActiveVisitor {
+        void visit(AlarmRule rule, int cell, long raisedAt);
+    }
+
+    private void step(AlarmPlan p, int r, int slot, int cell, double value, long timestamp) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        boolean beyondRaise = p.above[r] ? value > p.raise[r] : value < p.raise[r];
+        boolean beyondClear = p.above[r] ? value > p.clear[r] : value < p.clear[r];
+        switch (state[slot]) {
+            case NORMAL -> {
+                if (beyondRaise) {
+                    state[slot] = PENDING_RAISE;
+                    since[slot] = timestamp;
+                    stepPending(p, r, slot, cell, value, timestamp);
+                }
+            }
+            case PENDING_RAISE -> {
+                if (!beyondRaise) {
+                    state[slot] = NORMAL;
+                } else {
+                    stepPending(p, r, slot, cell, value, timestamp);
+                }
+            }
+            case ACTIVE -> {
+                if (!beyondClear) {
+                    state[slot] = PENDING_CLEAR;
+                    since[slot] = timestamp;
+                    stepPending(p, r, slot, cell, value, timestamp);
+                }
+            }
+            case PENDING_CLEAR -> {
+                if (beyondClear) {
+                    // 히스테리시스 구간 밖으로 다시 나가면 해제 대기를 취소
+                    state[slot] = ACTIVE;
+                } else {
+                    stepPending(p, r, slot, cell, value, timestamp);
+                }
+            }
+            default -> throw new IllegalStateException("Unknown alarm state " + state[slot]);
+        }
+    }
+
+    private void stepPending(AlarmPlan p, int r, int slot, int cell, double value, long timestamp) {
+        if (state[slot] == PENDING_RAISE && timestamp - since[slot] >= p.raiseDelay[r]) {
+            state[slot] = ACTIVE;
+            raisedAt[slot] = timestamp;
+            emit(r, cell, true, value);
+        } else if (state[slot] == PENDING_CLEAR && timestamp - since[slot] >= p.clearDelay[r]) {
+            state[slot] = NORMAL;
+            emit(r, cell, false, value);
+        }
+    }
+
+    private void emit(int rule, int cell, boolean raised, double value) {
+        foundRule[found] = rule;
+        foundCell[found] = cell;
+        foundRaised[found] = raised;
+        foundValue[found] = value;
+        found++;
+    }
+
+    // 아직 이어받지 않은 같은 이름, 같은 source 의 이전 규칙
+    private static int indexOf(AlarmPlan previous, AlarmRule rule, boolean[] carried) {
+        for (int old = 0; old < previous.rules.length; old++) {
+            if (!carried[old] && previous.rules[old].name().equals(rule.name())
+                    && previous.rules[old].source() == rule.source()) {
+                return old;
+            }
+        }
+        return -1;
+    }
+
+    private void layout(int cells) {
+        int rules = plan.rules.length;
+        offsets = new int[rules];
+        int slots = 0;
+        for (int r = 0; r < rules; r++) {
+            offsets[r] = slots;
+            slots += plan.source[r] == CELL ? cells : 1;
+        }
+        state = new byte[slots];
+        since = new long[slots];
+        raisedAt = new long[slots];
+        foundRule = new int[slots];
+        foundCell = new int[slots];
+        foundRaised = new boolean[slots];
+        foundValue = new double[slots];
+        cellCount = cells;
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+}
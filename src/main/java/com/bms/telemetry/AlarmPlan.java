@@ -0,0 +1,66 @@
+package com.bms.telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rules compiled into parallel primitive arrays, evaluated by index with no reflection or map lookups.
+ * 불변이므로 규칙이 바뀌면 새 plan 을 만들어 통째로 교체한다.
+ */
+public final class AlarmPlan {
+
+    public static final AlarmPlan EMPTY = compile(List.of());
+
+    final AlarmRule[] rules;
+    final int[] source;
+    final boolean[] above;
+    final double[] raise;
+    final double[] clear;
+    final long[] raiseDelay;
+    final long[] clearDelay;
+
+    private AlarmPlan(List<AlarmRule> rules) {
+        int size = rules.size();
+        this.rules = rules.toArray(new AlarmRule[0]);
+        this.source = new int[size];
+        this.above = new boolean[size];
+        this.raise = new double[size];
+        this.clear = new double[size];
+        this.raiseDelay = new long[size];
+        this.clearDelay = new long[size];
+        for (int r = 0; r < size; r++) {
+            AlarmRule rule = this.rules[r];
+            source[r] = rule.source().ordinal();
+            above[r] = rule.direction() == AlarmRule.Direction.ABOVE;
+            raise[r] = rule.raise();
+            clear[r] = rule.clear();
+            raiseDelay[r] = rule.raiseDelayMillis();
+            clearDelay[r] = rule.clearDelayMillis();
+        }
+    }
+
+    public static AlarmPlan compile(List<AlarmRule> rules) {
+        return new AlarmPlan(List.copyOf(rules));
+    }
+
+    /**
+     * The subset of rules that applies to one device (device-specific plus fleet-wide rules).
+     */
+    public AlarmPlan forDevice(String deviceId) {
+        List<AlarmRule> applicable = new ArrayList<>(rules.length);
+        for (AlarmRule rule : rules) {
+            if (rule.deviceId() == null || rule.deviceId().equals(deviceId)) {
+                applicable.add(rule);
+            }
+        }
+        return applicable.size() == rules.length ? this : new AlarmPlan(applicable);
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    public AlarmRule rule(int index) {
+        return rules[index];
+    }
+}
@@ -0,0 +1,33 @@
+package com.bms.telemetry;
+
+/**
+ * One alarm rule. ABOVE 규칙은 값이 raise 를 넘으면 발생하고 clear 이하로 내려오면 해제되며 (BELOW 는 반대),
+ * raise 와 clear 의 차이가 히스테리시스다. 조건이 raiseDelayMillis / clearDelayMillis 동안 유지되어야 상태가 바뀐다.
+ * source 가 CELL 이면 셀마다 독립적으로 평가한다. deviceId 가 null 이면 모든 기기에 적용한다.
+ */
+public record AlarmRule(String name, Source source, Direction direction, double raise, double clear,
+                        long raiseDelayMillis, long clearDelayMillis, String deviceId) {
+
+    public enum Source {
+        TOTAL_VOLTAGE, CURRENT, TEMPERATURE, REMAINING_CAPACITY, CELL
+    }
+
+    public enum Direction {
+        ABOVE, BELOW
+    }
+
+    public AlarmRule {
+        if (name == null || name.isBlank() || source == null || direction == null) {
+            throw new IllegalArgumentException("Alarm rule needs a name, source and direction");
+        }
+        if (Double.isNaN(raise) || Double.isNaN(clear)) {
+            throw new IllegalArgumentException("Alarm rule " + name + " needs raise and clear thresholds");
+        }
+        if (direction == Direction.ABOVE ? clear > raise : clear < raise) {
+            throw new IllegalArgumentException("Alarm rule " + name + ": clear threshold must be on the normal side of raise");
+        }
+        if (raiseDelayMillis < 0 || clearDelayMillis < 0) {
+            throw new IllegalArgumentException("Alarm rule " + name + ": delays must not be negative");
+        }
+    }
+}
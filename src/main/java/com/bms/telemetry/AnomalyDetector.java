@@ -0,0 +1,182 @@
+package com.bms.telemetry;
+
+import com.bms.model.BmsData;
+
+import java.util.Arrays;
+
+/**
+ * Online anomaly detector of one device: EWMA mean/variance z-score and rate-of-change per field and per cell.
+ *
+ * 열 0~3은 총 전압, 전류, 온도, 잔여용량이고 4번부터 셀 전압이다. 열마다 상태는 고정 개수의 primitive 값이며,
+ * 셀 수가 늘어날 때만 배열을 키우므로 샘플당 할당이 없다. 이상치는 결과 버퍼에 기록하고 개수만 반환한다.
+ * 스레드 안전하지 않으므로 기기별 단일 워커(또는 호출자 락)에서 사용한다.
+ */
+public final class AnomalyDetector {
+
+    public static final int FIELDS = 4;
+    public static final int KIND_RATE_OF_CHANGE = 1;
+    public static final int KIND_Z_SCORE = 2;
+
+    // 수 ms 간격 샘플의 측정 노이즈가 큰 변화율로 보이지 않도록 변화율은 최소 1초 간격으로 나눈다
+    private static final long MIN_RATE_INTERVAL_MILLIS = 1000;
+
+    /**
+     * Shared thresholds. maxRate / minStddev 는 (총 전압, 전류, 온도, 잔여용량, 셀) 순서의 5개 값이다.
+     */
+    public record Settings(double alpha, double zThreshold, long warmupSamples, long cooldownMillis,
+                           double[] maxRate, double[] minStddev) {
+    }
+
+    private final Settings settings;
+
+    private double[] mean = new double[0];
+    private double[] variance = new double[0];
+    private double[] last = new double[0];
+    private long[] lastTimestamp = new long[0];
+    private long[] count = new long[0];
+    private long[] lastAlert = new long[0];
+
+    // 마지막 update() 결과
+    private int found;
+    private int[] foundColumn = new int[0];
+    private int[] foundKind = new int[0];
+    private double[] foundValue = new double[0];
+    private double[] foundExpected = new double[0];
+    private double[] foundScore = new double[0];
+
+    public AnomalyDetector(Settings settings) {
+        this.settings = settings;
+        ensureColumns(FIELDS);
+    }
+
+    /**
+     * Checks one sample against the running state, then folds it in. Returns the number of anomalies found.
+     */
+    public int update(long timestamp, BmsData data) {
+        double[] cells = data.getCellVoltages();
+        ensureColumns(FIELDS + (cells != null ? cells.length : 0));
+        found = 0;
+        observe(0, 0, timestamp, orNaN(data.getTotalVoltage()));
+        observe(1, 1, timestamp, orNaN(data.getCurrent()));
+        observe(2, 2, timestamp, orNaN(data.getTemperature()));
+        observe(3, 3, timestamp, orNaN(data.getRemainingCapacity()));
+        if (cells != null) {
+            for (int c = 0; c < cells.length; c++) {
+                observe(FIELDS + c, FIELDS, timestamp, cells[c]);
+            }
+        }
+        return found;
+    }
+
+    public int foundColumn(int i) {
+        return foundColumn[i];
+    }
+
+    public int foundKind(int i) {
+        return foundKind[i];
+    }
+
+    public double foundValue(int i) {
+        return foundValue[i];
+    }
+
+    /**
+     * EWMA mean before the anomalous sample was folded in.
+     */
+    public double foundExpected(int i) {
+        return foundExpected[i];
+    }
+
+    /**
+     * z-score, or rate of change per second.
+     */
+    public double foundScore(int i) {
+        return foundScore[i];
+    }
+
+    public static String metricName(int column) {
+        return switch (column) {
+            case 0 -> "total_voltage";
+            case 1 -> "current";
+            case 2 -> "temperature";
+            case 3 -> "remaining_capacity";
+            default -> "cell_" + (column - FIELDS);
+        };
+    }
+
+    public static String kindName(int kind) {
+        return kind == KIND_RATE_OF_CHANGE ? "rate_of_change" : "z_score";
+    }
+
+    private void observe(int column, int threshold, long timestamp, double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (count[column] == 0) {
+            mean[column] = value;
+            variance[column] = 0;
+            last[column] = value;
+            lastTimestamp[column] = timestamp;
+            count[column] = 1;
+            return;
+        }
+
+        int kind = 0;
+        double score = 0;
+        long elapsed = Math.max(timestamp - lastTimestamp[column], MIN_RATE_INTERVAL_MILLIS);
+        double rate = (value - last[column]) * 1000.0 / elapsed;
+        if (Math.abs(rate) > settings.maxRate()[threshold]) {
+            kind = KIND_RATE_OF_CHANGE;
+            score = rate;
+        }
+        if (kind == 0 && count[column] >= settings.warmupSamples()) {
+            // 분산이 0에 가까운 안정 구간에서 측정 노이즈로 z가 튀지 않도록 표준편차 하한을 둔다
+            double stddev = Math.max(Math.sqrt(variance[column]), settings.minStddev()[threshold]);
+            double z = (value - mean[column]) / stddev;
+            if (Math.abs(z) > settings.zThreshold()) {
+                kind = KIND_Z_SCORE;
+                score = z;
+            }
+        }
+        if (kind != 0 && timestamp - lastAlert[column] >= settings.cooldownMillis()) {
+            lastAlert[column] = timestamp;
+            foundColumn[found] = column;
+            foundKind[found] = kind;
+            foundValue[found] = value;
+            foundExpected[found] = mean[column];
+            foundScore[found] = score;
+            found++;
+        }
+
+        // EWMA 평균/분산 갱신 (이상치도 반영해 수준 변화에 적응한다)
+        double diff = value - mean[column];
+        double increment = settings.alpha() * diff;
+        mean[column] += increment;
+        variance[column] = (1 - settings.alpha()) * (variance[column] + diff * increment);
+        last[column] = value;
+        lastTimestamp[column] = timestamp;
+        count[column]++;
+    }
+
+    private void ensureColumns(int required) {
+        if (required > mean.length) {
+            int previous = mean.length;
+            mean = Arrays.copyOf(mean, required);
+            variance = Arrays.copyOf(variance, required);
+            last = Arrays.copyOf(last, required);
+            lastTimestamp = Arrays.copyOf(lastTimestamp, required);
+            count = Arrays.copyOf(count, required);
+            lastAlert = Arrays.copyOf(lastAlert, required);
+            Arrays.fill(lastAlert, previous, required, Long.MIN_VALUE / 2);
+            foundColumn = Arrays.copyOf(foundColumn, required);
+            foundKind = Arrays.copyOf(foundKind, required);
+            foundValue = Arrays.copyOf(foundValue, required);
+            foundExpected = Arrays.copyOf(foundExpected, required);
+            foundScore = Arrays.copyOf(foundScore, required);
+        }
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+}
@@ -0,0 +1,140 @@
+package com.bms.telemetry;
+
+import com.bms.dto.BmsStatusDto;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-layout binary encoding of a bms/status sample (little-endian).
+ *
+ * <pre>
+ * offset  size  field
+ * 0       1     magic (0xB5)
+ * 1       1     version (1)
+ * 2       1     flags: bit0 charge FET, bit1 discharge FET, bit2 FET bits valid, bit3 seq valid
+ * 3       1     cell count (n)
+ * 4       8     timestamp, epoch millis (0 = absent)
+ * 12      8     seq
+ * 20      4     total voltage (float32, NaN = absent)
+ * 24      4     current (float32)
+ * 28      4     temperature (float32)
+ * 32      4     remaining capacity % (float32)
+ * 36      4*n   cell voltages (packed float32)
+ * </pre>
+ *
+ * JSON과 같은 토픽으로 들어오며 첫 바이트(magic)로 구분한다. JSON은 0xB5로 시작할 수 없다.
+ * float32 값은 디코딩 시 소수점 4자리로 반올림해 JSON 경로와 같은 표현(예: 3.3)을 유지한다.
+ */
+public final class BinaryStatusCodec {
+
+    public static final byte MAGIC = (byte) 0xB5;
+    public static final byte VERSION = 1;
+    public static final int HEADER_SIZE = 36;
+
+    private static final int FLAG_CHARGE_FET = 1;
+    private static final int FLAG_DISCHARGE_FET = 1 << 1;
+    private static final int FLAG_FET_VALID = 1 << 2;
+    private static final int FLAG_SEQ_VALID = 1 << 3;
+
+    private BinaryStatusCodec() {
+    }
+
+    public static boolean isBinary(byte[] payload) {
+        return payload.length > 0 && payload[0] == MAGIC;
+    }
+
+    public static BmsStatusDto decode(byte[] payload) {
+        if (payload.length < HEADER_SIZE || payload[0] != MAGIC) {
+            throw new IllegalArgumentException("Not a binary bms/status payload");
+        }
+        if (payload[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary bms/status version: " + payload[1]);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload).order(ByteOrder.LITTLE_ENDIAN);
+        int flags = buffer.get(2) & 0xFF;
+        int cellCount = buffer.get(3) & 0xFF;
+        if (payload.length < HEADER_SIZE + cellCount * 4) {
+            throw new IllegalArgumentException("Truncated binary bms/status payload: " + payload.length + " bytes");
+        }
+
+        BmsStatusDto dto = new BmsStatusDto();
+        long epochMillis = buffer.getLong(4);
+        if (epochMillis != 0) {
+            dto.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault())
+                    .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        }
+        if ((flags & FLAG_SEQ_VALID) != 0) {
+            dto.setSequence(buffer.getLong(12));
+        }
+        dto.setTotalVoltage(toDouble(buffer.getFloat(20)));
+        dto.setCurrent(toDouble(buffer.getFloat(24)));
+        dto.setTemperature(toDouble(buffer.getFloat(28)));
+        dto.setRemainingCapacity(toDouble(buffer.getFloat(32)));
+        if ((flags & FLAG_FET_VALID) != 0) {
+            dto.setChargeFetStatus((flags & FLAG_CHARGE_FET) != 0);
+            dto.setDischargeFetStatus((flags & FLAG_DISCHARGE_FET) != 0);
+        }
+
+        List<Double> cells = new ArrayList<>(cellCount);
+        for (int i = 0; i < cellCount; i++) {
+            cells.add(toDouble(buffer.getFloat(HEADER_SIZE + i * 4)));
+        }
+        dto.setCellVoltages(cells);
+        return dto;
+    }
+
+    /**
+     * Encodes a sample; used by tests/benchmarks and as the reference for the Raspberry Pi publisher.
+     */
+    public static byte[] encode(BmsStatusDto dto, long epochMillis) {
+        List<Double> cells = dto.getCellVoltages();
+        int cellCount = cells != null ? cells.size() : 0;
+        if (cellCount > 255) {
+            throw new IllegalArgumentException("Too many cells for binary format: " + cellCount);
+        }
+
+        int flags = 0;
+        if (dto.getChargeFetStatus() != null && dto.getDischargeFetStatus() != null) {
+            flags |= FLAG_FET_VALID;
+            flags |= dto.getChargeFetStatus() ? FLAG_CHARGE_FET : 0;
+            flags |= dto.getDischargeFetStatus() ? FLAG_DISCHARGE_FET : 0;
+        }
+        if (dto.getSequence() != null) {
+            flags |= FLAG_SEQ_VALID;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + cellCount * 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC);
+        buffer.put(VERSION);
+        buffer.put((byte) flags);
+        buffer.put((byte) cellCount);
+        buffer.putLong(epochMillis);
+        buffer.putLong(dto.getSequence() != null ? dto.getSequence() : 0L);
+        buffer.putFloat(toFloat(dto.getTotalVoltage()));
+        buffer.putFloat(toFloat(dto.getCurrent()));
+        buffer.putFloat(toFloat(dto.getTemperature()));
+        buffer.putFloat(toFloat(dto.getRemainingCapacity()));
+        for (int i = 0; i < cellCount; i++) {
+            buffer.putFloat(toFloat(cells.get(i)));
+        }
+        return buffer.array();
+    }
+
+    private static Double toDouble(float value) {
+        if (Float.isNaN(value)) {
+            return null;
+        }
+        return Math.round(value * 10000d) / 10000d;
+    }
+
+    private static float toFloat(Double value) {
+        return value != null ? value.floatValue() : Float.NaN;
+    }
+}
@@ -0,0 +1,67 @@
+package com.bms.telemetry;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Big-endian bit reader over a region of a (memory-mapped) buffer. 버퍼를 복사하지 않고 직접 읽는다.
+ */
+final class BitInput {
+
+    private final ByteBuffer buffer;
+    private final int end;
+    private int position;
+    private long cache;
+    private int cacheBits;
+
+    BitInput(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    long read(int bits) {
+        if (bits == 0) {
+            return 0;
+        }
+        long result = 0;
+        int need = bits;
+        while (need > 0) {
+            if (cacheBits == 0) {
+                refill();
+            }
+            int take = Math.min(need, cacheBits);
+            long chunk = (cache >>> (cacheBits - take)) & mask(take);
+            result = take == 64 ? chunk : (result << take) | chunk;
+            cacheBits -= take;
+            need -= take;
+        }
+        return result;
+    }
+
+    boolean readBit() {
+        return read(1) != 0;
+    }
+
+    private void refill() {
+        if (position + 8 <= end) {
+            cache = buffer.getLong(position);
+            position += 8;
+            cacheBits = 64;
+            return;
+        }
+        int count = 0;
+        cache = 0;
+        while (position < end && count < 8) {
+            cache = (cache << 8) | (buffer.get(position++) & 0xFF);
+            count++;
+        }
+        if (count == 0) {
+            throw new IllegalStateException("Compressed telemetry block exhausted");
+        }
+        cacheBits = count * 8;
+    }
+
+    private static long mask(int bits) {
+        return bits == 64 ? -1L : (1L << bits) - 1;
+    }
+}
@@ -0,0 +1,62 @@
+package com.bms.telemetry;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Growable big-endian bit writer used by the Gorilla chunk encoder.
+ */
+final class BitOutput {
+
+    private long[] words = new long[64];
+    private long current;
+    private int currentBits;
+    private int wordCount;
+
+    void write(long value, int bits) {
+        if (bits == 0) {
+            return;
+        }
+        long masked = bits == 64 ? value : value & ((1L << bits) - 1);
+        int free = 64 - currentBits;
+        if (bits <= free) {
+            current = bits == 64 ? masked : (current << bits) | masked;
+            currentBits += bits;
+            if (currentBits == 64) {
+                pushWord();
+            }
+        } else {
+            int rest = bits - free;
+            current = (current << free) | (masked >>> rest);
+            currentBits = 64;
+            pushWord();
+            current = masked & ((1L << rest) - 1);
+            currentBits = rest;
+        }
+    }
+
+    void writeBit(boolean bit) {
+        write(bit ? 1 : 0, 1);
+    }
+
+    byte[] toByteArray() {
+        int bytes = wordCount * 8 + (currentBits + 7) / 8;
+        ByteBuffer buffer = ByteBuffer.allocate(wordCount * 8 + 8);
+        for (int i = 0; i < wordCount; i++) {
+            buffer.putLong(words[i]);
+        }
+        if (currentBits > 0) {
+            buffer.putLong(current << (64 - currentBits));
+        }
+        return Arrays.copyOf(buffer.array(), bytes);
+    }
+
+    private void pushWord() {
+        if (wordCount == words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        words[wordCount++] = current;
+        current = 0;
+        currentBits = 0;
+    }
+}
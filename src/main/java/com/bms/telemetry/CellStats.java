@@ -0,0 +1,26 @@
+package com.bms.telemetry;
+
+/**
+ * Imbalance statistics of one cell-voltage vector. NaN 셀(결측)은 제외하며, 유효한 셀이 없으면 count 0 과 NaN 값을 갖는다.
+ *
+ * @param minIndex 가장 낮은 셀(가장 약한 셀)의 인덱스, 없으면 -1
+ * @param maxIndex 가장 높은 셀의 인덱스, 없으면 -1
+ */
+public record CellStats(int count, double min, double max, double mean, double stddev, int minIndex, int maxIndex) {
+
+    public static final CellStats EMPTY = new CellStats(0, Double.NaN, Double.NaN, Double.NaN, Double.NaN, -1, -1);
+
+    /**
+     * Max - min cell voltage.
+     */
+    public double spread() {
+        return max - min;
+    }
+
+    /**
+     * Largest absolute deviation of a cell from the mean.
+     */
+    public double maxDeviation() {
+        return Math.max(max - mean, mean - min);
+    }
+}
@@ -0,0 +1,26 @@
+package com.bms.telemetry;
+
+/**
+ * Computes {@link CellStats} over a primitive cell-voltage array.
+ *
+ * Vector API 구현은 -PvectorKernel 빌드에만 포함되고(src/vector/java), jdk.incubator.vector 모듈이 로드된
+ * 경우(--add-modules)에만 리플렉션으로 선택한다. 그 외에는 해당 클래스를 링크하지 않고 스칼라 구현을 쓴다.
+ */
+public interface CellStatsKernel {
+
+    CellStats compute(double[] cells);
+
+    String name();
+
+    static CellStatsKernel select(boolean preferVector) {
+        if (preferVector && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (CellStatsKernel) Class.forName("com.bms.telemetry.VectorCellStatsKernel")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // 모듈은 있지만 초기화에 실패한 경우 스칼라로 내려간다
+            }
+        }
+        return new ScalarCellStatsKernel();
+    }
+}
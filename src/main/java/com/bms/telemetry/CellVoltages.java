@@ -0,0 +1,36 @@
+package com.bms.telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conversions between the DTO cell list and the primitive array used for storage.
+ */
+public final class CellVoltages {
+
+    private CellVoltages() {
+    }
+
+    public static double[] toArray(List<Double> cellVoltages) {
+        if (cellVoltages == null) {
+            return null;
+        }
+        double[] values = new double[cellVoltages.size()];
+        for (int i = 0; i < values.length; i++) {
+            Double value = cellVoltages.get(i);
+            values[i] = value != null ? value : Double.NaN;
+        }
+        return values;
+    }
+
+    public static List<Double> toList(double[] cellVoltages) {
+        if (cellVoltages == null) {
+            return null;
+        }
+        List<Double> values = new ArrayList<>(cellVoltages.length);
+        for (double value : cellVoltages) {
+            values.add(Double.isNaN(value) ? null : value);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,221 @@
+package com.bms.telemetry;
+
+import com.bms.model.BmsData;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Read-only, Gorilla-compressed copy of a sealed segment.
+ *
+ * <pre>
+ * int   magic "TSGZ", int version, long record count, int block count
+ * per block: long min timestamp, long max timestamp, int records, int payload offset, int payload length
+ * block payloads ({@link GorillaBlockCodec})
+ * </pre>
+ *
+ * 블록 단위로 압축하므로 시간 범위 조회 시 겹치는 블록만 풀어서 읽는다.
+ */
+final class CompressedSegment implements SegmentView {
+
+    private static final int MAGIC = 0x54534758; // "TSGZ"
+    private static final int VERSION = 1;
+    private static final int HEADER = 4 + 4 + 8 + 4;
+    private static final int BLOCK_ENTRY = 8 + 8 + 4 + 4 + 4;
+
+    private final long number;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long recordCount;
+    private final long[] blockMin;
+    private final long[] blockMax;
+    private final int[] blockRecords;
+    private final int[] blockOffsets;
+    private final int[] blockLengths;
+
+    private CompressedSegment(long number, Path path, MappedByteBuffer buffer) throws IOException {
+        this.number = number;
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a compressed telemetry segment: " + path);
+        }
+        this.recordCount = buffer.getLong(8);
+        int blocks = buffer.getInt(16);
+        this.blockMin = new long[blocks];
+        this.blockMax = new long[blocks];
+        this.blockRecords = new int[blocks];
+        this.blockOffsets = new int[blocks];
+        this.blockLengths = new int[blocks];
+        for (int b = 0; b < blocks; b++) {
+            int pos = HEADER + b * BLOCK_ENTRY;
+            blockMin[b] = buffer.getLong(pos);
+            blockMax[b] = buffer.getLong(pos + 8);
+            blockRecords[b] = buffer.getInt(pos + 16);
+            blockOffsets[b] = buffer.getInt(pos + 20);
+            blockLengths[b] = buffer.getInt(pos + 24);
+        }
+    }
+
+    static Path chunkPath(Path dir, long number) {
+        return dir.resolve(String.format("segment-%010d.gor", number));
+    }
+
+    static CompressedSegment open(Path path, long number) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new CompressedSegment(number, path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Compresses a sealed segment into its chunk file. 임시 파일에 쓴 뒤 원자적으로 이동하므로
+     * 중간에 중단되어도 완성되지 않은 청크 파일이 남지 않는다.
+     */
+    static CompressedSegment compact(TelemetrySegment source, int recordsPerBlock) throws IOException {
+        int perBlock = Math.min(recordsPerBlock, GorillaBlockCodec.MAX_BLOCK_RECORDS);
+        List<byte[]> payloads = new ArrayList<>();
+        List<long[]> ranges = new ArrayList<>();
+        List<BmsData> block = new ArrayList<>(perBlock);
+        source.scan(Long.MIN_VALUE, Long.MAX_VALUE, sample -> {
+            block.add(sample);
+            if (block.size() == perBlock) {
+                addBlock(block, payloads, ranges);
+            }
+        });
+        if (!block.isEmpty()) {
+            addBlock(block, payloads, ranges);
+        }
+
+        Path target = chunkPath(source.path().getParent(), source.number());
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(file)) {
+            long records = ranges.stream().mapToLong(range -> range[2]).sum();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(records);
+            out.writeInt(payloads.size());
+            int offset = HEADER + payloads.size() * BLOCK_ENTRY;
+            for (int b = 0; b < payloads.size(); b++) {
+                long[] range = ranges.get(b);
+                out.writeLong(range[0]);
+                out.writeLong(range[1]);
+                out.writeInt((int) range[2]);
+                out.writeInt(offset);
+                out.writeInt(payloads.get(b).length);
+                offset += payloads.get(b).length;
+            }
+            for (byte[] payload : payloads) {
+                out.write(payload);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(target, source.number());
+    }
+
+    private static void addBlock(List<BmsData> block, List<byte[]> payloads, List<long[]> ranges) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (BmsData sample : block) {
+            long timestamp = SampleRecordCodec.toEpochMillis(sample.getTimestamp());
+            min = Math.min(min, timestamp);
+            max = Math.max(max, timestamp);
+        }
+        payloads.add(GorillaBlockCodec.encode(block));
+        ranges.add(new long[] {min, max, block.size()});
+        block.clear();
+    }
+
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public long number() {
+        return number;
+    }
+
+    @Override
+    public long recordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return recordCount == 0;
+    }
+
+    @Override
+    public long minTimestamp() {
+        long min = Long.MAX_VALUE;
+        for (long value : blockMin) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    @Override
+    public long maxTimestamp() {
+        long max = Long.MIN_VALUE;
+        for (long value : blockMax) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    @Override
+    public void scan(long from, long to, Consumer<BmsData> visitor) {
+        for (int b = 0; b < blockMin.length; b++) {
+            if (blockMax[b] < from || blockMin[b] > to) {
+                continue;
+            }
+            decodeBlock(b, from, to, visitor);
+        }
+    }
+
+    @Override
+    public void scanBlocksDescending(long from, long to, LongPredicate continueAt, Consumer<List<BmsData>> blockVisitor) {
+        for (int b = blockMin.length - 1; b >= 0; b--) {
+            if (blockMax[b] < from || blockMin[b] > to) {
+                continue;
+            }
+            if (!continueAt.test(blockMax[b])) {
+                return;
+            }
+            List<BmsData> records = new ArrayList<>(blockRecords[b]);
+            decodeBlock(b, from, to, records::add);
+            if (!records.isEmpty()) {
+                blockVisitor.accept(records);
+            }
+        }
+    }
+
+    @Override
+    public void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    private void decodeBlock(int block, long from, long to, Consumer<BmsData> visitor) {
+        // BitInput은 절대 위치로만 읽으므로 여러 스레드가 같은 매핑을 공유해도 된다
+        GorillaBlockCodec.decode(buffer, blockOffsets[block], blockLengths[block], blockRecords[block], from, to, visitor);
+    }
+}
@@ -0,0 +1,147 @@
+package com.bms.telemetry;
+
+/**
+ * Running coulomb / energy counters of one device, integrated with the trapezoid rule in O(1) per sample.
+ *
+ * 전류는 양수 = 충전, 음수 = 방전으로 본다. 두 샘플 사이에서 부호가 바뀌면 0을 지나는 지점에서 구간을 나누어
+ * 충전/방전 카운터에 각각 더한다. 간격이 maxGapMillis 보다 길면 그 구간은 알 수 없으므로 적분하지 않는다.
+ * 입력은 timestamp 오름차순이어야 하며 이전 샘플보다 늦지 않은 샘플은 버린다.
+ */
+public final class EnergyIntegrator {
+
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    private final long maxGapMillis;
+
+    private long lastTimestamp = Long.MIN_VALUE;
+    private double lastCurrent;
+    private double lastVoltage;
+    private double chargeAh;
+    private double dischargeAh;
+    private double chargeWh;
+    private double dischargeWh;
+    private long gaps;
+
+    public EnergyIntegrator(long maxGapMillis) {
+        this.maxGapMillis = maxGapMillis;
+    }
+
+    /**
+     * Integrator continuing from a saved checkpoint.
+     */
+    public static EnergyIntegrator restore(long maxGapMillis, long lastTimestamp, double lastCurrent, double lastVoltage,
+                                           double chargeAh, double dischargeAh, double chargeWh, double dischargeWh,
+                                           long gaps) {
+        EnergyIntegrator integrator = new EnergyIntegrator(maxGapMillis);
+        integrator.lastTimestamp = lastTimestamp;
+        integrator.lastCurrent = lastCurrent;
+        integrator.lastVoltage = lastVoltage;
+        integrator.chargeAh = chargeAh;
+        integrator.dischargeAh = dischargeAh;
+        integrator.chargeWh = chargeWh;
+        integrator.dischargeWh = dischargeWh;
+        integrator.gaps = gaps;
+        return integrator;
+    }
+
+    /**
+     * Counters at {@code timestamp} between two states of the same device, interpolated linearly in time.
+     * 카운터는 단조 증가하므로 결과도 항상 두 상태 사이에 있다. gap 수는 앞 상태의 값을 쓴다.
+     */
+    public static EnergyIntegrator interpolate(EnergyIntegrator before, EnergyIntegrator after, long timestamp) {
+        long span = after.lastTimestamp - before.lastTimestamp;
+        double fraction = span > 0
+                ? Math.min(1, Math.max(0, (double) (timestamp - before.lastTimestamp) / span)) : 0;
+        return restore(before.maxGapMillis, timestamp, before.lastCurrent, before.lastVoltage,
+                before.chargeAh + (after.chargeAh - before.chargeAh) * fraction,
+                before.dischargeAh + (after.dischargeAh - before.dischargeAh) * fraction,
+                before.chargeWh + (after.chargeWh - before.chargeWh) * fraction,
+                before.dischargeWh + (after.dischargeWh - before.dischargeWh) * fraction,
+                before.gaps);
+    }
+
+    public EnergyIntegrator copy() {
+        return restore(maxGapMillis, lastTimestamp, lastCurrent, lastVoltage,
+                chargeAh, dischargeAh, chargeWh, dischargeWh, gaps);
+    }
+
+    /**
+     * Adds one sample. Returns false (and changes nothing) when it is not newer than the last one.
+     */
+    public boolean add(long timestamp, double current, double voltage) {
+        if (timestamp <= lastTimestamp) {
+            return false;
+        }
+        if (lastTimestamp != Long.MIN_VALUE) {
+            long elapsed = timestamp - lastTimestamp;
+            if (elapsed <= maxGapMillis) {
+                double hours = elapsed / MILLIS_PER_HOUR;
+                double[] ah = split(lastCurrent, current, hours);
+                chargeAh += ah[0];
+                dischargeAh += ah[1];
+                double[] wh = split(lastCurrent * lastVoltage, current * voltage, hours);
+                chargeWh += wh[0];
+                dischargeWh += wh[1];
+            } else {
+                gaps++;
+            }
+        }
+        lastTimestamp = timestamp;
+        lastCurrent = current;
+        lastVoltage = voltage;
+        return true;
+    }
+
+    /**
+     * Area under the line from {@code from} to {@code to} over {@code hours}, as {positive, negative magnitude}.
+     */
+    private static double[] split(double from, double to, double hours) {
+        if (from >= 0 && to >= 0) {
+            return new double[] {(from + to) / 2 * hours, 0};
+        }
+        if (from <= 0 && to <= 0) {
+            return new double[] {0, -(from + to) / 2 * hours};
+        }
+        // 부호가 바뀌는 구간: 0을 지나는 비율에서 두 삼각형으로 나눈다
+        double crossing = from / (from - to);
+        double first = Math.abs(from) * crossing / 2 * hours;
+        double second = Math.abs(to) * (1 - crossing) / 2 * hours;
+        return from > 0 ? new double[] {first, second} : new double[] {second, first};
+    }
+
+    public boolean isEmpty() {
+        return lastTimestamp == Long.MIN_VALUE;
+    }
+
+    public long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public double lastCurrent() {
+        return lastCurrent;
+    }
+
+    public double lastVoltage() {
+        return lastVoltage;
+    }
+
+    public double chargeAh() {
+        return chargeAh;
+    }
+
+    public double dischargeAh() {
+        return dischargeAh;
+    }
+
+    public double chargeWh() {
+        return chargeWh;
+    }
+
+    public double dischargeWh() {
+        return dischargeWh;
+    }
+
+    public long gaps() {
+        return gaps;
+    }
+}
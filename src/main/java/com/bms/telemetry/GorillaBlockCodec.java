@@ -0,0 +1,316 @@
+package com.bms.telemetry;
+
+import com.bms.model.BmsData;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Gorilla-style columnar compression for one block of samples, written row by row into a single bit stream.
+ *
+ * <pre>
+ * header   device id dictionary: 8 bits size, then per entry 8 bits length + UTF-8 bytes
+ * per row  timestamp, record id   delta-of-delta ('0' | '10'+7 | '110'+9 | '1110'+12 | '1111'+64 bits)
+ *          voltage, current, temperature, capacity   XOR against the previous value of the same field
+ *          FET bits                '0' unchanged | '1'+4 bits
+ *          device id               '0' unchanged | '1'+8 bits dictionary index
+ *          cell count              '0' unchanged | '1'+16 bits (0xFFFF = null)
+ *          cells                   XOR against the previous value of the same cell index
+ * </pre>
+ *
+ * 센서 값은 샘플 간 변화가 작아 XOR 결과의 유효 비트가 짧고, 주기적 타임스탬프는 delta-of-delta가 대부분 0이 된다.
+ * null 필드는 NaN 비트 패턴으로 그대로 XOR 인코딩한다.
+ */
+final class GorillaBlockCodec {
+
+    static final int MAX_BLOCK_RECORDS = 255;
+
+    private static final int FIELDS = 4;
+    private static final int NO_CELLS = 0xFFFF;
+
+    private GorillaBlockCodec() {
+    }
+
+    static byte[] encode(List<BmsData> samples) {
+        if (samples.size() > MAX_BLOCK_RECORDS) {
+            throw new IllegalArgumentException("Block holds at most " + MAX_BLOCK_RECORDS + " samples");
+        }
+        List<String> dictionary = new ArrayList<>();
+        for (BmsData sample : samples) {
+            String deviceId = sample.getDeviceId() != null ? sample.getDeviceId() : "";
+            if (!dictionary.contains(deviceId)) {
+                dictionary.add(deviceId);
+            }
+        }
+
+        BitOutput out = new BitOutput();
+        out.write(dictionary.size(), 8);
+        for (String deviceId : dictionary) {
+            byte[] bytes = deviceId.getBytes(StandardCharsets.UTF_8);
+            out.write(bytes.length, 8);
+            for (byte b : bytes) {
+                out.write(b, 8);
+            }
+        }
+
+        DeltaState timestamps = new DeltaState();
+        DeltaState ids = new DeltaState();
+        XorState[] fields = XorState.array(FIELDS);
+        XorState[] cells = XorState.array(0);
+        int prevFet = 0;
+        int prevDevice = 0;
+        int prevCellCount = NO_CELLS;
+        double[] values = new double[FIELDS];
+
+        for (int row = 0; row < samples.size(); row++) {
+            BmsData sample = samples.get(row);
+            timestamps.encode(out, SampleRecordCodec.toEpochMillis(sample.getTimestamp()), row == 0);
+            ids.encode(out, sample.getId(), row == 0);
+
+            values[0] = orNaN(sample.getTotalVoltage());
+            values[1] = orNaN(sample.getCurrent());
+            values[2] = orNaN(sample.getTemperature());
+            values[3] = orNaN(sample.getRemainingCapacity());
+            for (int f = 0; f < FIELDS; f++) {
+                fields[f].encode(out, values[f]);
+            }
+
+            int fet = SampleRecordCodec.fetBits(sample.getChargeFetStatus(), sample.getDischargeFetStatus());
+            prevFet = encodeSmall(out, fet, prevFet, 4);
+            int device = dictionary.indexOf(sample.getDeviceId() != null ? sample.getDeviceId() : "");
+            prevDevice = encodeSmall(out, device, prevDevice, 8);
+
+            double[] cellValues = sample.getCellVoltages();
+            int cellCount = cellValues != null ? cellValues.length : NO_CELLS;
+            prevCellCount = encodeSmall(out, cellCount, prevCellCount, 16);
+            if (cellValues != null) {
+                cells = XorState.ensure(cells, cellValues.length);
+                for (int c = 0; c < cellValues.length; c++) {
+                    cells[c].encode(out, cellValues[c]);
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a block, handing samples whose timestamp is within [from, to] to the visitor in stored order.
+     * 범위 밖 행도 비트 스트림 상태 때문에 디코딩은 하지만 BmsData 객체는 만들지 않는다.
+     */
+    static void decode(ByteBuffer buffer, int offset, int length, int count, long from, long to,
+                       Consumer<BmsData> visitor) {
+        BitInput in = new BitInput(buffer, offset, length);
+        String[] dictionary = new String[(int) in.read(8)];
+        for (int i = 0; i < dictionary.length; i++) {
+            byte[] bytes = new byte[(int) in.read(8)];
+            for (int b = 0; b < bytes.length; b++) {
+                bytes[b] = (byte) in.read(8);
+            }
+            dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        DeltaState timestamps = new DeltaState();
+        DeltaState ids = new DeltaState();
+        XorState[] fields = XorState.array(FIELDS);
+        XorState[] cells = XorState.array(0);
+        int fet = 0;
+        int device = 0;
+        int cellCount = NO_CELLS;
+        double[] values = new double[FIELDS];
+
+        for (int row = 0; row < count; row++) {
+            long timestamp = timestamps.decode(in, row == 0);
+            long id = ids.decode(in, row == 0);
+            for (int f = 0; f < FIELDS; f++) {
+                values[f] = fields[f].decode(in);
+            }
+            fet = decodeSmall(in, fet, 4);
+            device = decodeSmall(in, device, 8);
+            cellCount = decodeSmall(in, cellCount, 16);
+
+            double[] cellValues = null;
+            if (cellCount != NO_CELLS) {
+                cells = XorState.ensure(cells, cellCount);
+                cellValues = new double[cellCount];
+                for (int c = 0; c < cellCount; c++) {
+                    cellValues[c] = cells[c].decode(in);
+                }
+            }
+            if (timestamp < from || timestamp > to) {
+                continue;
+            }
+
+            BmsData data = new BmsData();
+            data.setId(id);
+            data.setTimestamp(SampleRecordCodec.fromEpochMillis(timestamp));
+            data.setTotalVoltage(orNull(values[0]));
+            data.setCurrent(orNull(values[1]));
+            data.setTemperature(orNull(values[2]));
+            data.setRemainingCapacity(orNull(values[3]));
+            data.setChargeFetStatus((fet & 0b0100) != 0 ? (fet & 0b0001) != 0 : null);
+            data.setDischargeFetStatus((fet & 0b1000) != 0 ? (fet & 0b0010) != 0 : null);
+            String deviceId = dictionary[device];
+            data.setDeviceId(deviceId.isEmpty() ? null : deviceId);
+            data.setCellVoltages(cellValues);
+            visitor.accept(data);
+        }
+    }
+
+    private static int encodeSmall(BitOutput out, int value, int previous, int bits) {
+        if (value == previous) {
+            out.writeBit(false);
+        } else {
+            out.writeBit(true);
+            out.write(value, bits);
+        }
+        return value;
+    }
+
+    private static int decodeSmall(BitInput in, int previous, int bits) {
+        return in.readBit() ? (int) in.read(bits) : previous;
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    /**
+     * Delta-of-delta state for one monotonic-ish long column.
+     */
+    private static final class DeltaState {
+        private long previous;
+        private long previousDelta;
+
+        void encode(BitOutput out, long value, boolean first) {
+            if (first) {
+                out.write(value, 64);
+            } else {
+                long delta = value - previous;
+                long dod = delta - previousDelta;
+                if (dod == 0) {
+                    out.writeBit(false);
+                } else if (fits(dod, 7)) {
+                    out.write(0b10, 2);
+                    out.write(dod, 7);
+                } else if (fits(dod, 9)) {
+                    out.write(0b110, 3);
+                    out.write(dod, 9);
+                } else if (fits(dod, 12)) {
+                    out.write(0b1110, 4);
+                    out.write(dod, 12);
+                } else {
+                    out.write(0b1111, 4);
+                    out.write(dod, 64);
+                }
+                previousDelta = delta;
+            }
+            previous = value;
+        }
+
+        long decode(BitInput in, boolean first) {
+            if (first) {
+                previous = in.read(64);
+                return previous;
+            }
+            long dod;
+            if (!in.readBit()) {
+                dod = 0;
+            } else if (!in.readBit()) {
+                dod = signExtend(in.read(7), 7);
+            } else if (!in.readBit()) {
+                dod = signExtend(in.read(9), 9);
+            } else if (!in.readBit()) {
+                dod = signExtend(in.read(12), 12);
+            } else {
+                dod = in.read(64);
+            }
+            previousDelta += dod;
+            previous += previousDelta;
+            return previous;
+        }
+
+        private static boolean fits(long value, int bits) {
+            long limit = 1L << (bits - 1);
+            return value >= -limit && value < limit;
+        }
+
+        private static long signExtend(long value, int bits) {
+            return (value << (64 - bits)) >> (64 - bits);
+        }
+    }
+
+    /**
+     * XOR state for one double column: previous bits and the previous meaningful-bit window.
+     */
+    private static final class XorState {
+        private long previous;
+        private int leading = -1;
+        private int trailing;
+
+        static XorState[] array(int size) {
+            XorState[] states = new XorState[size];
+            for (int i = 0; i < size; i++) {
+                states[i] = new XorState();
+            }
+            return states;
+        }
+
+        static XorState[] ensure(XorState[] states, int size) {
+            if (states.length >= size) {
+                return states;
+            }
+            XorState[] grown = Arrays.copyOf(states, size);
+            for (int i = states.length; i < size; i++) {
+                grown[i] = new XorState();
+            }
+            return grown;
+        }
+
+        void encode(BitOutput out, double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            long xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                out.writeBit(false);
+                return;
+            }
+            out.writeBit(true);
+            int lz = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int tz = Long.numberOfTrailingZeros(xor);
+            if (leading >= 0 && lz >= leading && tz >= trailing) {
+                // 이전 유효 비트 구간 안에 들어가면 구간 정보 없이 값만 기록
+                out.writeBit(false);
+                out.write(xor >>> trailing, 64 - leading - trailing);
+            } else {
+                int significant = 64 - lz - tz;
+                out.writeBit(true);
+                out.write(lz, 5);
+                out.write(significant - 1, 6);
+                out.write(xor >>> tz, significant);
+                leading = lz;
+                trailing = tz;
+            }
+        }
+
+        double decode(BitInput in) {
+            if (in.readBit()) {
+                if (in.readBit()) {
+                    leading = (int) in.read(5);
+                    int significant = (int) in.read(6) + 1;
+                    trailing = 64 - leading - significant;
+                }
+                long xor = in.read(64 - leading - trailing) << trailing;
+                previous ^= xor;
+            }
+            return Double.longBitsToDouble(previous);
+        }
+    }
+}
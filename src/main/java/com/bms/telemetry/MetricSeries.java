@@ -0,0 +1,42 @@
+package com.bms.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Growable (timestamp, value) series backed by two primitive arrays. timestamp는 epoch millis.
+ */
+public final class MetricSeries {
+
+    private long[] timestamps;
+    private double[] values;
+    private int size;
+
+    public MetricSeries(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    public void add(long timestamp, double value) {
+        if (size == timestamps.length) {
+            int capacity = size * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        timestamps[size] = timestamp;
+        values[size] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long[] timestamps() {
+        return size == timestamps.length ? timestamps : Arrays.copyOf(timestamps, size);
+    }
+
+    public double[] values() {
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,171 @@
+package com.bms.telemetry;
+
+import com.bms.model.BmsData;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-capacity ring of fixed-width samples for one device, stored off-heap in a direct ByteBuffer.
+ *
+ * <pre>
+ * long    id (Long.MIN_VALUE = null)
+ * long    timestamp key, {@link #key(LocalDateTime)}
+ * byte    FET bits ({@link SampleRecordCodec#fetBits}), byte padding
+ * short   cell count (-1 = null)
+ * int     padding
+ * double  total voltage, current, temperature, remaining capacity (NaN = null)
+ * double  cells, maxCells slots
+ * </pre>
+ *
+ * 힙에는 링 하나당 작은 객체만 남고 샘플 데이터는 모두 direct buffer에 있다. 가득 차면 가장 오래된 샘플을 덮어쓴다.
+ */
+public final class OffHeapSampleRing {
+
+    private static final int HEADER = 8 + 8 + 1 + 1 + 2 + 4;
+    private static final int FIELDS_OFFSET = HEADER;
+    private static final int CELLS_OFFSET = FIELDS_OFFSET + 4 * 8;
+    private static final long NO_ID = Long.MIN_VALUE;
+
+    private final String deviceId;
+    private final int capacity;
+    private final int maxCells;
+    private final int recordSize;
+    private final ByteBuffer buffer;
+
+    private int head;
+    private int size;
+    // 이 시각(key) 이후의 이 기기 샘플은 모두 링에 있다
+    private long coveredFrom = Long.MIN_VALUE;
+
+    public OffHeapSampleRing(String deviceId, int capacity, int maxCells) {
+        this.deviceId = deviceId;
+        this.capacity = capacity;
+        this.maxCells = maxCells;
+        this.recordSize = CELLS_OFFSET + maxCells * 8;
+        this.buffer = ByteBuffer.allocateDirect(capacity * recordSize).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Order-preserving long for a timestamp, exact to the nanosecond (UTC is only an encoding here).
+     */
+    public static long key(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano();
+    }
+
+    public static LocalDateTime fromKey(long key) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(key, 1_000_000_000L),
+                (int) Math.floorMod(key, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    public synchronized void append(BmsData data) {
+        long timestamp = key(data.getTimestamp());
+        double[] cells = data.getCellVoltages();
+        if (cells != null && cells.length > maxCells) {
+            // 고정 폭에 들어가지 않는 샘플: 링을 비우고 이후 구간만 보장한다
+            size = 0;
+            coveredFrom = timestamp + 1;
+            return;
+        }
+        if (size == capacity) {
+            // 가장 오래된 샘플을 덮어쓰므로 보장 구간이 그 샘플 이후로 줄어든다
+            coveredFrom = Math.max(coveredFrom, buffer.getLong(slotOffset(head) + 8) + 1);
+        }
+
+        int offset = slotOffset(head);
+        buffer.putLong(offset, data.getId() != null ? data.getId() : NO_ID);
+        buffer.putLong(offset + 8, timestamp);
+        buffer.put(offset + 16, SampleRecordCodec.fetBits(data.getChargeFetStatus(), data.getDischargeFetStatus()));
+        buffer.putShort(offset + 18, (short) (cells != null ? cells.length : -1));
+        buffer.putDouble(offset + FIELDS_OFFSET, orNaN(data.getTotalVoltage()));
+        buffer.putDouble(offset + FIELDS_OFFSET + 8, orNaN(data.getCurrent()));
+        buffer.putDouble(offset + FIELDS_OFFSET + 16, orNaN(data.getTemperature()));
+        buffer.putDouble(offset + FIELDS_OFFSET + 24, orNaN(data.getRemainingCapacity()));
+        if (cells != null) {
+            for (int c = 0; c < cells.length; c++) {
+                buffer.putDouble(offset + CELLS_OFFSET + c * 8, cells[c]);
+            }
+        }
+        head = (head + 1) % capacity;
+        size = Math.min(size + 1, capacity);
+    }
+
+    /**
+     * Earliest timestamp key from which every sample of this device is guaranteed to be in the ring.
+     */
+    public synchronized long coveredFrom() {
+        return coveredFrom;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long offHeapBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Visits samples with a timestamp key in [fromKey, toKey], most recently appended first.
+     * 타임스탬프만 읽고 범위 밖이면 BmsData를 만들지 않는다.
+     */
+    public synchronized void forEachBetween(long fromKey, long toKey, Consumer<BmsData> visitor) {
+        for (int i = 1; i <= size; i++) {
+            int offset = slotOffset(Math.floorMod(head - i, capacity));
+            long timestamp = buffer.getLong(offset + 8);
+            if (timestamp >= fromKey && timestamp <= toKey) {
+                visitor.accept(read(offset, timestamp));
+            }
+        }
+    }
+
+    /**
+     * Visits the {@code limit} most recently appended samples, newest first.
+     */
+    public synchronized void forEachNewest(int limit, Consumer<BmsData> visitor) {
+        int count = Math.min(limit, size);
+        for (int i = 1; i <= count; i++) {
+            int offset = slotOffset(Math.floorMod(head - i, capacity));
+            visitor.accept(read(offset, buffer.getLong(offset + 8)));
+        }
+    }
+
+    private BmsData read(int offset, long timestamp) {
+        BmsData data = new BmsData();
+        long id = buffer.getLong(offset);
+        data.setId(id != NO_ID ? id : null);
+        data.setDeviceId(deviceId);
+        data.setTimestamp(fromKey(timestamp));
+        int fetBits = buffer.get(offset + 16);
+        data.setChargeFetStatus((fetBits & 0b0100) != 0 ? (fetBits & 0b0001) != 0 : null);
+        data.setDischargeFetStatus((fetBits & 0b1000) != 0 ? (fetBits & 0b0010) != 0 : null);
+        data.setTotalVoltage(orNull(buffer.getDouble(offset + FIELDS_OFFSET)));
+        data.setCurrent(orNull(buffer.getDouble(offset + FIELDS_OFFSET + 8)));
+        data.setTemperature(orNull(buffer.getDouble(offset + FIELDS_OFFSET + 16)));
+        data.setRemainingCapacity(orNull(buffer.getDouble(offset + FIELDS_OFFSET + 24)));
+        int cellCount = buffer.getShort(offset + 18);
+        if (cellCount >= 0) {
+            double[] cells = new double[cellCount];
+            for (int c = 0; c < cellCount; c++) {
+                cells[c] = buffer.getDouble(offset + CELLS_OFFSET + c * 8);
+            }
+            data.setCellVoltages(cells);
+        }
+        return data;
+    }
+
+    private int slotOffset(int slot) {
+        return slot * recordSize;
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
@@ -0,0 +1,124 @@
+package com.bms.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable relative-error quantile sketch (DDSketch style, logarithmic buckets).
+ *
+ * 값 x는 index = ceil(log_gamma(|x|)) 버킷에 세고, 버킷 대표값의 상대 오차는 relativeAccuracy 이하이다.
+ * 음수는 별도 저장소, 0 근처 값은 zeroCount 로 센다. 같은 정확도의 스케치끼리는 버킷 단위로 합칠 수 있다.
+ */
+public final class QuantileSketch {
+
+    private static final double MIN_INDEXABLE = 1e-9;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final BucketStore positive = new BucketStore();
+    private final BucketStore negative = new BucketStore();
+    private long zeroCount;
+
+    public QuantileSketch(double relativeAccuracy) {
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public void add(double value) {
+        if (value > MIN_INDEXABLE) {
+            positive.add(index(value), 1);
+        } else if (value < -MIN_INDEXABLE) {
+            negative.add(index(-value), 1);
+        } else {
+            zeroCount++;
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracy");
+        }
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+    }
+
+    public long count() {
+        return positive.total + negative.total + zeroCount;
+    }
+
+    /**
+     * Approximate value at quantile q in [0, 1], NaN when empty.
+     */
+    public double quantile(double q) {
+        long count = count();
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        // 오름차순: 큰 음수(절댓값이 큰 인덱스)부터, 0, 작은 양수부터
+        long seen = 0;
+        for (int i = negative.counts.length - 1; i >= 0; i--) {
+            seen += negative.counts[i];
+            if (seen > rank) {
+                return -value(negative.offset + i);
+            }
+        }
+        seen += zeroCount;
+        if (seen > rank) {
+            return 0;
+        }
+        for (int i = 0; i < positive.counts.length; i++) {
+            seen += positive.counts[i];
+            if (seen > rank) {
+                return value(positive.offset + i);
+            }
+        }
+        return value(positive.offset + positive.counts.length - 1);
+    }
+
+    private int index(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    private double value(int index) {
+        // 버킷 (gamma^(i-1), gamma^i] 의 상대 오차를 최소화하는 대표값
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    /**
+     * Dense counts for a contiguous index range, grown on demand.
+     */
+    private static final class BucketStore {
+        private long[] counts = new long[0];
+        private int offset;
+        private long total;
+
+        void add(int index, long count) {
+            if (counts.length == 0) {
+                counts = new long[16];
+                offset = index - 8;
+            }
+            if (index < offset) {
+                int shift = offset - index;
+                long[] grown = new long[counts.length + shift];
+                System.arraycopy(counts, 0, grown, shift, counts.length);
+                counts = grown;
+                offset = index;
+            } else if (index >= offset + counts.length) {
+                counts = Arrays.copyOf(counts, index - offset + 1);
+            }
+            counts[index - offset] += count;
+            total += count;
+        }
+
+        void merge(BucketStore other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) {
+                    add(other.offset + i, other.counts[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.bms.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable min/max/sum/last accumulator for one time bucket.
+ *
+ * 열 0~3은 총 전압, 전류, 온도, 잔여용량, 4~5는 샘플별 셀 편차(max-min, 표준편차)이고 6번부터 셀 전압이다.
+ * NaN(null) 값은 집계에서 제외한다.
+ */
+public final class RollupBucket {
+
+    public static final int CELL_SPREAD = 4;
+    public static final int CELL_STDDEV = 5;
+    public static final int FIELDS = 6;
+
+    private long start = Long.MIN_VALUE;
+    private long samples;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private int columns;
+    private double[] min = new double[0];
+    private double[] max = new double[0];
+    private double[] sum = new double[0];
+    private long[] counts = new long[0];
+    private double[] last = new double[0];
+
+    RollupBucket(long start) {
+        reset(start);
+    }
+
+    void reset(long start) {
+        this.start = start;
+        this.samples = 0;
+        this.lastTimestamp = Long.MIN_VALUE;
+        this.columns = 0;
+        Arrays.fill(counts, 0);
+    }
+
+    void add(long timestamp, double[] fields, double[] cells) {
+        int cellCount = cells != null ? cells.length : 0;
+        ensureColumns(FIELDS + cellCount);
+        boolean newest = timestamp >= lastTimestamp;
+        for (int c = 0; c < FIELDS; c++) {
+            accept(c, fields[c], newest);
+        }
+        for (int c = 0; c < cellCount; c++) {
+            accept(FIELDS + c, cells[c], newest);
+        }
+        samples++;
+        if (newest) {
+            lastTimestamp = timestamp;
+        }
+    }
+
+    /**
+     * Folds another bucket into this one (e.g. 1m buckets into a 5m bucket, or several devices into one series).
+     */
+    void merge(RollupBucket other) {
+        ensureColumns(other.columns);
+        boolean newest = other.lastTimestamp >= lastTimestamp;
+        for (int c = 0; c < other.columns; c++) {
+            long n = other.counts[c];
+            if (n == 0) {
+                continue;
+            }
+            if (counts[c] == 0) {
+                min[c] = other.min[c];
+                max[c] = other.max[c];
+                sum[c] = other.sum[c];
+                last[c] = other.last[c];
+            } else {
+                min[c] = Math.min(min[c], other.min[c]);
+                max[c] = Math.max(max[c], other.max[c]);
+                sum[c] += other.sum[c];
+                if (newest) {
+                    last[c] = other.last[c];
+                }
+            }
+            counts[c] += n;
+        }
+        samples += other.samples;
+        lastTimestamp = Math.max(lastTimestamp, other.lastTimestamp);
+    }
+
+    public long start() {
+        return start;
+    }
+
+    public long samples() {
+        return samples;
+    }
+
+    public int cellCount() {
+        return Math.max(0, columns - FIELDS);
+    }
+
+    /**
+     * Column stats, or NaN when the column had no values in this bucket.
+     */
+    public double min(int column) {
+        return has(column) ? min[column] : Double.NaN;
+    }
+
+    public double max(int column) {
+        return has(column) ? max[column] : Double.NaN;
+    }
+
+    public double avg(int column) {
+        return has(column) ? sum[column] / counts[column] : Double.NaN;
+    }
+
+    public double last(int column) {
+        return has(column) ? last[column] : Double.NaN;
+    }
+
+    private boolean has(int column) {
+        return column < columns && counts[column] > 0;
+    }
+
+    private void accept(int column, double value, boolean newest) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (counts[column] == 0) {
+            min[column] = value;
+            max[column] = value;
+            sum[column] = value;
+            last[column] = value;
+        } else {
+            min[column] = Math.min(min[column], value);
+            max[column] = Math.max(max[column], value);
+            sum[column] += value;
+            if (newest) {
+                last[column] = value;
+            }
+        }
+        counts[column]++;
+    }
+
+    private void ensureColumns(int required) {
+        if (required > counts.length) {
+            min = Arrays.copyOf(min, required);
+            max = Arrays.copyOf(max, required);
+            sum = Arrays.copyOf(sum, required);
+            counts = Arrays.copyOf(counts, required);
+            last = Arrays.copyOf(last, required);
+        }
+        columns = Math.max(columns, required);
+    }
+}
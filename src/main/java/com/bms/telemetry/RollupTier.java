@@ -0,0 +1,91 @@
+package com.bms.telemetry;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One rollup resolution: a fixed ring of buckets per device, overwritten as time moves on.
+ *
+ * 슬롯 = (timestamp / resolution) % capacity 이므로 보존 기간은 resolution * capacity 이다.
+ * 버킷 객체는 재사용하므로 수집 후에는 할당이 거의 없다.
+ */
+public final class RollupTier {
+
+    private final String name;
+    private final long resolutionMillis;
+    private final int capacity;
+    private final Map<String, RollupBucket[]> rings = new ConcurrentHashMap<>();
+
+    public RollupTier(String name, long resolutionMillis, int capacity) {
+        this.name = name;
+        this.resolutionMillis = resolutionMillis;
+        this.capacity = capacity;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long resolutionMillis() {
+        return resolutionMillis;
+    }
+
+    public long retentionMillis() {
+        return resolutionMillis * capacity;
+    }
+
+    public int deviceCount() {
+        return rings.size();
+    }
+
+    public void add(String deviceId, long timestamp, double[] fields, double[] cells) {
+        RollupBucket[] ring = rings.computeIfAbsent(deviceId, id -> new RollupBucket[capacity]);
+        long start = Math.floorDiv(timestamp, resolutionMillis) * resolutionMillis;
+        int slot = (int) Math.floorMod(Math.floorDiv(timestamp, resolutionMillis), (long) capacity);
+        synchronized (ring) {
+            RollupBucket bucket = ring[slot];
+            if (bucket == null) {
+                bucket = new RollupBucket(start);
+                ring[slot] = bucket;
+            } else if (bucket.start() != start) {
+                if (bucket.start() > start) {
+                    // 보존 기간보다 오래된 샘플
+                    return;
+                }
+                bucket.reset(start);
+            }
+            bucket.add(timestamp, fields, cells);
+        }
+    }
+
+    /**
+     * Merges this tier's buckets in [from, to] into {@code target}, keyed by the start of the
+     * {@code targetResolutionMillis} bucket they fall into. {@code deviceId == null} merges every device.
+     */
+    public void collect(String deviceId, long from, long to, long targetResolutionMillis, TreeMap<Long, RollupBucket> target) {
+        if (deviceId != null) {
+            RollupBucket[] ring = rings.get(deviceId);
+            if (ring != null) {
+                collect(ring, from, to, targetResolutionMillis, target);
+            }
+            return;
+        }
+        for (RollupBucket[] ring : rings.values()) {
+            collect(ring, from, to, targetResolutionMillis, target);
+        }
+    }
+
+    private void collect(RollupBucket[] ring, long from, long to, long targetResolutionMillis, TreeMap<Long, RollupBucket> target) {
+        synchronized (ring) {
+            for (RollupBucket bucket : ring) {
+                if (bucket == null || bucket.samples() == 0
+                        || bucket.start() + resolutionMillis <= from || bucket.start() > to) {
+                    continue;
+                }
+                long key = Math.floorDiv(bucket.start(), targetResolutionMillis) * targetResolutionMillis;
+                target.computeIfAbsent(key, RollupBucket::new).merge(bucket);
+            }
+        }
+    }
+}
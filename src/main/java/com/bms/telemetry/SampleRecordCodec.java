@@ -0,0 +1,141 @@
+package com.bms.telemetry;
+
+import com.bms.model.BmsData;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Record body layout used by the segment store (absolute get/put, buffer byte order).
+ *
+ * <pre>
+ * long    timestamp, epoch millis
+ * double  total voltage, current, temperature, remaining capacity (NaN = null)
+ * byte    FET bits: bit0 charge, bit1 discharge, bit2 charge valid, bit3 discharge valid
+ * byte    device id length n, then n UTF-8 bytes
+ * short   cell count (-1 = null), then float64 per cell
+ * </pre>
+ */
+public final class SampleRecordCodec {
+
+    private static final int FIXED_SIZE = 8 + 4 * 8 + 1 + 1 + 2;
+    static final int MIN_BODY_SIZE = FIXED_SIZE;
+
+    private SampleRecordCodec() {
+    }
+
+    public static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    static byte[] deviceIdBytes(BmsData data) {
+        if (data.getDeviceId() == null) {
+            return new byte[0];
+        }
+        byte[] bytes = data.getDeviceId().getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 255) {
+            throw new IllegalArgumentException("Device id too long for segment record: " + data.getDeviceId());
+        }
+        return bytes;
+    }
+
+    static int bodySize(BmsData data, byte[] deviceId) {
+        int cells = data.getCellVoltages() != null ? data.getCellVoltages().length : 0;
+        return FIXED_SIZE + deviceId.length + cells * 8;
+    }
+
+    static void write(ByteBuffer buffer, int offset, BmsData data, byte[] deviceId) {
+        int pos = offset;
+        buffer.putLong(pos, toEpochMillis(data.getTimestamp()));
+        pos += 8;
+        buffer.putDouble(pos, orNaN(data.getTotalVoltage()));
+        buffer.putDouble(pos + 8, orNaN(data.getCurrent()));
+        buffer.putDouble(pos + 16, orNaN(data.getTemperature()));
+        buffer.putDouble(pos + 24, orNaN(data.getRemainingCapacity()));
+        pos += 32;
+        buffer.put(pos++, fetBits(data.getChargeFetStatus(), data.getDischargeFetStatus()));
+        buffer.put(pos++, (byte) deviceId.length);
+        buffer.put(pos, deviceId);
+        pos += deviceId.length;
+
+        double[] cells = data.getCellVoltages();
+        buffer.putShort(pos, (short) (cells != null ? cells.length : -1));
+        pos += 2;
+        if (cells != null) {
+            for (double cell : cells) {
+                buffer.putDouble(pos, cell);
+                pos += 8;
+            }
+        }
+    }
+
+    /**
+     * Timestamp of the record body at the given offset, read without decoding the rest.
+     */
+    static long readTimestamp(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset);
+    }
+
+    static BmsData read(ByteBuffer buffer, int offset, long id) {
+        BmsData data = new BmsData();
+        data.setId(id);
+        int pos = offset;
+        data.setTimestamp(fromEpochMillis(buffer.getLong(pos)));
+        pos += 8;
+        data.setTotalVoltage(orNull(buffer.getDouble(pos)));
+        data.setCurrent(orNull(buffer.getDouble(pos + 8)));
+        data.setTemperature(orNull(buffer.getDouble(pos + 16)));
+        data.setRemainingCapacity(orNull(buffer.getDouble(pos + 24)));
+        pos += 32;
+
+        int fetBits = buffer.get(pos++);
+        data.setChargeFetStatus((fetBits & 0b0100) != 0 ? (fetBits & 0b0001) != 0 : null);
+        data.setDischargeFetStatus((fetBits & 0b1000) != 0 ? (fetBits & 0b0010) != 0 : null);
+
+        int deviceIdLength = buffer.get(pos++) & 0xFF;
+        if (deviceIdLength > 0) {
+            byte[] deviceId = new byte[deviceIdLength];
+            buffer.get(pos, deviceId);
+            data.setDeviceId(new String(deviceId, StandardCharsets.UTF_8));
+        }
+        pos += deviceIdLength;
+
+        int cellCount = buffer.getShort(pos);
+        pos += 2;
+        if (cellCount >= 0) {
+            double[] cells = new double[cellCount];
+            for (int i = 0; i < cellCount; i++) {
+                cells[i] = buffer.getDouble(pos);
+                pos += 8;
+            }
+            data.setCellVoltages(cells);
+        }
+        return data;
+    }
+
+    static byte fetBits(Boolean charge, Boolean discharge) {
+        int bits = 0;
+        if (charge != null) {
+            bits |= 0b0100 | (charge ? 0b0001 : 0);
+        }
+        if (discharge != null) {
+            bits |= 0b1000 | (discharge ? 0b0010 : 0);
+        }
+        return (byte) bits;
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
@@ -0,0 +1,60 @@
+package com.bms.telemetry;
+
+/**
+ * Single-pass scalar kernel. 분산은 첫 유효 셀을 기준으로 이동한 값의 제곱합으로 구해 (셀 간 차이가 mV 수준이어도)
+ * 자릿수 손실을 줄인다.
+ */
+public final class ScalarCellStatsKernel implements CellStatsKernel {
+
+    @Override
+    public CellStats compute(double[] cells) {
+        if (cells == null) {
+            return CellStats.EMPTY;
+        }
+        int count = 0;
+        int minIndex = -1;
+        int maxIndex = -1;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double shift = Double.NaN;
+        double sum = 0;
+        double sumSquares = 0;
+        for (int i = 0; i < cells.length; i++) {
+            double value = cells[i];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            if (count == 0) {
+                shift = value;
+            }
+            if (value < min) {
+                min = value;
+                minIndex = i;
+            }
+            if (value > max) {
+                max = value;
+                maxIndex = i;
+            }
+            double shifted = value - shift;
+            sum += shifted;
+            sumSquares += shifted * shifted;
+            count++;
+        }
+        if (count == 0) {
+            return CellStats.EMPTY;
+        }
+        return of(count, min, max, shift, sum, sumSquares, minIndex, maxIndex);
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    static CellStats of(int count, double min, double max, double shift, double shiftedSum, double shiftedSquares,
+                        int minIndex, int maxIndex) {
+        double shiftedMean = shiftedSum / count;
+        double variance = Math.max(0, shiftedSquares / count - shiftedMean * shiftedMean);
+        return new CellStats(count, min, max, shift + shiftedMean, Math.sqrt(variance), minIndex, maxIndex);
+    }
+}
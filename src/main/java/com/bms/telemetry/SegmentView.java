@@ -0,0 +1,40 @@
+package com.bms.telemetry;
+
+import com.bms.model.BmsData;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Read side shared by raw mapped segments and their compressed form, so the log can query either transparently.
+ */
+interface SegmentView {
+
+    long number();
+
+    long recordCount();
+
+    long sizeBytes();
+
+    boolean isEmpty();
+
+    long minTimestamp();
+
+    long maxTimestamp();
+
+    /**
+     * Visits records whose timestamp is within [from, to], oldest block first.
+     */
+    void scan(long from, long to, Consumer<BmsData> visitor);
+
+    /**
+     * Visits the records of each block overlapping [from, to], newest block first, one block per call, and stops
+     * at the first overlapping block whose newest timestamp {@code continueAt} rejects.
+     * 블록 안의 레코드는 저장 순서 그대로 전달한다.
+     */
+    void scanBlocksDescending(long from, long to, LongPredicate continueAt, Consumer<List<BmsData>> blockVisitor);
+
+    void delete() throws IOException;
+}
@@ -0,0 +1,135 @@
+package com.bms.telemetry;
+
+import com.bms.dto.BmsStatusDeltaDto;
+import com.bms.dto.BmsStatusDto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delta encoder of one device's status stream.
+ *
+ * 마지막 샘플이 아니라 마지막으로 "보낸" 값과 비교하므로, epsilon 보다 작은 변화가 누적되어도 결국 전송된다.
+ * 바뀐 항목이 없으면 아무것도 보내지 않고 seq 도 올리지 않는다. 셀 수가 바뀌면 keyframe 을 보낸다.
+ * 스레드 안전하지 않으므로 기기별로 직렬화된 수집 워커에서 사용한다.
+ */
+public final class StatusDeltaEncoder {
+
+    private static final int TOTAL_VOLTAGE = 0;
+    private static final int CURRENT = 1;
+    private static final int TEMPERATURE = 2;
+    private static final int REMAINING_CAPACITY = 3;
+    private static final int FIELDS = 4;
+
+    /**
+     * Change thresholds. fieldEpsilon 은 (총 전압 V, 전류 A, 온도 °C, 잔여용량 %) 순서의 4개 값이다.
+     */
+    public record Settings(double[] fieldEpsilon, double cellEpsilon, long keyframeIntervalMillis) {
+    }
+
+    private final Settings settings;
+
+    private final double[] sentFields = new double[FIELDS];
+    private final double[] fields = new double[FIELDS];
+    private Boolean sentChargeFet;
+    private Boolean sentDischargeFet;
+    private double[] sentCells;
+    private long seq;
+    private long lastKeyframe;
+    private long keyframeEpoch = -1;
+
+    public StatusDeltaEncoder(Settings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Encodes one sample. Returns null when nothing changed beyond epsilon.
+     *
+     * @param epoch keyframe 요청 세대 (새 구독자가 생길 때마다 증가), 마지막 keyframe 이후 바뀌었으면 keyframe 을 보낸다
+     */
+    public BmsStatusDeltaDto encode(BmsStatusDto status, long timestamp, long epoch) {
+        List<Double> cellList = status.getCellVoltages();
+        int cellCount = cellList != null ? cellList.size() : 0;
+        fields[TOTAL_VOLTAGE] = orNaN(status.getTotalVoltage());
+        fields[CURRENT] = orNaN(status.getCurrent());
+        fields[TEMPERATURE] = orNaN(status.getTemperature());
+        fields[REMAINING_CAPACITY] = orNaN(status.getRemainingCapacity());
+
+        if (epoch != keyframeEpoch || sentCells == null || sentCells.length != cellCount
+                || timestamp - lastKeyframe >= settings.keyframeIntervalMillis()) {
+            return keyframe(status, cellList, timestamp, epoch);
+        }
+
+        BmsStatusDeltaDto delta = null;
+        for (int f = 0; f < FIELDS; f++) {
+            if (changed(sentFields[f], fields[f], settings.fieldEpsilon()[f])) {
+                delta = delta != null ? delta : newDelta(status);
+                sentFields[f] = fields[f];
+                switch (f) {
+                    case TOTAL_VOLTAGE -> delta.setTotalVoltage(fields[f]);
+                    case CURRENT -> delta.setCurrent(fields[f]);
+                    case TEMPERATURE -> delta.setTemperature(fields[f]);
+                    default -> delta.setRemainingCapacity(fields[f]);
+                }
+            }
+        }
+        if (status.getChargeFetStatus() != null && !status.getChargeFetStatus().equals(sentChargeFet)) {
+            delta = delta != null ? delta : newDelta(status);
+            sentChargeFet = status.getChargeFetStatus();
+            delta.setChargeFetStatus(sentChargeFet);
+        }
+        if (status.getDischargeFetStatus() != null && !status.getDischargeFetStatus().equals(sentDischargeFet)) {
+            delta = delta != null ? delta : newDelta(status);
+            sentDischargeFet = status.getDischargeFetStatus();
+            delta.setDischargeFetStatus(sentDischargeFet);
+        }
+        Map<Integer, Double> cells = null;
+        for (int c = 0; c < cellCount; c++) {
+            Double value = cellList.get(c);
+            if (value != null && changed(sentCells[c], value, settings.cellEpsilon())) {
+                cells = cells != null ? cells : new LinkedHashMap<>();
+                sentCells[c] = value;
+                cells.put(c, value);
+            }
+        }
+        if (cells != null) {
+            delta = delta != null ? delta : newDelta(status);
+            delta.setCells(cells);
+        }
+        return delta;
+    }
+
+    private BmsStatusDeltaDto keyframe(BmsStatusDto status, List<Double> cellList, long timestamp, long epoch) {
+        System.arraycopy(fields, 0, sentFields, 0, FIELDS);
+        sentChargeFet = status.getChargeFetStatus();
+        sentDischargeFet = status.getDischargeFetStatus();
+        sentCells = cellList != null ? CellVoltages.toArray(cellList) : new double[0];
+        lastKeyframe = timestamp;
+        keyframeEpoch = epoch;
+        return new BmsStatusDeltaDto(status.getDeviceId(), ++seq, true, status.getTimestamp(),
+                status.getTotalVoltage(), status.getCurrent(), status.getTemperature(),
+                status.getRemainingCapacity(), status.getChargeFetStatus(), status.getDischargeFetStatus(),
+                cellList, null);
+    }
+
+    private BmsStatusDeltaDto newDelta(BmsStatusDto status) {
+        BmsStatusDeltaDto delta = new BmsStatusDeltaDto();
+        delta.setDeviceId(status.getDeviceId());
+        delta.setSeq(++seq);
+        delta.setTimestamp(status.getTimestamp());
+        return delta;
+    }
+
+    private static boolean changed(double sent, double value, double epsilon) {
+        if (Double.isNaN(value)) {
+            // 값이 빠진 샘플은 변경으로 보지 않는다
+            return false;
+        }
+        return Double.isNaN(sent) || Math.abs(value - sent) >= epsilon;
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+}
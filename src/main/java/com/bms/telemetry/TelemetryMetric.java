@@ -0,0 +1,52 @@
+package com.bms.telemetry;
+
+import com.bms.model.BmsData;
+
+/**
+ * Single-metric series that can be read as (timestamp, value) pairs without loading whole samples.
+ */
+public enum TelemetryMetric {
+    TEMPERATURE("temperature"),
+    CURRENT("current"),
+    VOLTAGE("totalVoltage"),
+    CAPACITY("remainingCapacity"),
+    CELL("cellVoltages");
+
+    private final String attribute;
+
+    TelemetryMetric(String attribute) {
+        this.attribute = attribute;
+    }
+
+    /**
+     * BmsData JPA attribute holding this metric.
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * @throws IllegalArgumentException for an unknown metric name
+     */
+    public static TelemetryMetric fromName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+
+    /**
+     * Metric value of a sample, NaN when missing (or when the cell index is out of range).
+     */
+    public double extract(BmsData data, int cell) {
+        Double value = switch (this) {
+            case TEMPERATURE -> data.getTemperature();
+            case CURRENT -> data.getCurrent();
+            case VOLTAGE -> data.getTotalVoltage();
+            case CAPACITY -> data.getRemainingCapacity();
+            case CELL -> cellOf(data.getCellVoltages(), cell);
+        };
+        return value != null ? value : Double.NaN;
+    }
+
+    public static double cellOf(double[] cells, int cell) {
+        return cells != null && cell >= 0 && cell < cells.length ? cells[cell] : Double.NaN;
+    }
+}
@@ -0,0 +1,356 @@
+package com.bms.telemetry;
+
+import com.bms.model.BmsData;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+import java.util.zip.CRC32;
+
+/**
+ * One fixed-size, append-only segment file mapped into memory.
+ *
+ * 레코드 = [int body 길이][int CRC32][body]. 길이 0은 데이터 끝을 의미한다.
+ * blockRecords 개 레코드마다 블록을 나누고 블록별 (시작 offset, 최소/최대 timestamp)를 희소 인덱스로 유지한다.
+ * 쓰기는 단일 스레드, 읽기는 volatile 로 공개된 (블록 수, limit) 이전까지만 보므로 락 없이 동시에 수행된다.
+ */
+final class TelemetrySegment implements SegmentView {
+
+    static final int RECORD_HEADER = 8;
+    private static final int INDEX_MAGIC = 0x54534958; // "TSIX"
+
+    private final long number;
+    private final Path path;
+    private final int capacity;
+    private final int blockRecords;
+    private final MappedByteBuffer buffer;
+
+    // 희소 인덱스: 블록 시작 offset과 블록 내 timestamp 범위.
+    // 최대 블록 수로 미리 할당해 두고 크기를 바꾸지 않으므로 읽기 스레드가 배열 교체를 볼 일이 없다
+    private int[] blockOffsets;
+    private long[] blockMin;
+    private long[] blockMax;
+    private int recordsInBlock;
+    private int blockCount;
+    private long recordCount;
+
+    private int writePosition;
+    // 읽기 스레드에 공개되는 (블록 수 << 32 | limit). 한 번의 volatile 쓰기로 둘을 함께 공개하므로
+    // 이 값을 읽은 뒤에는 그 블록 수까지의 인덱스와 limit 이전 데이터가 모두 보인다
+    private volatile long published;
+    private volatile boolean sealed;
+
+    private TelemetrySegment(long number, Path path, int capacity, int blockRecords, MappedByteBuffer buffer) {
+        this.number = number;
+        this.path = path;
+        this.capacity = capacity;
+        this.blockRecords = blockRecords;
+        this.buffer = buffer;
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int maxBlocks = capacity / (RECORD_HEADER + SampleRecordCodec.MIN_BODY_SIZE) / blockRecords + 1;
+        this.blockOffsets = new int[maxBlocks];
+        this.blockMin = new long[maxBlocks];
+        this.blockMax = new long[maxBlocks];
+    }
+
+    static Path segmentPath(Path dir, long number) {
+        return dir.resolve(String.format("segment-%010d.seg", number));
+    }
+
+    static Path indexPath(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return segmentPath.resolveSibling(name.substring(0, name.length() - 4) + ".idx");
+    }
+
+    static TelemetrySegment create(Path dir, long number, int capacity, int blockRecords) throws IOException {
+        Path path = segmentPath(dir, number);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            return new TelemetrySegment(number, path, capacity, blockRecords, buffer);
+        }
+    }
+
+    /**
+     * Opens an existing segment. Sealed segments load their index sidecar; the active one is re-scanned and
+     * truncated after the last record with a valid checksum.
+     */
+    static TelemetrySegment open(Path path, long number, int blockRecords, boolean active) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int capacity = (int) channel.size();
+            MappedByteBuffer buffer = channel.map(
+                    active ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, capacity);
+            TelemetrySegment segment = new TelemetrySegment(number, path, capacity, blockRecords, buffer);
+            if (active || !segment.loadIndex()) {
+                segment.recover(active);
+            }
+            segment.sealed = !active;
+            return segment;
+        }
+    }
+
+    @Override
+    public long number() {
+        return number;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    @Override
+    public long recordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public long sizeBytes() {
+        return limit(published);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return limit(published) == 0;
+    }
+
+    @Override
+    public long minTimestamp() {
+        int blocks = blocks(published);
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < blocks; i++) {
+            min = Math.min(min, blockMin[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public long maxTimestamp() {
+        int blocks = blocks(published);
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < blocks; i++) {
+            max = Math.max(max, blockMax[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Appends one record. Returns false when the segment has no room left (caller rolls to a new segment).
+     */
+    boolean append(BmsData data) {
+        byte[] deviceId = SampleRecordCodec.deviceIdBytes(data);
+        int bodySize = SampleRecordCodec.bodySize(data, deviceId);
+        int recordOffset = writePosition;
+        // 끝 표시(길이 0)를 위한 4바이트 여유를 남긴다
+        if (recordOffset + RECORD_HEADER + bodySize + 4 > capacity) {
+            return false;
+        }
+
+        int bodyOffset = recordOffset + RECORD_HEADER;
+        SampleRecordCodec.write(buffer, bodyOffset, data, deviceId);
+        buffer.putInt(recordOffset + 4, crc(bodyOffset, bodySize));
+        // 길이는 마지막에 기록: 길이가 보이면 레코드가 완성된 것
+        buffer.putInt(recordOffset, bodySize);
+
+        index(recordOffset, SampleRecordCodec.readTimestamp(buffer, bodyOffset));
+        // JPA 저장처럼 저장 후 엔티티에 ID가 채워지도록 한다
+        data.setId(recordId(recordOffset));
+        writePosition = bodyOffset + bodySize;
+        publish();
+        return true;
+    }
+
+    /**
+     * Flushes the mapping, writes the index sidecar and marks the segment read-only.
+     */
+    void seal() throws IOException {
+        buffer.force();
+        writeIndex();
+        sealed = true;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void delete() throws IOException {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(indexPath(path));
+    }
+
+    @Override
+    public void scan(long from, long to, Consumer<BmsData> visitor) {
+        long snapshot = published;
+        int end = limit(snapshot);
+        int blocks = blocks(snapshot);
+        for (int b = 0; b < blocks; b++) {
+            if (blockMax[b] < from || blockMin[b] > to) {
+                continue;
+            }
+            int blockEnd = b + 1 < blocks ? blockOffsets[b + 1] : end;
+            scanRange(blockOffsets[b], blockEnd, from, to, visitor);
+        }
+    }
+
+    @Override
+    public void scanBlocksDescending(long from, long to, LongPredicate continueAt, Consumer<List<BmsData>> blockVisitor) {
+        long snapshot = published;
+        int end = limit(snapshot);
+        int blocks = blocks(snapshot);
+        for (int b = blocks - 1; b >= 0; b--) {
+            if (blockMax[b] < from || blockMin[b] > to) {
+                continue;
+            }
+            if (!continueAt.test(blockMax[b])) {
+                return;
+            }
+            int blockEnd = b + 1 < blocks ? blockOffsets[b + 1] : end;
+            List<BmsData> records = new ArrayList<>(blockRecords);
+            scanRange(blockOffsets[b], blockEnd, from, to, records::add);
+            if (!records.isEmpty()) {
+                blockVisitor.accept(records);
+            }
+        }
+    }
+
+    private void scanRange(int start, int end, long from, long to, Consumer<BmsData> visitor) {
+        int pos = start;
+        while (pos < end) {
+            int bodySize = buffer.getInt(pos);
+            int bodyOffset = pos + RECORD_HEADER;
+            // 범위 밖 레코드는 timestamp만 읽고 건너뛴다 (역직렬화 없음)
+            long timestamp = SampleRecordCodec.readTimestamp(buffer, bodyOffset);
+            if (timestamp >= from && timestamp <= to) {
+                visitor.accept(SampleRecordCodec.read(buffer, bodyOffset, recordId(pos)));
+            }
+            pos = bodyOffset + bodySize;
+        }
+    }
+
+    private long recordId(int offset) {
+        return (number << 32) | offset;
+    }
+
+    private void publish() {
+        published = ((long) blockCount << 32) | writePosition;
+    }
+
+    private static int limit(long published) {
+        return (int) published;
+    }
+
+    private static int blocks(long published) {
+        return (int) (published >>> 32);
+    }
+
+    private void index(int recordOffset, long timestamp) {
+        if (recordsInBlock == 0 || recordsInBlock >= blockRecords) {
+            blockOffsets[blockCount] = recordOffset;
+            blockMin[blockCount] = timestamp;
+            blockMax[blockCount] = timestamp;
+            blockCount++;
+            recordsInBlock = 0;
+        } else {
+            int current = blockCount - 1;
+            blockMin[current] = Math.min(blockMin[current], timestamp);
+            blockMax[current] = Math.max(blockMax[current], timestamp);
+        }
+        recordsInBlock++;
+        recordCount++;
+    }
+
+    private int crc(int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private void recover(boolean active) {
+        int pos = 0;
+        boolean corrupted = false;
+        while (pos + RECORD_HEADER <= capacity) {
+            int bodySize = buffer.getInt(pos);
+            if (bodySize <= 0) {
+                corrupted = bodySize < 0;
+                break;
+            }
+            int bodyOffset = pos + RECORD_HEADER;
+            if (bodyOffset + bodySize > capacity || buffer.getInt(pos + 4) != crc(bodyOffset, bodySize)) {
+                corrupted = true;
+                break;
+            }
+            index(pos, SampleRecordCodec.readTimestamp(buffer, bodyOffset));
+            pos = bodyOffset + bodySize;
+        }
+        if (active && corrupted) {
+            // 기록 도중 중단된 꼬리 레코드를 지워서 이후 append가 깨끗한 영역에 쓰이도록 한다
+            for (int i = pos; i < capacity; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        writePosition = pos;
+        publish();
+    }
+
+    private void writeIndex() throws IOException {
+        Path indexPath = indexPath(path);
+        Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(writePosition);
+            out.writeLong(recordCount);
+            out.writeInt(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                out.writeInt(blockOffsets[i]);
+                out.writeLong(blockMin[i]);
+                out.writeLong(blockMax[i]);
+            }
+        }
+        Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private boolean loadIndex() {
+        Path indexPath = indexPath(path);
+        if (!Files.exists(indexPath)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(indexPath))) {
+            if (in.readInt() != INDEX_MAGIC) {
+                return false;
+            }
+            int savedLimit = in.readInt();
+            long savedRecords = in.readLong();
+            int blocks = in.readInt();
+            if (blocks > blockOffsets.length) {
+                return false;
+            }
+            for (int i = 0; i < blocks; i++) {
+                blockOffsets[i] = in.readInt();
+                blockMin[i] = in.readLong();
+                blockMax[i] = in.readLong();
+            }
+            blockCount = blocks;
+            recordCount = savedRecords;
+            writePosition = savedLimit;
+            publish();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
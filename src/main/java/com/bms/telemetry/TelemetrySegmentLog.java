@@ -0,0 +1,303 @@
+package com.bms.telemetry;
+
+import com.bms.model.BmsData;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only telemetry log made of fixed-size memory-mapped segment files.
+ *
+ * 마지막 세그먼트만 쓰기 가능하고 나머지는 seal 되어 읽기 전용이다.
+ * 기동 시 seal 된 세그먼트는 인덱스 파일만 읽고, 활성 세그먼트만 다시 스캔해서 빠르게 복구한다.
+ * compressSealed 가 켜져 있으면 seal 된 세그먼트를 백그라운드에서 Gorilla 청크(.gor)로 압축하고 원본을 지운다.
+ */
+@Slf4j
+public class TelemetrySegmentLog implements AutoCloseable {
+
+    private static final Comparator<BmsData> NEWEST_FIRST =
+            Comparator.comparing(BmsData::getTimestamp).thenComparing(BmsData::getId).reversed();
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int blockRecords;
+    private final int retainSegments;
+    private final boolean compressSealed;
+    private final List<SegmentView> segments = new CopyOnWriteArrayList<>();
+    private final ExecutorService compactor;
+
+    private TelemetrySegment active;
+    private volatile BmsData latest;
+
+    public TelemetrySegmentLog(Path directory, int segmentBytes, int blockRecords, int retainSegments,
+                               boolean compressSealed) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.blockRecords = blockRecords;
+        this.retainSegments = retainSegments;
+        this.compressSealed = compressSealed;
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "telemetry-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    private void recover() throws IOException {
+        long started = System.nanoTime();
+        List<Path> files;
+        List<Path> leftovers;
+        try (Stream<Path> list = Files.list(directory)) {
+            List<Path> all = list.sorted().toList();
+            files = all.stream().filter(p -> p.getFileName().toString().endsWith(".seg")
+                    || p.getFileName().toString().endsWith(".gor")).toList();
+            leftovers = all.stream().filter(p -> p.getFileName().toString().endsWith(".tmp")).toList();
+        }
+        for (Path leftover : leftovers) {
+            // 압축(.gor.tmp)이나 인덱스 기록(.idx.tmp) 도중 중단되어 남은 임시 파일: 원본이 그대로 있으므로 지운다
+            Files.deleteIfExists(leftover);
+            log.info("Deleted leftover temporary file {}", leftover);
+        }
+        List<TelemetrySegment> pendingCompaction = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            long number = segmentNumber(file);
+            if (file.getFileName().toString().endsWith(".gor")) {
+                // 압축 후 원본 삭제 전에 중단된 경우: 완성된 청크가 있으므로 원본을 버린다
+                Path raw = TelemetrySegment.segmentPath(directory, number);
+                Files.deleteIfExists(raw);
+                Files.deleteIfExists(TelemetrySegment.indexPath(raw));
+                segments.add(CompressedSegment.open(file, number));
+                continue;
+            }
+            if (Files.exists(CompressedSegment.chunkPath(directory, number))) {
+                continue;
+            }
+            boolean last = i == files.size() - 1;
+            TelemetrySegment segment = TelemetrySegment.open(file, number, blockRecords, last);
+            segments.add(segment);
+            if (!last) {
+                pendingCompaction.add(segment);
+            }
+        }
+        if (segments.isEmpty() || !(segments.get(segments.size() - 1) instanceof TelemetrySegment)) {
+            long next = segments.isEmpty() ? 0 : segments.get(segments.size() - 1).number() + 1;
+            segments.add(TelemetrySegment.create(directory, next, segmentBytes, blockRecords));
+        }
+        active = (TelemetrySegment) segments.get(segments.size() - 1);
+        latest = findLatestByScan();
+        pendingCompaction.forEach(this::scheduleCompaction);
+
+        long records = segments.stream().mapToLong(SegmentView::recordCount).sum();
+        log.info("Telemetry segment log recovered {} segments / {} records from {} in {} ms",
+                segments.size(), records, directory, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Appends samples in order. Single writer (the write-behind thread).
+     */
+    public synchronized void append(List<BmsData> samples) throws IOException {
+        for (BmsData sample : samples) {
+            if (!active.append(sample)) {
+                roll();
+                if (!active.append(sample)) {
+                    throw new IOException("Sample does not fit in an empty segment of " + segmentBytes + " bytes");
+                }
+            }
+            BmsData current = latest;
+            if (current == null || !sample.getTimestamp().isBefore(current.getTimestamp())) {
+                latest = sample;
+            }
+        }
+    }
+
+    public List<BmsData> findBetweenNewestFirst(long fromMillis, long toMillis) {
+        List<BmsData> result = new ArrayList<>();
+        for (SegmentView segment : segments) {
+            if (segment.isEmpty() || segment.maxTimestamp() < fromMillis || segment.minTimestamp() > toMillis) {
+                continue;
+            }
+            segment.scan(fromMillis, toMillis, result::add);
+        }
+        result.sort(NEWEST_FIRST);
+        return result;
+    }
+
+    /**
+     * Streams [from, to] newest first holding at most one index block in memory. 블록 단위로 정렬하므로
+     * 블록 경계를 넘는 역전(동시 수집으로 생기는 ms 단위 차이)까지는 보정하지 않는다.
+     */
+    public void forEachBetweenNewestFirst(long fromMillis, long toMillis, Consumer<BmsData> visitor) {
+        // roll 의 보존 정리가 앞쪽 세그먼트를 지우면 인덱스가 밀리므로 한 번 찍어 둔 목록을 역순으로 읽는다
+        List<SegmentView> view = List.copyOf(segments);
+        for (int i = view.size() - 1; i >= 0; i--) {
+            SegmentView segment = view.get(i);
+            if (segment.isEmpty() || segment.maxTimestamp() < fromMillis || segment.minTimestamp() > toMillis) {
+                continue;
+            }
+            segment.scanBlocksDescending(fromMillis, toMillis, blockMax -> true, block -> {
+                block.sort(NEWEST_FIRST);
+                block.forEach(visitor);
+            });
+        }
+    }
+
+    public BmsData findLatest() {
+        return latest;
+    }
+
+    /**
+     * Newest {@code limit} samples.
+     */
+    public List<BmsData> findNewest(int limit) {
+        return findPageNewestFirst(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, limit);
+    }
+
+    /**
+     * Keyset page: the newest {@code limit} samples in [from, to] that sort strictly after the cursor
+     * (beforeMillis, beforeId) in newest-first order. 최신 블록부터 역순으로 읽고, 남은 블록이 모두 현재 N번째보다
+     * 오래되면 멈추므로 깊은 페이지도 커서 근처 블록만 읽는다.
+     */
+    public List<BmsData> findPageNewestFirst(long fromMillis, long toMillis, long beforeMillis, long beforeId, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        long upper = Math.min(toMillis, beforeMillis);
+        PriorityQueue<BmsData> top = new PriorityQueue<>(limit + 1, NEWEST_FIRST.reversed());
+        // forEachBetweenNewestFirst 와 같이 스냅샷을 읽는다
+        List<SegmentView> view = List.copyOf(segments);
+        for (int i = view.size() - 1; i >= 0; i--) {
+            SegmentView segment = view.get(i);
+            if (segment.isEmpty() || segment.maxTimestamp() < fromMillis || segment.minTimestamp() > upper) {
+                continue;
+            }
+            if (top.size() >= limit && segment.maxTimestamp() < SampleRecordCodec.toEpochMillis(top.peek().getTimestamp())) {
+                break;
+            }
+            segment.scanBlocksDescending(fromMillis, upper,
+                    blockMax -> top.size() < limit
+                            || blockMax >= SampleRecordCodec.toEpochMillis(top.peek().getTimestamp()),
+                    block -> {
+                        for (BmsData sample : block) {
+                            long timestamp = SampleRecordCodec.toEpochMillis(sample.getTimestamp());
+                            if (timestamp > beforeMillis || (timestamp == beforeMillis && sample.getId() >= beforeId)) {
+                                continue;
+                            }
+                            top.add(sample);
+                            if (top.size() > limit) {
+                                top.poll();
+                            }
+                        }
+                    });
+        }
+        List<BmsData> result = new ArrayList<>(top);
+        result.sort(NEWEST_FIRST);
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("directory", directory.toString());
+        stats.put("segments", segments.size());
+        stats.put("records", segments.stream().mapToLong(SegmentView::recordCount).sum());
+        stats.put("bytes", segments.stream().mapToLong(SegmentView::sizeBytes).sum());
+        stats.put("compressedSegments", segments.stream().filter(CompressedSegment.class::isInstance).count());
+        return stats;
+    }
+
+    public synchronized void flush() {
+        active.force();
+    }
+
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            active.force();
+        }
+    }
+
+    private void roll() throws IOException {
+        active.seal();
+        TelemetrySegment sealed = active;
+        TelemetrySegment next = TelemetrySegment.create(directory, active.number() + 1, segmentBytes, blockRecords);
+        segments.add(next);
+        active = next;
+        log.info("Rolled telemetry segment to {}", next.path().getFileName());
+        enforceRetention();
+        scheduleCompaction(sealed);
+    }
+
+    private void enforceRetention() throws IOException {
+        while (segments.size() > retainSegments) {
+            SegmentView oldest = segments.remove(0);
+            oldest.delete();
+            log.info("Deleted expired telemetry segment {}", oldest.number());
+        }
+    }
+
+    private void scheduleCompaction(TelemetrySegment segment) {
+        if (!compressSealed) {
+            return;
+        }
+        compactor.execute(() -> {
+            try {
+                compact(segment);
+            } catch (IOException e) {
+                log.warn("Failed to compress telemetry segment {}: {}", segment.path().getFileName(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 압축은 락 밖에서 수행하고, 교체만 락 안에서 한다. 교체 전 원본을 읽던 조회는 기존 매핑으로 끝까지 읽는다.
+     */
+    private void compact(TelemetrySegment segment) throws IOException {
+        long started = System.nanoTime();
+        CompressedSegment compressed = CompressedSegment.compact(segment, blockRecords);
+        synchronized (this) {
+            int index = segments.indexOf(segment);
+            if (index < 0) {
+                // 압축하는 동안 보존 기간이 지나 삭제된 세그먼트
+                compressed.delete();
+                return;
+            }
+            segments.set(index, compressed);
+        }
+        segment.delete();
+        log.info("Compressed telemetry segment {}: {} records, {} -> {} bytes in {} ms",
+                segment.number(), compressed.recordCount(), segment.sizeBytes(), compressed.sizeBytes(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private BmsData findLatestByScan() {
+        List<BmsData> newest = findNewest(1);
+        return newest.isEmpty() ? null : newest.get(0);
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring("segment-".length(), name.length() - ".seg".length()));
+    }
+}
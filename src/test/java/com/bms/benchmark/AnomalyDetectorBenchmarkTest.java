@@ -0,0 +1,64 @@
+package com.bms.benchmark;
+
+import com.bms.model.BmsData;
+import com.bms.telemetry.AnomalyDetector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ns and bytes allocated per sample of AnomalyDetector.update on a 16-cell stream without anomalies.
+ * Run with BMS_BENCHMARK=true
+ */
+@EnabledIfEnvironmentVariable(named = "BMS_BENCHMARK", matches = "true")
+public class AnomalyDetectorBenchmarkTest {
+
+    private static final int SAMPLES = 1024;
+    private static final int CELLS = 16;
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 2_000_000;
+
+    @Test
+    public void updateCostPerSample() {
+        AnomalyDetector detector = new AnomalyDetector(new AnomalyDetector.Settings(0.05, 4.0, 30, 10_000,
+                new double[] {5, 100, 2, 5, 0.5}, new double[] {0.05, 0.5, 0.2, 0.5, 0.005}));
+        Random random = new Random(7);
+        BmsData[] samples = new BmsData[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            BmsData data = new BmsData();
+            data.setTotalVoltage(52.8 + random.nextGaussian() * 0.01);
+            data.setCurrent(-3.4 + random.nextGaussian() * 0.05);
+            data.setTemperature(27.5 + random.nextGaussian() * 0.05);
+            data.setRemainingCapacity(81.0);
+            double[] cells = new double[CELLS];
+            for (int c = 0; c < CELLS; c++) {
+                cells[c] = 3.3 + random.nextGaussian() * 0.001;
+            }
+            data.setCellVoltages(cells);
+            samples[i] = data;
+        }
+
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long timestamp = 0;
+        long found = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            found += detector.update(timestamp += 1000, samples[i % SAMPLES]);
+        }
+        long allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            found += detector.update(timestamp += 1000, samples[i % SAMPLES]);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        System.out.printf("anomaly detector (%d cells): %.1f ns/sample, %.2f B/sample, %d anomalies%n",
+                CELLS, (double) elapsed / ITERATIONS, (double) allocated / ITERATIONS, found);
+        assertTrue(allocated < ITERATIONS);
+    }
+}
@@ -0,0 +1,100 @@
+package com.bms.benchmark;
+
+import com.bms.telemetry.CellStats;
+import com.bms.telemetry.CellStatsKernel;
+import com.bms.telemetry.ScalarCellStatsKernel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ns per sample of cell imbalance stats: boxed List&lt;Double&gt; streams vs. the primitive scalar and vector kernels.
+ * Run with BMS_BENCHMARK=true (vector kernel only with ./gradlew test -PvectorKernel)
+ */
+@EnabledIfEnvironmentVariable(named = "BMS_BENCHMARK", matches = "true")
+public class CellStatsBenchmarkTest {
+
+    private static final int SAMPLES = 100_000;
+    private static final int CELLS = 16;
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void compareBoxedAndKernels() {
+        Random random = new Random(7);
+        double[][] arrays = new double[SAMPLES][CELLS];
+        List<List<Double>> lists = new ArrayList<>(SAMPLES);
+        for (double[] cells : arrays) {
+            List<Double> list = new ArrayList<>(CELLS);
+            for (int c = 0; c < CELLS; c++) {
+                cells[c] = 3.3 + random.nextGaussian() * 0.005;
+                list.add(cells[c]);
+            }
+            lists.add(list);
+        }
+        CellStatsKernel scalar = new ScalarCellStatsKernel();
+        CellStatsKernel selected = CellStatsKernel.select(true);
+
+        double boxedNs = nanosPerSample(() -> {
+            double sink = 0;
+            for (List<Double> cells : lists) {
+                sink += boxedStats(cells).spread();
+            }
+            return sink;
+        });
+        double scalarNs = nanosPerSample(() -> kernelSpread(scalar, arrays));
+        double selectedNs = nanosPerSample(() -> kernelSpread(selected, arrays));
+
+        System.out.printf("cell stats (%d cells): boxed List=%.1f ns/sample, scalar=%.1f ns/sample, %s=%.1f ns/sample%n",
+                CELLS, boxedNs, scalarNs, selected.name(), selectedNs);
+        CellStats boxed = boxedStats(lists.get(0));
+        assertEquals(boxed.spread(), scalar.compute(arrays[0]).spread(), 1e-12);
+        assertEquals(boxed.stddev(), selected.compute(arrays[0]).stddev(), 1e-12);
+        assertEquals(boxed.minIndex(), selected.compute(arrays[0]).minIndex());
+        assertTrue(scalarNs < boxedNs);
+    }
+
+    /**
+     * The pre-kernel way: stream statistics over the boxed DTO list, plus a second pass for the deviation.
+     */
+    private static CellStats boxedStats(List<Double> cells) {
+        DoubleSummaryStatistics summary = cells.stream().mapToDouble(Double::doubleValue).summaryStatistics();
+        double mean = summary.getAverage();
+        double variance = cells.stream().mapToDouble(v -> (v - mean) * (v - mean)).sum() / summary.getCount();
+        return new CellStats((int) summary.getCount(), summary.getMin(), summary.getMax(), mean, Math.sqrt(variance),
+                cells.indexOf(summary.getMin()), cells.indexOf(summary.getMax()));
+    }
+
+    private static double kernelSpread(CellStatsKernel kernel, double[][] arrays) {
+        double sink = 0;
+        for (double[] cells : arrays) {
+            CellStats stats = kernel.compute(cells);
+            sink += stats.spread();
+        }
+        return sink;
+    }
+
+    private static double nanosPerSample(Run run) {
+        double sink = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            sink += run.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sink += run.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(sink > 0);
+        return (double) elapsed / ((long) ROUNDS * SAMPLES);
+    }
+
+    @FunctionalInterface
+    private interface Run {
+        double run();
+    }
+}
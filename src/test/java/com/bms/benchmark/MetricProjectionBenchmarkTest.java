@@ -0,0 +1,120 @@
+package com.bms.benchmark;
+
+import com.bms.model.BmsData;
+import com.bms.repository.BmsDataRepository;
+import com.bms.repository.JpaTelemetryStore;
+import com.bms.telemetry.MetricSeries;
+import com.bms.telemetry.TelemetryMetric;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Temperature history over a range: full BmsData entities vs. the (timestamp, value) projection.
+ * Run with BMS_BENCHMARK=true
+ */
+@DataJpaTest
+@Import(JpaTelemetryStore.class)
+@EnabledIfEnvironmentVariable(named = "BMS_BENCHMARK", matches = "true")
+public class MetricProjectionBenchmarkTest {
+
+    private static final int ROWS = 20_000;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 8, 13, 0, 0);
+    private static final LocalDateTime END = START.plusSeconds(ROWS);
+
+    @Autowired
+    private BmsDataRepository bmsDataRepository;
+
+    @Autowired
+    private JpaTelemetryStore telemetryStore;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void insertSamples() {
+        List<BmsData> batch = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            BmsData data = new BmsData();
+            data.setDeviceId("default");
+            data.setTotalVoltage(52.8);
+            data.setCurrent(-3.4);
+            data.setTemperature(25.0 + (i % 100) * 0.05);
+            data.setRemainingCapacity(81.0);
+            data.setChargeFetStatus(true);
+            data.setDischargeFetStatus(true);
+            double[] cells = new double[16];
+            Arrays.fill(cells, 3.3);
+            data.setCellVoltages(cells);
+            data.setTimestamp(START.plusSeconds(i));
+            batch.add(data);
+        }
+        bmsDataRepository.saveAll(batch);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void temperatureRangeEntityVsProjection() {
+        Result entity = measure(() -> {
+            List<BmsData> rows = bmsDataRepository.findByTimestampBetweenOrderByTimestampDesc(START, END);
+            double sum = 0;
+            for (BmsData row : rows) {
+                sum += row.getTemperature();
+            }
+            assertTrue(sum > 0);
+            // 요청마다 새 영속성 컨텍스트를 쓰는 실제 호출과 같게 비운다
+            entityManager.clear();
+            return rows.size();
+        });
+        Result projection = measure(() -> {
+            MetricSeries series = telemetryStore.findMetricSeries(TelemetryMetric.TEMPERATURE, 0, START, END, 0);
+            return series.size();
+        });
+
+        System.out.printf("temperature history (%d rows): entities=%.1f ms / %d KB per call, projection=%.1f ms / %d KB per call%n",
+                ROWS, entity.millis, entity.bytes / 1024, projection.millis, projection.bytes / 1024);
+        assertEquals(entity.rows, projection.rows);
+        assertTrue(projection.bytes < entity.bytes);
+    }
+
+    private Result measure(Query query) {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long rows = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            rows = query.run();
+        }
+        long bytesBefore = threadBean.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            rows = query.run();
+        }
+        long elapsed = System.nanoTime() - started;
+        long bytes = threadBean.getCurrentThreadAllocatedBytes() - bytesBefore;
+        return new Result(rows, elapsed / 1_000_000.0 / ITERATIONS, bytes / ITERATIONS);
+    }
+
+    @FunctionalInterface
+    interface Query {
+        long run();
+    }
+
+    private record Result(long rows, double millis, long bytes) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.bms.benchmark;
+
+import com.bms.dto.BmsControlDto;
+import com.bms.dto.BmsStatusDto;
+import com.bms.service.BmsPayloadDecoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Allocation-per-message comparison of the old String/ObjectMapper decode path and the ObjectReader byte[] path.
+ * Run with BMS_BENCHMARK=true
+ */
+@EnabledIfEnvironmentVariable(named = "BMS_BENCHMARK", matches = "true")
+public class PayloadDecodingBenchmarkTest {
+
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+
+    static final byte[] STATUS_PAYLOAD = ("{\"total_voltage\":52.81,\"current\":-3.42,\"temperature\":27.5,"
+            + "\"remaining_capacity_percent\":81.0,\"charge_fet_status\":true,\"discharge_fet_status\":true,"
+            + "\"cell_voltages\":[3.301,3.299,3.302,3.300,3.298,3.301,3.303,3.300,"
+            + "3.299,3.301,3.302,3.300,3.297,3.301,3.300,3.302],\"timestamp\":\"2025-08-13T06:27:01.010\"}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    static final byte[] CONTROL_PAYLOAD = "{\"chargeFetStatus\":true,\"dischargeFetStatus\":false}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BmsPayloadDecoder decoder = new BmsPayloadDecoder(objectMapper);
+
+    @Test
+    public void statusAllocationPerMessage() throws Exception {
+        long legacy = measure(() -> objectMapper.readValue(new String(STATUS_PAYLOAD), BmsStatusDto.class));
+        long reader = measure(() -> decoder.decodeStatus(STATUS_PAYLOAD));
+
+        System.out.printf("bms/status decode: String+readValue=%d B/msg, ObjectReader(byte[])=%d B/msg%n", legacy, reader);
+        assertTrue(reader < legacy);
+    }
+
+    @Test
+    public void controlAllocationPerMessage() throws Exception {
+        long legacy = measure(() -> new ObjectMapper().readValue(new String(CONTROL_PAYLOAD), BmsControlDto.class));
+        long reader = measure(() -> decoder.decodeControl(CONTROL_PAYLOAD));
+
+        System.out.printf("bms/control decode: new ObjectMapper per msg=%d B/msg, ObjectReader(byte[])=%d B/msg%n", legacy, reader);
+        assertTrue(reader < legacy);
+    }
+
+    static long measure(Decode decode) throws Exception {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Object sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = decode.run();
+        }
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = decode.run();
+        }
+        long after = threadBean.getCurrentThreadAllocatedBytes();
+        assertNotNull(sink);
+        return (after - before) / ITERATIONS;
+    }
+
+    @FunctionalInterface
+    interface Decode {
+        Object run() throws Exception;
+    }
+}
@@ -0,0 +1,68 @@
+package com.bms.benchmark;
+
+import com.bms.dto.BmsStatusDto;
+import com.bms.service.BmsPayloadDecoder;
+import com.bms.telemetry.BinaryStatusCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Outbound WebSocket frames for /topic/bms-status: bytes per frame and frames/sec, JSON text vs. binary.
+ * Encode is the server side, decode approximates the dashboard side.
+ * Run with BMS_BENCHMARK=true
+ */
+@EnabledIfEnvironmentVariable(named = "BMS_BENCHMARK", matches = "true")
+public class StatusFrameFormatBenchmarkTest {
+
+    private static final int WARMUP = 100_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectWriter writer = objectMapper.writerFor(BmsStatusDto.class);
+    private final ObjectReader reader = objectMapper.readerFor(BmsStatusDto.class);
+
+    @Test
+    public void compareJsonAndBinaryFrames() throws Exception {
+        BmsStatusDto status = new BmsPayloadDecoder(objectMapper).decodeStatus(PayloadDecodingBenchmarkTest.STATUS_PAYLOAD);
+        status.setDeviceId("pack-01");
+        long epochMillis = System.currentTimeMillis();
+        byte[] json = writer.writeValueAsBytes(status);
+        byte[] binary = BinaryStatusCodec.encode(status, epochMillis);
+
+        double jsonEncode = framesPerSecond(() -> writer.writeValueAsBytes(status));
+        double binaryEncode = framesPerSecond(() -> BinaryStatusCodec.encode(status, epochMillis));
+        double jsonDecode = framesPerSecond(() -> reader.readValue(json));
+        double binaryDecode = framesPerSecond(() -> BinaryStatusCodec.decode(binary));
+
+        System.out.printf("JSON frame:   %d bytes, encode %.0f frames/s, decode %.0f frames/s%n",
+                json.length, jsonEncode, jsonDecode);
+        System.out.printf("binary frame: %d bytes, encode %.0f frames/s, decode %.0f frames/s%n",
+                binary.length, binaryEncode, binaryDecode);
+        assertTrue(binary.length < json.length);
+        assertEquals(status.getCellVoltages(), BinaryStatusCodec.decode(binary).getCellVoltages());
+    }
+
+    private double framesPerSecond(Frame frame) throws Exception {
+        Object sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = frame.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = frame.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertNotNull(sink);
+        return ITERATIONS * 1e9 / elapsed;
+    }
+
+    @FunctionalInterface
+    private interface Frame {
+        Object run() throws Exception;
+    }
+}
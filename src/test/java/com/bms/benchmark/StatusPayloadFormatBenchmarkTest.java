@@ -0,0 +1,49 @@
+package com.bms.benchmark;
+
+import com.bms.dto.BmsStatusDto;
+import com.bms.service.BmsPayloadDecoder;
+import com.bms.telemetry.BinaryStatusCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bytes per sample and decode ns per sample: JSON vs. binary bms/status payload.
+ * Run with BMS_BENCHMARK=true
+ */
+@EnabledIfEnvironmentVariable(named = "BMS_BENCHMARK", matches = "true")
+public class StatusPayloadFormatBenchmarkTest {
+
+    private static final int WARMUP = 100_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    @Test
+    public void compareJsonAndBinary() throws Exception {
+        BmsPayloadDecoder decoder = new BmsPayloadDecoder(new ObjectMapper());
+        byte[] json = PayloadDecodingBenchmarkTest.STATUS_PAYLOAD;
+        byte[] binary = BinaryStatusCodec.encode(decoder.decodeStatus(json), System.currentTimeMillis());
+
+        double jsonNs = nanosPerDecode(decoder, json);
+        double binaryNs = nanosPerDecode(decoder, binary);
+
+        System.out.printf("bms/status JSON:   %d bytes/sample, %.0f ns/decode%n", json.length, jsonNs);
+        System.out.printf("bms/status binary: %d bytes/sample, %.0f ns/decode%n", binary.length, binaryNs);
+        assertTrue(binary.length < json.length);
+    }
+
+    private double nanosPerDecode(BmsPayloadDecoder decoder, byte[] payload) throws Exception {
+        BmsStatusDto sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = decoder.decodeStatus(payload);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = decoder.decodeStatus(payload);
+        }
+        long elapsed = System.nanoTime() - start;
+        assertNotNull(sink);
+        return (double) elapsed / ITERATIONS;
+    }
+}
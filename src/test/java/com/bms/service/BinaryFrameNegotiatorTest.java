@@ -0,0 +1,75 @@
+package com.bms.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryFrameNegotiatorTest {
+
+    private final BinaryFrameNegotiator negotiator = new BinaryFrameNegotiator();
+
+    @Test
+    public void testBinarySubscriptionIsRewrittenToTwinTopic() {
+        Message<?> result = negotiator.preSend(subscribe("s1", "sub-0", BinaryFrameNegotiator.BINARY_FORMAT, false), null);
+
+        assertEquals(StatusBroadcaster.STATUS_TOPIC + BinaryFrameNegotiator.BINARY_SUFFIX, destination(result));
+        assertTrue(negotiator.hasBinarySubscribers(StatusBroadcaster.STATUS_TOPIC));
+    }
+
+    @Test
+    public void testSockJsSessionKeepsJson() {
+        // SockJS 는 binary payload 를 텍스트 프레임으로 보내 깨뜨리므로 format:binary 를 무시한다
+        Message<?> result = negotiator.preSend(subscribe("s1", "sub-0", BinaryFrameNegotiator.BINARY_FORMAT, true), null);
+
+        assertEquals(StatusBroadcaster.STATUS_TOPIC, destination(result));
+        assertFalse(negotiator.hasBinarySubscribers(StatusBroadcaster.STATUS_TOPIC));
+        assertFalse(BinaryFrameNegotiator.wantsBinary(StompHeaderAccessor.wrap(result)));
+    }
+
+    @Test
+    public void testJsonSubscriptionIsUnchanged() {
+        Message<?> result = negotiator.preSend(subscribe("s1", "sub-0", null, false), null);
+
+        assertEquals(StatusBroadcaster.STATUS_TOPIC, destination(result));
+        assertFalse(negotiator.hasBinarySubscribers(StatusBroadcaster.STATUS_TOPIC));
+    }
+
+    @Test
+    public void testUnsubscribeReleasesBinarySubscription() {
+        negotiator.preSend(subscribe("s1", "sub-0", BinaryFrameNegotiator.BINARY_FORMAT, false), null);
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.UNSUBSCRIBE);
+        accessor.setSessionId("s1");
+        accessor.setSubscriptionId("sub-0");
+        negotiator.preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), null);
+
+        assertFalse(negotiator.hasBinarySubscribers(StatusBroadcaster.STATUS_TOPIC));
+    }
+
+    private Message<byte[]> subscribe(String sessionId, String subscriptionId, String format, boolean sockJs) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(StatusBroadcaster.STATUS_TOPIC);
+        if (format != null) {
+            accessor.setNativeHeader(BinaryFrameNegotiator.FORMAT_HEADER, format);
+        }
+        Map<String, Object> attributes = new HashMap<>();
+        if (sockJs) {
+            attributes.put(BinaryFrameNegotiator.SOCKJS_ATTRIBUTE, Boolean.TRUE);
+        }
+        accessor.setSessionAttributes(attributes);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static String destination(Message<?> message) {
+        return StompHeaderAccessor.wrap(message).getDestination();
+    }
+}
@@ -0,0 +1,63 @@
+package com.bms.service;
+
+import com.bms.dto.BmsStatusDto;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TelemetryDeduplicatorTest {
+
+    @Test
+    public void testRedeliveredSequenceIsSuppressed() {
+        TelemetryDeduplicator deduplicator = new TelemetryDeduplicator(4, 10);
+
+        assertFalse(deduplicator.isDuplicate("pack-01", sample(1L, null)));
+        assertFalse(deduplicator.isDuplicate("pack-01", sample(2L, null)));
+        assertTrue(deduplicator.isDuplicate("pack-01", sample(1L, null)));
+
+        // 다른 기기의 같은 seq는 중복이 아님
+        assertFalse(deduplicator.isDuplicate("pack-02", sample(1L, null)));
+    }
+
+    @Test
+    public void testTimestampKeyAndWindowEviction() {
+        TelemetryDeduplicator deduplicator = new TelemetryDeduplicator(2, 10);
+
+        assertFalse(deduplicator.isDuplicate("pack-01", sample(null, "2025-08-13T06:27:01.010")));
+        assertTrue(deduplicator.isDuplicate("pack-01", sample(null, "2025-08-13T06:27:01.010")));
+
+        assertFalse(deduplicator.isDuplicate("pack-01", sample(null, "2025-08-13T06:27:02.010")));
+        assertFalse(deduplicator.isDuplicate("pack-01", sample(null, "2025-08-13T06:27:03.010")));
+        // window 크기(2)를 넘어 밀려난 키는 더 이상 중복으로 판단하지 않음
+        assertFalse(deduplicator.isDuplicate("pack-01", sample(null, "2025-08-13T06:27:01.010")));
+    }
+
+    @Test
+    public void testUnkeyedSamplePassesThrough() {
+        TelemetryDeduplicator deduplicator = new TelemetryDeduplicator(4, 10);
+
+        assertFalse(deduplicator.isDuplicate("pack-01", sample(null, null)));
+        assertFalse(deduplicator.isDuplicate("pack-01", sample(null, null)));
+    }
+
+    @Test
+    public void testDevicesOverLimitAreCountedAsUntracked() {
+        TelemetryDeduplicator deduplicator = new TelemetryDeduplicator(4, 1);
+
+        assertFalse(deduplicator.isDuplicate("pack-01", sample(1L, null)));
+        // 한도를 넘은 기기는 추적하지 않으므로 같은 seq 도 통과시키고 개수만 센다
+        assertFalse(deduplicator.isDuplicate("pack-02", sample(1L, null)));
+        assertFalse(deduplicator.isDuplicate("pack-02", sample(1L, null)));
+        assertFalse(deduplicator.isDuplicate("pack-03", sample(1L, null)));
+
+        assertEquals(1, deduplicator.getStats().get("trackedDevices"));
+        assertEquals(3L, deduplicator.getStats().get("untracked"));
+    }
+
+    private BmsStatusDto sample(Long sequence, String timestamp) {
+        BmsStatusDto dto = new BmsStatusDto();
+        dto.setSequence(sequence);
+        dto.setTimestamp(timestamp);
+        return dto;
+    }
+}
@@ -0,0 +1,45 @@
+package com.bms.telemetry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AggregateStateTest {
+
+    @Test
+    public void testMergedPartialsMatchSinglePass() {
+        Random random = new Random(42);
+        AggregateState single = new AggregateState(0.01);
+        AggregateState left = new AggregateState(0.01);
+        AggregateState right = new AggregateState(0.01);
+        for (int i = 0; i < 10_000; i++) {
+            double value = 50 + random.nextGaussian() * 5;
+            single.add(value);
+            (i % 3 == 0 ? left : right).add(value);
+        }
+        left.merge(right);
+
+        assertEquals(single.get("count"), left.get("count"));
+        assertEquals(single.get("min"), left.get("min"));
+        assertEquals(single.get("max"), left.get("max"));
+        assertEquals(single.get("mean"), left.get("mean"), 1e-9);
+        assertEquals(single.get("stddev"), left.get("stddev"), 1e-9);
+        assertEquals(single.get("p95"), left.get("p95"));
+    }
+
+    @Test
+    public void testPercentileWithinRelativeAccuracy() {
+        AggregateState state = new AggregateState(0.01);
+        // 음수/0/양수가 섞인 전류 값
+        for (int i = -500; i <= 1500; i++) {
+            state.add(i / 10.0);
+        }
+
+        assertEquals(50.0, state.get("p50"), 50.0 * 0.01);
+        assertEquals(130.0, state.get("p90"), 130.0 * 0.01);
+        assertEquals(-40.0, state.get("p5"), 40.0 * 0.01);
+        assertThrows(IllegalArgumentException.class, () -> AggregateState.checkFunction("median"));
+    }
+}
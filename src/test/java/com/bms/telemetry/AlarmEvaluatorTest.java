@@ -0,0 +1,96 @@
+package com.bms.telemetry;
+
+import com.bms.model.BmsData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlarmEvaluatorTest {
+
+    private static final AlarmRule OV = new AlarmRule("OV", AlarmRule.Source.CELL, AlarmRule.Direction.ABOVE,
+            4.20, 4.15, 2000, 1000, null);
+
+    @Test
+    public void testRaiseAfterDelayAndClearBelowHysteresis() {
+        AlarmEvaluator evaluator = new AlarmEvaluator();
+        evaluator.reset(AlarmPlan.compile(List.of(OV)));
+
+        assertEquals(0, evaluator.evaluate(0, sample(4.10, 4.25)));
+        assertEquals(0, evaluator.evaluate(1000, sample(4.10, 4.25)));
+        assertEquals(1, evaluator.evaluate(2000, sample(4.10, 4.25)));
+        assertEquals(1, evaluator.foundCell(0));
+        assertTrue(evaluator.foundRaised(0));
+
+        // 히스테리시스 구간(4.15 ~ 4.20)에서는 해제되지 않는다
+        assertEquals(0, evaluator.evaluate(3000, sample(4.10, 4.18)));
+        assertEquals(0, evaluator.evaluate(10_000, sample(4.10, 4.18)));
+
+        assertEquals(0, evaluator.evaluate(11_000, sample(4.10, 4.10)));
+        assertEquals(1, evaluator.evaluate(12_000, sample(4.10, 4.10)));
+        assertFalse(evaluator.foundRaised(0));
+    }
+
+    @Test
+    public void testShortExcursionDoesNotRaise() {
+        AlarmEvaluator evaluator = new AlarmEvaluator();
+        evaluator.reset(AlarmPlan.compile(List.of(OV)));
+
+        assertEquals(0, evaluator.evaluate(0, sample(4.25)));
+        assertEquals(0, evaluator.evaluate(1000, sample(4.10)));
+        assertEquals(0, evaluator.evaluate(2500, sample(4.25)));
+        assertEquals(0, evaluator.evaluate(4000, sample(4.25)));
+        assertEquals(1, evaluator.evaluate(4500, sample(4.25)));
+    }
+
+    @Test
+    public void testReplanKeepsStateOfUnchangedRules() {
+        AlarmRule uv = new AlarmRule("UV", AlarmRule.Source.CELL, AlarmRule.Direction.BELOW, 2.80, 2.85, 0, 0, null);
+        AlarmEvaluator evaluator = new AlarmEvaluator();
+        evaluator.reset(AlarmPlan.compile(List.of(OV)));
+        evaluator.evaluate(0, sample(4.10, 4.25));
+        assertEquals(1, evaluator.evaluate(2000, sample(4.10, 4.25)));
+
+        // 규칙 순서가 바뀌고 임계값이 달라져도 같은 이름의 OV 는 발생 상태를 이어받는다
+        AlarmRule raisedOv = new AlarmRule("OV", AlarmRule.Source.CELL, AlarmRule.Direction.ABOVE,
+                4.22, 4.17, 2000, 1000, null);
+        List<String> dropped = new ArrayList<>();
+        evaluator.replan(AlarmPlan.compile(List.of(uv, raisedOv)), (rule, cell, raisedAt) -> dropped.add(rule.name()));
+        assertTrue(dropped.isEmpty());
+        assertEquals(0, evaluator.evaluate(3000, sample(4.10, 4.25)));
+        List<Integer> active = new ArrayList<>();
+        evaluator.forEachActive((rule, cell, raisedAt) -> active.add(cell));
+        assertEquals(List.of(1), active);
+    }
+
+    @Test
+    public void testReplanReportsRaisedAlarmsOfRemovedRules() {
+        AlarmEvaluator evaluator = new AlarmEvaluator();
+        evaluator.reset(AlarmPlan.compile(List.of(OV)));
+        evaluator.evaluate(0, sample(4.25, 4.10));
+        assertEquals(1, evaluator.evaluate(2000, sample(4.25, 4.10)));
+
+        List<Integer> dropped = new ArrayList<>();
+        evaluator.replan(AlarmPlan.EMPTY, (rule, cell, raisedAt) -> {
+            assertEquals("OV", rule.name());
+            assertEquals(2000, raisedAt);
+            dropped.add(cell);
+        });
+        assertEquals(List.of(0), dropped);
+        assertEquals(0, evaluator.evaluate(3000, sample(4.25, 4.10)));
+    }
+
+    @Test
+    public void testInvalidHysteresisRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AlarmRule("UV", AlarmRule.Source.CELL,
+                AlarmRule.Direction.BELOW, 2.80, 2.75, 0, 0, null));
+    }
+
+    private static BmsData sample(double... cells) {
+        BmsData data = new BmsData();
+        data.setCellVoltages(cells);
+        return data;
+    }
+}
@@ -0,0 +1,92 @@
+package com.bms.telemetry;
+
+import com.bms.model.BmsData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnomalyDetectorTest {
+
+    // (총 전압, 전류, 온도, 잔여용량, 셀)
+    private static final double[] MAX_RATE = {5, 100, 2, 5, 0.5};
+    private static final double[] MIN_STDDEV = {0.05, 0.5, 0.2, 0.5, 0.005};
+
+    @Test
+    public void testEwmaMeanIsReportedAsExpected() {
+        AnomalyDetector detector = new AnomalyDetector(new AnomalyDetector.Settings(0.5, 1.0, 2, 0, MAX_RATE, MIN_STDDEV));
+        detector.update(0, sample(40.0, 25.0));
+        detector.update(1000, sample(42.0, 25.0));
+        // 평균 40 → 41, 분산 0.5 * (0 + 2 * 1) = 1 이므로 44 의 z = (44 - 41) / 1 = 3
+        assertEquals(1, detector.update(2000, sample(44.0, 25.0)));
+        assertEquals(0, detector.foundColumn(0));
+        assertEquals(AnomalyDetector.KIND_Z_SCORE, detector.foundKind(0));
+        assertEquals(41.0, detector.foundExpected(0), 1e-12);
+        assertEquals(3.0, detector.foundScore(0), 1e-12);
+    }
+
+    @Test
+    public void testZScoreOnlyAfterWarmup() {
+        AnomalyDetector detector = new AnomalyDetector(new AnomalyDetector.Settings(0.05, 4.0, 30, 0, MAX_RATE, MIN_STDDEV));
+        long t = 0;
+        assertEquals(0, detector.update(t, sample(50.0, 25.0)));
+        // 워밍업 중에는 z 가 커도 알리지 않는다 (변화율 1 V/s 는 한도 5 V/s 이하)
+        assertEquals(0, detector.update(t += 1000, sample(51.0, 25.0)));
+        for (int i = 0; i < 40; i++) {
+            assertEquals(0, detector.update(t += 1000, sample(50.0, 25.0)));
+        }
+        assertEquals(1, detector.update(t + 1000, sample(51.0, 25.0)));
+        assertEquals(AnomalyDetector.KIND_Z_SCORE, detector.foundKind(0));
+        assertTrue(detector.foundScore(0) > 4.0);
+    }
+
+    @Test
+    public void testRateOfChange() {
+        AnomalyDetector detector = new AnomalyDetector(new AnomalyDetector.Settings(0.05, 4.0, 30, 0, MAX_RATE, MIN_STDDEV));
+        detector.update(0, sample(50.0, 25.0));
+        assertEquals(1, detector.update(1000, sample(50.0, 31.0)));
+        assertEquals(2, detector.foundColumn(0));
+        assertEquals(AnomalyDetector.KIND_RATE_OF_CHANGE, detector.foundKind(0));
+        assertEquals(6.0, detector.foundScore(0), 1e-12);
+        assertEquals("temperature", AnomalyDetector.metricName(detector.foundColumn(0)));
+    }
+
+    @Test
+    public void testRateUsesMinimumOneSecondInterval() {
+        AnomalyDetector detector = new AnomalyDetector(new AnomalyDetector.Settings(0.05, 4.0, 30, 0, MAX_RATE, MIN_STDDEV));
+        detector.update(0, sample(50.0, 25.0));
+        // 10 ms 간격의 1.5 ℃ 변화는 150 ℃/s 가 아니라 1.5 ℃/s 로 본다
+        assertEquals(0, detector.update(10, sample(50.0, 26.5)));
+    }
+
+    @Test
+    public void testCooldownSuppressesRepeats() {
+        AnomalyDetector detector = new AnomalyDetector(new AnomalyDetector.Settings(0.05, 4.0, 30, 10_000, MAX_RATE, MIN_STDDEV));
+        detector.update(0, sample(50.0, 25.0));
+        assertEquals(1, detector.update(1000, sample(50.0, 35.0)));
+        assertEquals(0, detector.update(2000, sample(50.0, 25.0)));
+        assertEquals(0, detector.update(3000, sample(50.0, 35.0)));
+        assertEquals(0, detector.update(10_000, sample(50.0, 33.0)));
+        // 쿨다운(10초)이 지나면 다시 알린다
+        assertEquals(1, detector.update(11_000, sample(50.0, 25.0)));
+    }
+
+    @Test
+    public void testCellsUseCellThresholds() {
+        AnomalyDetector detector = new AnomalyDetector(new AnomalyDetector.Settings(0.05, 4.0, 30, 0, MAX_RATE, MIN_STDDEV));
+        BmsData first = sample(50.0, 25.0);
+        first.setCellVoltages(new double[] {3.70, 3.70});
+        detector.update(0, first);
+        BmsData second = sample(50.0, 25.0);
+        second.setCellVoltages(new double[] {3.70, 3.00});
+        assertEquals(1, detector.update(1000, second));
+        assertEquals("cell_1", AnomalyDetector.metricName(detector.foundColumn(0)));
+        assertEquals(AnomalyDetector.KIND_RATE_OF_CHANGE, detector.foundKind(0));
+    }
+
+    private static BmsData sample(double totalVoltage, double temperature) {
+        BmsData data = new BmsData();
+        data.setTotalVoltage(totalVoltage);
+        data.setTemperature(temperature);
+        return data;
+    }
+}
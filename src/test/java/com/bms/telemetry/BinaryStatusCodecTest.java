@@ -0,0 +1,59 @@
+package com.bms.telemetry;
+
+import com.bms.dto.BmsStatusDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryStatusCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        BmsStatusDto dto = new BmsStatusDto();
+        dto.setTotalVoltage(52.81);
+        dto.setCurrent(-3.42);
+        dto.setTemperature(27.5);
+        dto.setRemainingCapacity(81.0);
+        dto.setChargeFetStatus(true);
+        dto.setDischargeFetStatus(false);
+        dto.setSequence(42L);
+        dto.setCellVoltages(List.of(3.301, 3.299, 3.3, 3.298));
+
+        byte[] encoded = BinaryStatusCodec.encode(dto, 1755066421010L);
+        assertTrue(BinaryStatusCodec.isBinary(encoded));
+        assertEquals(BinaryStatusCodec.HEADER_SIZE + 4 * 4, encoded.length);
+
+        BmsStatusDto decoded = BinaryStatusCodec.decode(encoded);
+        assertEquals(52.81, decoded.getTotalVoltage());
+        assertEquals(-3.42, decoded.getCurrent());
+        assertEquals(27.5, decoded.getTemperature());
+        assertEquals(81.0, decoded.getRemainingCapacity());
+        assertTrue(decoded.getChargeFetStatus());
+        assertFalse(decoded.getDischargeFetStatus());
+        assertEquals(42L, decoded.getSequence());
+        assertEquals(List.of(3.301, 3.299, 3.3, 3.298), decoded.getCellVoltages());
+        assertNotNull(decoded.getTimestamp());
+    }
+
+    @Test
+    public void testAbsentFieldsDecodeAsNull() {
+        BmsStatusDto dto = new BmsStatusDto();
+        dto.setTotalVoltage(48.0);
+
+        BmsStatusDto decoded = BinaryStatusCodec.decode(BinaryStatusCodec.encode(dto, 0L));
+        assertEquals(48.0, decoded.getTotalVoltage());
+        assertNull(decoded.getCurrent());
+        assertNull(decoded.getChargeFetStatus());
+        assertNull(decoded.getSequence());
+        assertNull(decoded.getTimestamp());
+        assertTrue(decoded.getCellVoltages().isEmpty());
+    }
+
+    @Test
+    public void testJsonIsNotDetectedAsBinary() {
+        assertFalse(BinaryStatusCodec.isBinary("{\"total_voltage\":52.81}".getBytes()));
+        assertThrows(IllegalArgumentException.class, () -> BinaryStatusCodec.decode(new byte[] {BinaryStatusCodec.MAGIC, 1}));
+    }
+}
@@ -0,0 +1,93 @@
+package com.bms.telemetry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnergyIntegratorTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    public void testTrapezoidChargeAndDischarge() {
+        EnergyIntegrator integrator = new EnergyIntegrator(HOUR);
+        integrator.add(0, 2.0, 50.0);
+        integrator.add(HOUR / 2, 4.0, 50.0);
+        assertEquals(1.5, integrator.chargeAh(), 1e-12);
+        assertEquals(75.0, integrator.chargeWh(), 1e-9);
+
+        integrator.add(HOUR, -4.0, 50.0);
+        integrator.add(HOUR + HOUR / 4, -4.0, 50.0);
+        assertEquals(1.0 + 0.5, integrator.dischargeAh(), 1e-12);
+    }
+
+    @Test
+    public void testZeroCrossingSplitsInterval() {
+        EnergyIntegrator integrator = new EnergyIntegrator(HOUR);
+        integrator.add(0, 3.0, 10.0);
+        // +3A → -1A 로 1시간: 0A 는 3/4 지점, 충전 삼각형 3 * 0.75 / 2, 방전 삼각형 1 * 0.25 / 2
+        integrator.add(HOUR, -1.0, 10.0);
+        assertEquals(1.125, integrator.chargeAh(), 1e-12);
+        assertEquals(0.125, integrator.dischargeAh(), 1e-12);
+        assertEquals(11.25, integrator.chargeWh(), 1e-9);
+        assertEquals(1.25, integrator.dischargeWh(), 1e-9);
+    }
+
+    @Test
+    public void testGapIsCountedNotIntegrated() {
+        EnergyIntegrator integrator = new EnergyIntegrator(30_000);
+        integrator.add(0, 2.0, 50.0);
+        integrator.add(10_000, 2.0, 50.0);
+        integrator.add(70_000, 2.0, 50.0);
+        integrator.add(80_000, 2.0, 50.0);
+        assertEquals(1, integrator.gaps());
+        assertEquals(2.0 * 20_000 / HOUR, integrator.chargeAh(), 1e-12);
+    }
+
+    @Test
+    public void testOutOfOrderSampleIgnored() {
+        EnergyIntegrator integrator = new EnergyIntegrator(HOUR);
+        assertTrue(integrator.add(1000, 1.0, 50.0));
+        assertFalse(integrator.add(1000, 5.0, 50.0));
+        assertFalse(integrator.add(500, 5.0, 50.0));
+        assertEquals(0.0, integrator.chargeAh());
+        assertEquals(1000, integrator.lastTimestamp());
+    }
+
+    @Test
+    public void testRestoreContinuesLikeUninterrupted() {
+        EnergyIntegrator uninterrupted = new EnergyIntegrator(30_000);
+        EnergyIntegrator first = new EnergyIntegrator(30_000);
+        long[] times = {0, 10_000, 20_000, 90_000, 100_000};
+        double[] currents = {2.0, -1.0, -3.0, 1.0, 2.0};
+        for (int i = 0; i < 3; i++) {
+            uninterrupted.add(times[i], currents[i], 48.0);
+            first.add(times[i], currents[i], 48.0);
+        }
+        EnergyIntegrator restored = EnergyIntegrator.restore(30_000, first.lastTimestamp(), first.lastCurrent(),
+                first.lastVoltage(), first.chargeAh(), first.dischargeAh(), first.chargeWh(), first.dischargeWh(),
+                first.gaps());
+        for (int i = 3; i < times.length; i++) {
+            uninterrupted.add(times[i], currents[i], 48.0);
+            restored.add(times[i], currents[i], 48.0);
+        }
+        assertEquals(uninterrupted.chargeAh(), restored.chargeAh(), 1e-12);
+        assertEquals(uninterrupted.dischargeAh(), restored.dischargeAh(), 1e-12);
+        assertEquals(uninterrupted.chargeWh(), restored.chargeWh(), 1e-9);
+        assertEquals(uninterrupted.dischargeWh(), restored.dischargeWh(), 1e-9);
+        assertEquals(1, restored.gaps());
+    }
+
+    @Test
+    public void testInterpolateStaysBetweenStates() {
+        EnergyIntegrator before = EnergyIntegrator.restore(HOUR, 0, 1.0, 50.0, 1.0, 2.0, 50.0, 100.0, 3);
+        EnergyIntegrator after = EnergyIntegrator.restore(HOUR, 60_000, 1.0, 50.0, 2.0, 2.0, 100.0, 100.0, 4);
+
+        EnergyIntegrator middle = EnergyIntegrator.interpolate(before, after, 15_000);
+        assertEquals(1.25, middle.chargeAh(), 1e-12);
+        assertEquals(2.0, middle.dischargeAh(), 1e-12);
+        assertEquals(62.5, middle.chargeWh(), 1e-9);
+        assertEquals(3, middle.gaps());
+        assertEquals(2.0, EnergyIntegrator.interpolate(before, after, 120_000).chargeAh(), 1e-12);
+    }
+}
@@ -0,0 +1,191 @@
+package com.bms.telemetry;
+
+import com.bms.model.BmsData;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GorillaBlockCodecTest {
+
+    private static final long BASE = 1_755_066_421_010L;
+
+    @Test
+    public void testRegularSamplesRoundTrip() {
+        List<BmsData> samples = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            samples.add(sample(i + 1, BASE + i * 1000L, 52.8 + i * 0.001, new double[] { 3.30, 3.31, 3.29, 3.30 }));
+        }
+
+        assertRoundTrip(samples);
+    }
+
+    @Test
+    public void testIrregularRepeatedAndNegativeTimestampDeltas() {
+        long[] offsets = {
+                0, 1000, 2000, 3000,          // 일정 간격 (delta-of-delta 0)
+                3000, 3000,                   // 같은 timestamp 반복 (delta 0)
+                2990, 2500,                   // 뒤로 가는 timestamp (음수 delta)
+                2563, 2563 + 255, 3_000_000,  // 7/9/12 비트 구간 경계와 64비트 폴백
+                -86_400_000L, 10 * 365 * 86_400_000L
+        };
+        List<BmsData> samples = new ArrayList<>();
+        long id = 500;
+        for (int i = 0; i < offsets.length; i++) {
+            // id 도 같은 delta-of-delta 로 인코딩되므로 불규칙하게 바꾼다
+            id += i % 3 == 0 ? 1 : -7 + i * 300L;
+            samples.add(sample(id, BASE + offsets[i], 52.8, new double[] { 3.3 }));
+        }
+
+        assertRoundTrip(samples);
+    }
+
+    @Test
+    public void testSpecialValuesRoundTrip() {
+        List<BmsData> samples = new ArrayList<>();
+        samples.add(sample(1, BASE, 0.0, new double[] { 0.0, -0.0, Double.NaN }));
+        samples.add(sample(2, BASE + 1000, -0.0, new double[] { -0.0, 0.0, Double.NaN }));
+        samples.add(sample(3, BASE + 2000, Double.POSITIVE_INFINITY,
+                new double[] { Double.NEGATIVE_INFINITY, Double.MIN_VALUE, -Double.MAX_VALUE }));
+        samples.add(sample(4, BASE + 3000, 52.8, new double[] { Double.NaN, 3.3, 3.3 }));
+
+        BmsData nulls = sample(5, BASE + 4000, 52.8, null);
+        // null 필드는 NaN 비트 패턴으로 기록되고 다시 null 로 읽힌다
+        nulls.setTotalVoltage(null);
+        nulls.setCurrent(null);
+        nulls.setTemperature(null);
+        nulls.setRemainingCapacity(null);
+        nulls.setChargeFetStatus(null);
+        nulls.setDischargeFetStatus(null);
+        nulls.setDeviceId(null);
+        samples.add(nulls);
+        samples.add(sample(6, BASE + 5000, -0.0, new double[] { 3.3, 3.3, 3.3 }));
+
+        assertRoundTrip(samples);
+    }
+
+    @Test
+    public void testCellShapeChangesMidBlock() {
+        List<BmsData> samples = new ArrayList<>();
+        samples.add(sample(1, BASE, 52.8, new double[] { 3.30, 3.31, 3.32, 3.33 }));
+        samples.add(sample(2, BASE + 1000, 52.8, new double[] { 3.30, 3.31 }));
+        samples.add(sample(3, BASE + 2000, 52.8, null));
+        samples.add(sample(4, BASE + 3000, 52.8, new double[0]));
+        samples.add(sample(5, BASE + 4000, 52.8, new double[] { 3.29, 3.31, 3.32, 3.33, 3.34, 3.35 }));
+        samples.add(sample(6, BASE + 5000, 52.8, new double[] { 3.29, 3.31, 3.32, 3.33, 3.34, 3.35 }));
+        samples.add(sample(7, BASE + 6000, 52.8, new double[] { 3.28 }));
+
+        assertRoundTrip(samples);
+    }
+
+    @Test
+    public void testRandomFullBlockWithSeveralDevices() {
+        Random random = new Random(7);
+        List<BmsData> samples = new ArrayList<>();
+        long timestamp = BASE;
+        for (int i = 0; i < GorillaBlockCodec.MAX_BLOCK_RECORDS; i++) {
+            timestamp += random.nextInt(3000) - 500;
+            double[] cells = new double[1 + random.nextInt(16)];
+            for (int c = 0; c < cells.length; c++) {
+                cells[c] = 3.0 + random.nextDouble();
+            }
+            BmsData data = sample(i + 1, timestamp, 40 + random.nextDouble() * 20, cells);
+            data.setDeviceId("pack-" + random.nextInt(5));
+            data.setCurrent(random.nextGaussian() * 30);
+            data.setChargeFetStatus(random.nextBoolean() ? random.nextBoolean() : null);
+            data.setDischargeFetStatus(random.nextBoolean());
+            samples.add(data);
+        }
+
+        assertRoundTrip(samples);
+    }
+
+    @Test
+    public void testDecodeFiltersByTimestampRange() {
+        List<BmsData> samples = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            samples.add(sample(i + 1, BASE + i * 1000L, 52.8, new double[] { 3.3 }));
+        }
+        byte[] block = GorillaBlockCodec.encode(samples);
+
+        List<BmsData> decoded = new ArrayList<>();
+        GorillaBlockCodec.decode(ByteBuffer.wrap(block), 0, block.length, samples.size(),
+                BASE + 3000, BASE + 5000, decoded::add);
+
+        assertEquals(3, decoded.size());
+        assertEquals(4L, decoded.get(0).getId());
+        assertEquals(6L, decoded.get(2).getId());
+    }
+
+    @Test
+    public void testOversizedBlockIsRejected() {
+        List<BmsData> samples = new ArrayList<>();
+        for (int i = 0; i <= GorillaBlockCodec.MAX_BLOCK_RECORDS; i++) {
+            samples.add(sample(i + 1, BASE + i, 52.8, null));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> GorillaBlockCodec.encode(samples));
+    }
+
+    private static void assertRoundTrip(List<BmsData> samples) {
+        byte[] block = GorillaBlockCodec.encode(samples);
+        // 세그먼트 파일 안의 블록처럼 0이 아닌 offset 에서 읽는다
+        int offset = 13;
+        ByteBuffer buffer = ByteBuffer.allocate(offset + block.length + 5);
+        buffer.put(offset, block);
+
+        List<BmsData> decoded = new ArrayList<>();
+        GorillaBlockCodec.decode(buffer, offset, block.length, samples.size(), Long.MIN_VALUE, Long.MAX_VALUE,
+                decoded::add);
+
+        assertEquals(samples.size(), decoded.size());
+        for (int i = 0; i < samples.size(); i++) {
+            BmsData expected = samples.get(i);
+            BmsData actual = decoded.get(i);
+            String row = "row " + i;
+            assertEquals(expected.getId(), actual.getId(), row);
+            assertEquals(expected.getTimestamp(), actual.getTimestamp(), row);
+            assertEquals(expected.getDeviceId(), actual.getDeviceId(), row);
+            // Double.equals 로 비교해서 -0.0 과 0.0 을 구분하고 null 도 비교한다
+            assertEquals((Object) expected.getTotalVoltage(), actual.getTotalVoltage(), row);
+            assertEquals((Object) expected.getCurrent(), actual.getCurrent(), row);
+            assertEquals((Object) expected.getTemperature(), actual.getTemperature(), row);
+            assertEquals((Object) expected.getRemainingCapacity(), actual.getRemainingCapacity(), row);
+            assertEquals(expected.getChargeFetStatus(), actual.getChargeFetStatus(), row);
+            assertEquals(expected.getDischargeFetStatus(), actual.getDischargeFetStatus(), row);
+            assertCellsEqual(expected.getCellVoltages(), actual.getCellVoltages(), row);
+        }
+    }
+
+    private static void assertCellsEqual(double[] expected, double[] actual, String row) {
+        if (expected == null) {
+            assertNull(actual, row);
+            return;
+        }
+        assertNotNull(actual, row);
+        assertEquals(expected.length, actual.length, row);
+        for (int c = 0; c < expected.length; c++) {
+            assertEquals(Double.doubleToRawLongBits(expected[c]), Double.doubleToRawLongBits(actual[c]),
+                    row + " cell " + c);
+        }
+    }
+
+    private static BmsData sample(long id, long epochMillis, double totalVoltage, double[] cells) {
+        BmsData data = new BmsData();
+        data.setId(id);
+        data.setTimestamp(SampleRecordCodec.fromEpochMillis(epochMillis));
+        data.setDeviceId("pack-01");
+        data.setTotalVoltage(totalVoltage);
+        data.setCurrent(-12.5);
+        data.setTemperature(25.0);
+        data.setRemainingCapacity(80.0);
+        data.setChargeFetStatus(true);
+        data.setDischargeFetStatus(false);
+        data.setCellVoltages(cells);
+        return data;
+    }
+}
@@ -0,0 +1,100 @@
+package com.bms.telemetry;
+
+import com.bms.dto.BmsStatusDeltaDto;
+import com.bms.dto.BmsStatusDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatusDeltaEncoderTest {
+
+    private static final StatusDeltaEncoder.Settings SETTINGS =
+            new StatusDeltaEncoder.Settings(new double[] {0.01, 0.05, 0.1, 0.5}, 0.002, 10_000);
+
+    @Test
+    public void testFirstSampleIsKeyframe() {
+        StatusDeltaEncoder encoder = new StatusDeltaEncoder(SETTINGS);
+        BmsStatusDeltaDto keyframe = encoder.encode(status(52.80, 3.700, 3.700), 0, 0);
+        assertTrue(keyframe.isKeyframe());
+        assertEquals(1, keyframe.getSeq());
+        assertEquals(52.80, keyframe.getTotalVoltage());
+        assertEquals(List.of(3.700, 3.700), keyframe.getCellVoltages());
+        assertNull(keyframe.getCells());
+    }
+
+    @Test
+    public void testUnchangedSampleSendsNothingAndKeepsSeq() {
+        StatusDeltaEncoder encoder = new StatusDeltaEncoder(SETTINGS);
+        encoder.encode(status(52.80, 3.700, 3.700), 0, 0);
+        assertNull(encoder.encode(status(52.805, 3.701, 3.700), 1000, 0));
+
+        BmsStatusDeltaDto delta = encoder.encode(status(52.80, 3.703, 3.700), 2000, 0);
+        assertFalse(delta.isKeyframe());
+        assertEquals(2, delta.getSeq());
+    }
+
+    @Test
+    public void testEpsilonIsMeasuredFromLastSentValue() {
+        StatusDeltaEncoder encoder = new StatusDeltaEncoder(SETTINGS);
+        encoder.encode(status(52.80, 3.700, 3.700), 0, 0);
+        // 샘플 간 변화는 매번 epsilon 미만이지만 마지막으로 보낸 값에서는 누적되어 넘어선다
+        assertNull(encoder.encode(status(52.806, 3.700, 3.700), 1000, 0));
+        BmsStatusDeltaDto delta = encoder.encode(status(52.812, 3.700, 3.700), 2000, 0);
+        assertEquals(52.812, delta.getTotalVoltage());
+        assertNull(delta.getCurrent());
+        assertNull(delta.getCells());
+        assertNull(encoder.encode(status(52.818, 3.700, 3.700), 3000, 0));
+    }
+
+    @Test
+    public void testDeltaCarriesOnlyChangedCells() {
+        StatusDeltaEncoder encoder = new StatusDeltaEncoder(SETTINGS);
+        encoder.encode(status(52.80, 3.700, 3.700, 3.700), 0, 0);
+        BmsStatusDeltaDto delta = encoder.encode(status(52.80, 3.700, 3.690, 3.700), 1000, 0);
+        assertEquals(Map.of(1, 3.690), delta.getCells());
+        assertNull(delta.getTotalVoltage());
+        assertNull(delta.getCellVoltages());
+    }
+
+    @Test
+    public void testCellCountChangeForcesKeyframe() {
+        StatusDeltaEncoder encoder = new StatusDeltaEncoder(SETTINGS);
+        encoder.encode(status(52.80, 3.700, 3.700), 0, 0);
+        BmsStatusDeltaDto keyframe = encoder.encode(status(52.80, 3.700, 3.700, 3.700), 1000, 0);
+        assertTrue(keyframe.isKeyframe());
+        assertEquals(2, keyframe.getSeq());
+        assertEquals(3, keyframe.getCellVoltages().size());
+    }
+
+    @Test
+    public void testEpochChangeForcesKeyframe() {
+        StatusDeltaEncoder encoder = new StatusDeltaEncoder(SETTINGS);
+        encoder.encode(status(52.80, 3.700), 0, 0);
+        // 새 구독자가 생겨 세대가 바뀌면 값이 그대로여도 keyframe
+        BmsStatusDeltaDto keyframe = encoder.encode(status(52.80, 3.700), 1000, 1);
+        assertTrue(keyframe.isKeyframe());
+        assertNull(encoder.encode(status(52.80, 3.700), 2000, 1));
+    }
+
+    @Test
+    public void testKeyframeInterval() {
+        StatusDeltaEncoder encoder = new StatusDeltaEncoder(SETTINGS);
+        encoder.encode(status(52.80, 3.700), 0, 0);
+        assertNull(encoder.encode(status(52.80, 3.700), 9_999, 0));
+        assertTrue(encoder.encode(status(52.80, 3.700), 10_000, 0).isKeyframe());
+    }
+
+    private static BmsStatusDto status(double totalVoltage, Double... cells) {
+        BmsStatusDto status = new BmsStatusDto();
+        status.setDeviceId("pack-01");
+        status.setTotalVoltage(totalVoltage);
+        status.setCurrent(-3.4);
+        status.setTemperature(27.5);
+        status.setRemainingCapacity(81.0);
+        status.setCellVoltages(List.of(cells));
+        return status;
+    }
+}
@@ -0,0 +1,203 @@
+package com.bms.telemetry;
+
+import com.bms.model.BmsData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TelemetrySegmentLogTest {
+
+    private static final long BASE = 1_755_066_421_000L;
+    private static final int SEGMENT_BYTES = 8 * 1024;
+    private static final int BLOCK_RECORDS = 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testPagesConcatenateToRangeScanAcrossSegments() throws Exception {
+        try (TelemetrySegmentLog log = open(100, false)) {
+            log.append(samples(1, 600));
+
+            assertTrue(segmentCount(log) > 3, "samples should span several segments");
+            assertPagesMatchRange(log, Long.MIN_VALUE, Long.MAX_VALUE, 7);
+            // 범위 경계가 같은 timestamp 묶음 중간에 걸리는 경우
+            assertPagesMatchRange(log, timestampOf(101), timestampOf(450), 10);
+        }
+    }
+
+    @Test
+    public void testReopenRecoversSealedIndexesAndActiveSegment() throws Exception {
+        List<BmsData> written = samples(1, 500);
+        List<Long> before;
+        try (TelemetrySegmentLog log = open(100, false)) {
+            log.append(written);
+            log.flush();
+            before = ids(log.findBetweenNewestFirst(Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+
+        try (TelemetrySegmentLog log = open(100, false)) {
+            assertEquals(before, ids(log.findBetweenNewestFirst(Long.MIN_VALUE, Long.MAX_VALUE)));
+            assertEquals(newestId(written), log.findLatest().getId());
+
+            // 다시 스캔한 활성 세그먼트 뒤에 이어 쓴다 (ID 는 append 가 레코드 위치로 채운다)
+            List<BmsData> more = samples(501, 100);
+            log.append(more);
+            assertEquals(newestId(more), log.findNewest(1).get(0).getId());
+            assertTrue(newestId(more) > newestId(written));
+            assertPagesMatchRange(log, Long.MIN_VALUE, Long.MAX_VALUE, 9);
+        }
+    }
+
+    @Test
+    public void testCompressedSegmentsSurviveReopen() throws Exception {
+        List<BmsData> written = samples(1, 600);
+        try (TelemetrySegmentLog log = open(100, true)) {
+            log.append(written);
+        }
+        Map<Long, BmsData> expected = new HashMap<>();
+        written.forEach(sample -> expected.put(sample.getId(), sample));
+
+        try (TelemetrySegmentLog log = open(100, true)) {
+            assertTrue(((Number) log.getStats().get("compressedSegments")).longValue() > 0);
+            List<BmsData> all = log.findBetweenNewestFirst(Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(expected.size(), all.size());
+            for (BmsData sample : all) {
+                BmsData original = expected.get(sample.getId());
+                assertNotNull(original);
+                assertEquals(original.getTimestamp(), sample.getTimestamp());
+                assertEquals((Object) original.getTotalVoltage(), sample.getTotalVoltage());
+                assertArrayEquals(original.getCellVoltages(), sample.getCellVoltages());
+            }
+            assertPagesMatchRange(log, Long.MIN_VALUE, Long.MAX_VALUE, 11);
+        }
+    }
+
+    @Test
+    public void testRetentionDropsOldestSegments() throws Exception {
+        try (TelemetrySegmentLog log = open(3, false)) {
+            List<BmsData> written = samples(1, 1000);
+            log.append(written);
+
+            assertEquals(3, segmentCount(log));
+            List<Long> ids = ids(log.findBetweenNewestFirst(Long.MIN_VALUE, Long.MAX_VALUE));
+            assertTrue(ids.size() < written.size());
+            // 남은 구간은 가장 최근에 쓴 샘플들이 끊김 없이 이어진 것이다
+            List<Long> newest = ids(written.subList(written.size() - ids.size(), written.size()));
+            Collections.reverse(newest);
+            assertEquals(newest, ids);
+            assertPagesMatchRange(log, Long.MIN_VALUE, Long.MAX_VALUE, 13);
+        }
+    }
+
+    @Test
+    public void testNewestFirstReadsDuringRollAndRetention() throws Exception {
+        try (TelemetrySegmentLog log = open(3, false)) {
+            log.append(samples(1, 100));
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread writer = new Thread(() -> {
+                try {
+                    for (int start = 101; start < 5000; start += 20) {
+                        log.append(samples(start, 20));
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            writer.start();
+            // 보존 정리로 앞쪽 세그먼트가 지워지는 동안에도 예외 없이 중복/역전 없는 결과를 돌려줘야 한다
+            while (writer.isAlive()) {
+                assertStrictlyNewestFirst(log.findNewest(50));
+                List<Long> streamed = new ArrayList<>();
+                log.forEachBetweenNewestFirst(Long.MIN_VALUE, Long.MAX_VALUE, sample -> streamed.add(sample.getId()));
+                assertEquals(streamed.size(), new HashSet<>(streamed).size());
+            }
+            writer.join();
+            assertNull(failure.get());
+        }
+    }
+
+    private TelemetrySegmentLog open(int retainSegments, boolean compress) throws Exception {
+        return new TelemetrySegmentLog(directory, SEGMENT_BYTES, BLOCK_RECORDS, retainSegments, compress);
+    }
+
+    /**
+     * Walks keyset pages and checks they concatenate to the range scan with no duplicates or gaps.
+     */
+    private static void assertPagesMatchRange(TelemetrySegmentLog log, long from, long to, int pageSize) {
+        List<Long> expected = ids(log.findBetweenNewestFirst(from, to));
+        List<Long> paged = new ArrayList<>();
+        long beforeMillis = Long.MAX_VALUE;
+        long beforeId = Long.MAX_VALUE;
+        while (true) {
+            List<BmsData> page = log.findPageNewestFirst(from, to, beforeMillis, beforeId, pageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            assertTrue(page.size() <= pageSize);
+            page.forEach(sample -> paged.add(sample.getId()));
+            BmsData last = page.get(page.size() - 1);
+            beforeMillis = SampleRecordCodec.toEpochMillis(last.getTimestamp());
+            beforeId = last.getId();
+        }
+        assertEquals(expected, paged);
+    }
+
+    private static void assertStrictlyNewestFirst(List<BmsData> samples) {
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < samples.size(); i++) {
+            assertTrue(seen.add(samples.get(i).getId()), "duplicate id " + samples.get(i).getId());
+            if (i > 0) {
+                assertTrue(samples.get(i - 1).getId() > samples.get(i).getId());
+            }
+        }
+    }
+
+    private static int segmentCount(TelemetrySegmentLog log) {
+        return ((Number) log.getStats().get("segments")).intValue();
+    }
+
+    private static long newestId(List<BmsData> written) {
+        return written.get(written.size() - 1).getId();
+    }
+
+    private static List<Long> ids(List<BmsData> samples) {
+        List<Long> ids = new ArrayList<>(samples.size());
+        samples.forEach(sample -> ids.add(sample.getId()));
+        return ids;
+    }
+
+    // 세 샘플씩 같은 timestamp 를 공유해서 커서의 (timestamp, id) 동률 처리를 확인한다
+    private static long timestampOf(long seq) {
+        return BASE + (seq - 1) / 3 * 1000;
+    }
+
+    private static List<BmsData> samples(long firstSeq, int count) {
+        List<BmsData> samples = new ArrayList<>(count);
+        for (long seq = firstSeq; seq < firstSeq + count; seq++) {
+            BmsData data = new BmsData();
+            data.setTimestamp(SampleRecordCodec.fromEpochMillis(timestampOf(seq)));
+            data.setDeviceId("pack-0" + seq % 3);
+            data.setTotalVoltage(52.8 + seq % 10 * 0.01);
+            data.setCurrent(-12.5);
+            data.setTemperature(25.0);
+            data.setRemainingCapacity(80.0);
+            data.setChargeFetStatus(true);
+            data.setDischargeFetStatus(seq % 2 == 0);
+            data.setCellVoltages(new double[] { 3.30, 3.31, 3.29, 3.30 });
+            samples.add(data);
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,72 @@
+package com.bms.telemetry;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernel: min / max / shifted sum / sum of squares in one SIMD pass, then a scalar pass for the
+ * first min/max index. NaN(결측) 셀이 있으면 합이 NaN 이 되므로 그 샘플만 스칼라 구현으로 다시 계산한다.
+ * 레인 수보다 셀이 적으면 벡터화 이득이 없으므로 바로 스칼라로 처리한다.
+ */
+final class VectorCellStatsKernel implements CellStatsKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private final ScalarCellStatsKernel scalar = new ScalarCellStatsKernel();
+
+    @Override
+    public CellStats compute(double[] cells) {
+        if (cells == null || cells.length < SPECIES.length()) {
+            return scalar.compute(cells);
+        }
+        int length = cells.length;
+        int upper = SPECIES.loopBound(length);
+        double shift = cells[0];
+
+        DoubleVector shiftVector = DoubleVector.broadcast(SPECIES, shift);
+        DoubleVector minVector = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        DoubleVector maxVector = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        DoubleVector sumVector = DoubleVector.zero(SPECIES);
+        DoubleVector squaresVector = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector values = DoubleVector.fromArray(SPECIES, cells, i);
+            minVector = minVector.min(values);
+            maxVector = maxVector.max(values);
+            DoubleVector shifted = values.sub(shiftVector);
+            sumVector = sumVector.add(shifted);
+            squaresVector = shifted.fma(shifted, squaresVector);
+        }
+        double min = minVector.reduceLanes(VectorOperators.MIN);
+        double max = maxVector.reduceLanes(VectorOperators.MAX);
+        double sum = sumVector.reduceLanes(VectorOperators.ADD);
+        double squares = squaresVector.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            double value = cells[i];
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            double shifted = value - shift;
+            sum += shifted;
+            squares += shifted * shifted;
+        }
+        if (Double.isNaN(sum)) {
+            return scalar.compute(cells);
+        }
+        return ScalarCellStatsKernel.of(length, min, max, shift, sum, squares, indexOf(cells, min), indexOf(cells, max));
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.length() + "x64";
+    }
+
+    private static int indexOf(double[] cells, double value) {
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}